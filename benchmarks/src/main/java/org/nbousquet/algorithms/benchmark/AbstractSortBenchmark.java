@@ -0,0 +1,114 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common harness of the sort benchmarks: input generation, per invocation copy and element counting.
+ * <p>
+ * Sorting is in place, so every invocation first copies the pristine input into a work array and sorts the copy.
+ * The copy is part of the measurement, {@link #copyOnly()} measure it alone so it can be subtracted.
+ * <p>
+ * Each benchmark is reported twice: as ops/s (one op being one complete sort) and as average time where the
+ * "elements" secondary result gives the time per sorted element (ns/element).
+ * Allocation rate is given by the gc profiler, enabled by default by {@link BenchmarkRunner}.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Xss16m"})
+public abstract class AbstractSortBenchmark {
+
+    /**
+     * Seed used for all generated inputs so every algorithm sorts the very same data.
+     */
+    private static final long SEED = 0x5EED;
+
+    @Param
+    public Distribution distribution;
+
+    /**
+     * Untouched input, copied before each sort.
+     */
+    private int[] source;
+    /**
+     * Array actually sorted, reused to not measure allocation of the copy.
+     */
+    private int[] work;
+
+    /**
+     * @return algorithm to benchmark
+     */
+    protected abstract Algorithm algorithm();
+
+    /**
+     * @return number of elements to sort
+     */
+    protected abstract int size();
+
+    /**
+     * Count the sorted elements. Reported in the benchmark mode: elements/s in throughput and ns/element in
+     * average time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ElementCounter {
+        public long elements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            elements = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generate() {
+        source = distribution.generate(size(), SEED);
+        work = new int[source.length];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int[] sortThroughput(ElementCounter counter) {
+        return copyAndSort(counter);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int[] sortAverageTime(ElementCounter counter) {
+        return copyAndSort(counter);
+    }
+
+    /**
+     * Baseline: cost of restoring the input without sorting it.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int[] copyOnly() {
+        System.arraycopy(source, 0, work, 0, source.length);
+        return work;
+    }
+
+    private int[] copyAndSort(ElementCounter counter) {
+        System.arraycopy(source, 0, work, 0, source.length);
+        algorithm().sort(work);
+        counter.elements += work.length;
+        return work;
+    }
+}
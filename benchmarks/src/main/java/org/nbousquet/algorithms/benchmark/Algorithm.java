@@ -0,0 +1,54 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.nbousquet.algorithms.sort.BubbleSort;
+import org.nbousquet.algorithms.sort.FusionSort;
+import org.nbousquet.algorithms.sort.HeapSort;
+import org.nbousquet.algorithms.sort.InsertionSort;
+import org.nbousquet.algorithms.sort.QuickSort;
+import org.nbousquet.algorithms.sort.RadixSort;
+import org.nbousquet.algorithms.sort.SampleSort;
+import org.nbousquet.algorithms.sort.SmallSort;
+import org.nbousquet.algorithms.sort.Sorts;
+import org.nbousquet.algorithms.sort.ThreeWayQuickSort;
+
+import java.util.function.Consumer;
+
+/**
+ * Every in place int sort of the project, so they can be selected by name with a JMH parameter.
+ * <p>
+ * The parallel sorts are not part of the default benchmark matrix, select them explicitly, for instance
+ * {@code -p algorithm=PARALLEL_QUICK_SORT,QUICK_SORT}.
+ */
+public enum Algorithm {
+    QUICK_SORT(QuickSort::sort),
+    INTRO_SORT(QuickSort::introSort),
+    BLOCK_INTRO_SORT(array -> QuickSort.introSort(array, QuickSort.PartitionStrategy.BLOCK)),
+    THREE_WAY_QUICK_SORT(ThreeWayQuickSort::sort),
+    HEAP_SORT(HeapSort::sort),
+    FUSION_SORT(FusionSort::sort),
+    RADIX_SORT(RadixSort::sort),
+    IN_PLACE_RADIX_SORT(RadixSort::sortInPlace),
+    ADAPTIVE_SORT(Sorts::sort),
+    INSERTION_SORT(InsertionSort::sort),
+    SMALL_SORT(SmallSort::sort),
+    BUBBLE_SORT(BubbleSort::sort),
+    PARALLEL_QUICK_SORT(QuickSort::parallelSort),
+    PARALLEL_THREE_WAY_QUICK_SORT(ThreeWayQuickSort::parallelSort),
+    PARALLEL_FUSION_SORT(FusionSort::parallelSort),
+    PARALLEL_SAMPLE_SORT(SampleSort::parallelSort);
+
+    private final Consumer<int[]> sort;
+
+    Algorithm(Consumer<int[]> sort) {
+        this.sort = sort;
+    }
+
+    /**
+     * Sort the provided array in place with this algorithm.
+     *
+     * @param array array to sort
+     */
+    public void sort(int[] array) {
+        sort.accept(array);
+    }
+}
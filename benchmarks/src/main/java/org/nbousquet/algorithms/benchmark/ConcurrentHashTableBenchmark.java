@@ -0,0 +1,114 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.nbousquet.algorithms.hashtable.ConcurrentHashTable;
+import org.nbousquet.algorithms.hashtable.HashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a map shared by threads: {@link ConcurrentHashTable}, a {@link HashTable} behind a lock, and
+ * {@link ConcurrentHashMap}. Each operation is a get, or a put for the configured percentage of them.
+ * <p>
+ * Run with several threads to measure the scaling, for instance "-t 1" then "-t 8": with lock free reads, the
+ * throughput of the concurrent maps grows with the threads as long as the writes are rare.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ConcurrentHashTableBenchmark {
+
+    private static final long SEED = 0x5EED;
+
+    /**
+     * Maps under test.
+     */
+    public enum Table {
+        CONCURRENT_HASH_TABLE,
+        SYNCHRONIZED_HASH_TABLE,
+        CONCURRENT_HASH_MAP
+    }
+
+    @Param
+    public Table table;
+
+    @Param({"1000000"})
+    public int size;
+
+    /* Percentage of the operations that are puts. */
+    @Param({"0", "10"})
+    public int writePercent;
+
+    private Integer[] keys;
+
+    private ConcurrentHashTable<Integer, Integer> concurrentHashTable;
+    private HashTable<Integer, Integer> hashTable;
+    private ConcurrentHashMap<Integer, Integer> concurrentHashMap;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(SEED);
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt();
+        }
+        concurrentHashTable = new ConcurrentHashTable<>();
+        hashTable = new HashTable<>();
+        concurrentHashMap = new ConcurrentHashMap<>();
+        for (Integer key : keys) {
+            put(key);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object operation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = keys[random.nextInt(size)];
+        if (random.nextInt(100) < writePercent) {
+            put(key);
+            return key;
+        }
+        switch (table) {
+            case CONCURRENT_HASH_TABLE:
+                return concurrentHashTable.get(key);
+            case SYNCHRONIZED_HASH_TABLE:
+                synchronized (hashTable) {
+                    return hashTable.get(key);
+                }
+            default:
+                return concurrentHashMap.get(key);
+        }
+    }
+
+    private void put(Integer key) {
+        switch (table) {
+            case CONCURRENT_HASH_TABLE:
+                concurrentHashTable.put(key, key);
+                break;
+            case SYNCHRONIZED_HASH_TABLE:
+                synchronized (hashTable) {
+                    hashTable.put(key, key);
+                }
+                break;
+            default:
+                concurrentHashMap.put(key, key);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.nbousquet.algorithms.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shapes of input arrays the sorts are benchmarked against.
+ * <p>
+ * Each algorithm has its own best and worst cases (already sorted input, many duplicates...), so a single random
+ * array is not enough to choose between them. Generation is seeded so every algorithm sees exactly the same input.
+ */
+public enum Distribution {
+    /**
+     * Uniformly random values over the whole int range.
+     */
+    RANDOM {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = random.nextInt();
+            }
+        }
+    },
+    /**
+     * Already sorted in ascending order.
+     */
+    SORTED {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = i;
+            }
+        }
+    },
+    /**
+     * Sorted in descending order.
+     */
+    REVERSED {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = array.length - i;
+            }
+        }
+    },
+    /**
+     * Repeated ascending runs of SAWTOOTH_PERIOD elements, typical of concatenated sorted batches.
+     */
+    SAWTOOTH {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = i % SAWTOOTH_PERIOD;
+            }
+        }
+    },
+    /**
+     * Random values taken among FEW_DISTINCT_VALUES different values only.
+     */
+    FEW_DISTINCT {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = random.nextInt(FEW_DISTINCT_VALUES);
+            }
+        }
+    },
+    /**
+     * Every element holds the same value.
+     */
+    ALL_EQUAL {
+        @Override
+        void fill(int[] array, SplittableRandom random) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = 42;
+            }
+        }
+    };
+
+    static final int SAWTOOTH_PERIOD = 1000;
+    static final int FEW_DISTINCT_VALUES = 16;
+
+    /**
+     * Create a new array of the provided size following this distribution.
+     *
+     * @param size number of elements
+     * @param seed seed of the random generator, for reproducible inputs.
+     * @return generated array
+     */
+    public int[] generate(int size, long seed) {
+        int[] array = new int[size];
+        fill(array, new SplittableRandom(seed));
+        return array;
+    }
+
+    abstract void fill(int[] array, SplittableRandom random);
+}
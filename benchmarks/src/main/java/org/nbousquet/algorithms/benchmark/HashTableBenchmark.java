@@ -0,0 +1,156 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.nbousquet.algorithms.hashtable.HashTable;
+import org.nbousquet.algorithms.hashtable.IntIntHashTable;
+import org.nbousquet.algorithms.hashtable.SwissHashTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of int to int maps: the chained {@link HashTable} and {@link HashMap} of boxed ints, the open addressing
+ * {@link SwissHashTable} of boxed ints, and the open addressing {@link IntIntHashTable}. Keys are boxed once in the
+ * setup, so the boxed maps are measured without the boxing of the keys.
+ * <p>
+ * The "elements" secondary result gives the time per inserted or looked up key (ns/element). Run with the gc profiler
+ * to compare the allocations of the build.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class HashTableBenchmark {
+
+    private static final long SEED = 0x5EED;
+
+    /**
+     * Maps under test.
+     */
+    public enum Table {
+        HASH_TABLE,
+        HASH_MAP,
+        SWISS_HASH_TABLE,
+        INT_INT_HASH_TABLE
+    }
+
+    @Param
+    public Table table;
+
+    @Param({"100000", "10000000"})
+    public int size;
+
+    private int[] keys;
+    private Integer[] boxedKeys;
+    /* Keys in another random order than the insertion one. */
+    private int[] lookups;
+    private Integer[] boxedLookups;
+
+    private HashTable<Integer, Integer> hashTable;
+    private HashMap<Integer, Integer> hashMap;
+    private SwissHashTable<Integer, Integer> swissHashTable;
+    private IntIntHashTable intIntHashTable;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(SEED);
+        keys = new int[size];
+        boxedKeys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt();
+            boxedKeys[i] = keys[i];
+        }
+        lookups = keys.clone();
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = lookups[i];
+            lookups[i] = lookups[j];
+            lookups[j] = swap;
+        }
+        boxedLookups = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxedLookups[i] = lookups[i];
+        }
+        build();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object build(AbstractSortBenchmark.ElementCounter counter) {
+        counter.elements += size;
+        return build();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long lookup(AbstractSortBenchmark.ElementCounter counter) {
+        long sum = 0;
+        switch (table) {
+            case HASH_TABLE:
+                for (Integer key : boxedLookups) {
+                    sum += hashTable.get(key);
+                }
+                break;
+            case HASH_MAP:
+                for (Integer key : boxedLookups) {
+                    sum += hashMap.get(key);
+                }
+                break;
+            case SWISS_HASH_TABLE:
+                for (Integer key : boxedLookups) {
+                    sum += swissHashTable.get(key);
+                }
+                break;
+            case INT_INT_HASH_TABLE:
+                for (int key : lookups) {
+                    sum += intIntHashTable.get(key, 0);
+                }
+                break;
+        }
+        counter.elements += size;
+        return sum;
+    }
+
+    private Object build() {
+        switch (table) {
+            case HASH_TABLE:
+                hashTable = new HashTable<>();
+                for (Integer key : boxedKeys) {
+                    hashTable.put(key, key);
+                }
+                return hashTable;
+            case HASH_MAP:
+                hashMap = new HashMap<>();
+                for (Integer key : boxedKeys) {
+                    hashMap.put(key, key);
+                }
+                return hashMap;
+            case SWISS_HASH_TABLE:
+                swissHashTable = new SwissHashTable<>();
+                for (Integer key : boxedKeys) {
+                    swissHashTable.put(key, key);
+                }
+                return swissHashTable;
+            default:
+                intIntHashTable = new IntIntHashTable();
+                for (int key : keys) {
+                    intIntHashTable.put(key, key);
+                }
+                return intIntHashTable;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.nbousquet.algorithms.sort.FusionSort;
+import org.nbousquet.algorithms.sort.KWayMerge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of merging k sorted runs into one sorted array: the {@link KWayMerge} loser tree against concatenating
+ * the runs and sorting them with {@link FusionSort}, that finds the runs back and merges them pairwise.
+ * <p>
+ * The "elements" secondary result gives the time per merged element (ns/element).
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class MergeBenchmark {
+
+    private static final long SEED = 0x5EED;
+
+    /**
+     * Total number of merged elements.
+     */
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    /**
+     * Number of runs the elements are split in.
+     */
+    @Param({"2", "16", "1024", "8192"})
+    public int runs;
+
+    private int[][] sortedRuns;
+    private int[] merged;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        int[] source = Distribution.RANDOM.generate(size, SEED);
+        sortedRuns = new int[runs][];
+        for (int i = 0; i < runs; i++) {
+            sortedRuns[i] = Arrays.copyOfRange(source, (int) ((long) size * i / runs),
+                    (int) ((long) size * (i + 1) / runs));
+            Arrays.sort(sortedRuns[i]);
+        }
+        merged = new int[size];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int[] loserTree(AbstractSortBenchmark.ElementCounter counter) {
+        KWayMerge.of(sortedRuns).drainTo(merged, 0, merged.length);
+        counter.elements += merged.length;
+        return merged;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int[] concatenateAndFusionSort(AbstractSortBenchmark.ElementCounter counter) {
+        int position = 0;
+        for (int[] run : sortedRuns) {
+            System.arraycopy(run, 0, merged, position, run.length);
+            position += run.length;
+        }
+        FusionSort.sort(merged);
+        counter.elements += merged.length;
+        return merged;
+    }
+}
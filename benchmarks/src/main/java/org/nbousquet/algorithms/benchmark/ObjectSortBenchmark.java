@@ -0,0 +1,127 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.nbousquet.algorithms.sort.ObjectSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of sorting records by a field: {@link ObjectSort} with a comparator and with precomputed keys, against
+ * {@link Arrays#sort(Object[], Comparator)}. The records are shuffled in memory, like records loaded over time, so
+ * reading the field of a record is likely a cache miss.
+ * <p>
+ * Every invocation copies the input before sorting it, the copy being part of the measurement. The "elements"
+ * secondary result gives the time per sorted element (ns/element).
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ObjectSortBenchmark {
+
+    private static final long SEED = 0x5EED;
+
+    /**
+     * Record sorted on its timestamp.
+     */
+    public static class Record {
+        final long timestamp;
+        final String name;
+
+        Record(long timestamp, String name) {
+            this.timestamp = timestamp;
+            this.name = name;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private static final Comparator<Record> BY_TIMESTAMP = Comparator.comparingLong(Record::getTimestamp);
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private Record[] source;
+    private Record[] work;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(SEED);
+        List<Record> records = Arrays.asList(new Record[size]);
+        for (int i = 0; i < size; i++) {
+            records.set(i, new Record(random.nextLong(), "record" + i));
+        }
+        // Allocated in creation order, sorted in shuffled order: neighbours in the array are not neighbours in memory.
+        Collections.shuffle(records, random);
+        source = records.toArray(new Record[0]);
+        work = new Record[size];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Record[] arraysSort(AbstractSortBenchmark.ElementCounter counter) {
+        System.arraycopy(source, 0, work, 0, size);
+        Arrays.sort(work, BY_TIMESTAMP);
+        counter.elements += size;
+        return work;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Record[] mergeSortComparator(AbstractSortBenchmark.ElementCounter counter) {
+        System.arraycopy(source, 0, work, 0, size);
+        ObjectSort.mergeSort(work, BY_TIMESTAMP);
+        counter.elements += size;
+        return work;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Record[] mergeSortLongKey(AbstractSortBenchmark.ElementCounter counter) {
+        System.arraycopy(source, 0, work, 0, size);
+        ObjectSort.mergeSortByLongKey(work, Record::getTimestamp);
+        counter.elements += size;
+        return work;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Record[] quickSortComparator(AbstractSortBenchmark.ElementCounter counter) {
+        System.arraycopy(source, 0, work, 0, size);
+        ObjectSort.quickSort(work, BY_TIMESTAMP);
+        counter.elements += size;
+        return work;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Record[] quickSortLongKey(AbstractSortBenchmark.ElementCounter counter) {
+        System.arraycopy(source, 0, work, 0, size);
+        ObjectSort.quickSortByLongKey(work, Record::getTimestamp);
+        counter.elements += size;
+        return work;
+    }
+}
@@ -0,0 +1,26 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmark of the O(N^2) sorts. They are only meaningful on small arrays (a single 100 millions elements sort would
+ * take days), so the size matrix stops where they are clearly out of the race.
+ */
+public class QuadraticSortBenchmark extends AbstractSortBenchmark {
+
+    @Param({"SMALL_SORT", "INSERTION_SORT", "BUBBLE_SORT"})
+    public Algorithm algorithm;
+
+    @Param({"16", "256", "4096", "65536"})
+    public int size;
+
+    @Override
+    protected Algorithm algorithm() {
+        return algorithm;
+    }
+
+    @Override
+    protected int size() {
+        return size;
+    }
+}
@@ -0,0 +1,28 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmark of the O(N log(N)) and radix sorts over the full range of sizes, from 16 elements to 100 millions.
+ * <p>
+ * Remark: the randomized quick sort degrades to O(N^2) on all equal inputs, and its recursion overflows the stack
+ * for large sizes. The failure is reported by JMH and the other combinations keep running.
+ */
+public class SortBenchmark extends AbstractSortBenchmark {
+
+    @Param({"QUICK_SORT", "INTRO_SORT", "BLOCK_INTRO_SORT", "THREE_WAY_QUICK_SORT", "HEAP_SORT", "FUSION_SORT", "RADIX_SORT", "IN_PLACE_RADIX_SORT", "ADAPTIVE_SORT"})
+    public Algorithm algorithm;
+
+    @Param({"16", "256", "4096", "65536", "1000000", "10000000", "100000000"})
+    public int size;
+
+    @Override
+    protected Algorithm algorithm() {
+        return algorithm;
+    }
+
+    @Override
+    protected int size() {
+        return size;
+    }
+}
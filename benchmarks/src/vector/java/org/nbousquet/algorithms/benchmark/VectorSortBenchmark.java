@@ -0,0 +1,83 @@
+package org.nbousquet.algorithms.benchmark;
+
+import org.nbousquet.algorithms.sort.FusionSort;
+import org.nbousquet.algorithms.sort.QuickSort;
+import org.nbousquet.algorithms.vector.VectorSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark of the vectorized sorts of {@link VectorSort} against their scalar counterparts. Only built with the
+ * vector profile, see the pom.
+ * <p>
+ * Every invocation copies the input before sorting it, the copy being part of the measurement. The "elements"
+ * secondary result gives the time per sorted element (ns/element).
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class VectorSortBenchmark {
+
+    private static final long SEED = 0x5EED;
+
+    /**
+     * Vectorized sorts and the scalar sorts they replace.
+     */
+    public enum VectorAlgorithm {
+        VECTOR_INTRO_SORT(VectorSort::sort),
+        BLOCK_INTRO_SORT(array -> QuickSort.introSort(array, QuickSort.PartitionStrategy.BLOCK)),
+        VECTOR_MERGE_SORT(VectorSort::mergeSort),
+        FUSION_SORT(FusionSort::sort);
+
+        private final Consumer<int[]> sort;
+
+        VectorAlgorithm(Consumer<int[]> sort) {
+            this.sort = sort;
+        }
+    }
+
+    @Param
+    public VectorAlgorithm algorithm;
+
+    @Param({"RANDOM", "FEW_DISTINCT"})
+    public Distribution distribution;
+
+    @Param({"4096", "1000000"})
+    public int size;
+
+    private int[] source;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        if (!VectorSort.isVectorized()) {
+            throw new IllegalStateException("Vector API not available, the scalar fallback would be measured");
+        }
+        source = distribution.generate(size, SEED);
+        work = new int[size];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int[] sort(AbstractSortBenchmark.ElementCounter counter) {
+        System.arraycopy(source, 0, work, 0, size);
+        algorithm.sort.accept(work);
+        counter.elements += size;
+        return work;
+    }
+}
@@ -0,0 +1,393 @@
+package org.nbousquet.algorithms.hashtable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe chained Hash Table, for maps read by many threads at once.
+ * <p>
+ * Same design as {@link HashTable}: a power of 2 array of cells, each one a linked list of entries, hashes mixed before
+ * selecting the cell. Wrapping a HashTable in a lock would serialize every get, so here:
+ * <ul>
+ * <li>Reads take no lock. The cells are read with volatile semantics from an {@link AtomicReferenceArray}, and entries
+ * have a final key and volatile value and next entry: a reader sees either the state before or after a write, never
+ * a partially built entry.</li>
+ * <li>Writes lock a stripe, one of {@link ConcurrentHashTable#LOCK_STRIPES} locks selected by the low bits of the
+ * hash. Writes to different stripes run in parallel. The array being at least as large as the number of stripes, all
+ * the keys of a cell share the same stripe, whatever the size of the array. An insertion into an empty cell is a
+ * single compare and set, without lock.</li>
+ * <li>Resize is cooperative. The thread crossing the max load factor allocates an array twice larger. Then every
+ * thread writing to the map meanwhile claims ranges of cells and moves them. A moved cell is replaced by a forwarding
+ * entry pointing to the new array: readers and writers landing on it continue in the new array. Entries are copied
+ * into the new array rather than moved, so readers still walking an old list are not disturbed.</li>
+ * </ul>
+ * Size is a {@link LongAdder}, so it is exact when the map is not written to, an estimate otherwise.
+ * <p>
+ * Unlike HashTable, long lists are not turned into trees: use {@link HashTable.HashStrategy#SEEDED} for keys coming
+ * from outside.
+ *
+ * @param <K> Type of the Key
+ * @param <V> Type of the Value
+ */
+public class ConcurrentHashTable<K, V> {
+    /**
+     * Number of locks shared by the cells, which is also the smallest capacity.
+     */
+    public static final int LOCK_STRIPES = 64;
+    public static final int INITIAL_CAPACITY = LOCK_STRIPES;
+    /**
+     * Max load factor as a number between 0 and 1. When the map is more loaded, the array doubles.
+     */
+    public static final float MAX_LOAD_FACTOR = 0.75f;
+    /**
+     * Largest capacity, a power of 2 array length.
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+    /**
+     * Number of cells claimed at once by a thread moving cells to a new array.
+     */
+    static final int TRANSFER_STRIDE = 64;
+
+    /**
+     * Entry of a cell. Key and hash never change, value and next entry are volatile so readers without lock see the
+     * last writes of the writers.
+     */
+    static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Replaces a cell moved to a larger array, pointing to it.
+     */
+    static class ForwardingNode<K, V> extends Node<K, V> {
+        final AtomicReferenceArray<Node<K, V>> nextTable;
+
+        ForwardingNode(AtomicReferenceArray<Node<K, V>> nextTable) {
+            super(0, null, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+
+    /**
+     * State of a resize shared by the threads doing it.
+     */
+    private static class Resize<K, V> {
+        final AtomicReferenceArray<Node<K, V>> table;
+        final AtomicReferenceArray<Node<K, V>> nextTable;
+        /* Next cell to claim */
+        final AtomicInteger claimed = new AtomicInteger();
+        /* Number of moved cells */
+        final AtomicInteger moved = new AtomicInteger();
+
+        Resize(AtomicReferenceArray<Node<K, V>> table) {
+            this.table = table;
+            this.nextTable = new AtomicReferenceArray<>(2 * table.length());
+        }
+    }
+
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+    /* Resize in progress, null otherwise */
+    private final AtomicReference<Resize<K, V>> resize = new AtomicReference<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final LongAdder size = new LongAdder();
+    /* Added to the hash codes before the mix, 0 unless seeded */
+    private final int seed;
+
+    /**
+     * Empty map with the default capacity, not seeded.
+     */
+    public ConcurrentHashTable() {
+        this(0, HashTable.HashStrategy.MIXED);
+    }
+
+    /**
+     * Empty map sized to hold the expected number of entries without resize, not seeded.
+     *
+     * @param expectedSize number of entries to hold without resize
+     * @throws IllegalArgumentException negative expected size.
+     */
+    public ConcurrentHashTable(int expectedSize) {
+        this(expectedSize, HashTable.HashStrategy.MIXED);
+    }
+
+    /**
+     * Empty map sized to hold the expected number of entries without resize.
+     *
+     * @param expectedSize number of entries to hold without resize
+     * @param hashStrategy how the hash codes of the keys are mixed.
+     * @throws IllegalArgumentException negative expected size.
+     */
+    public ConcurrentHashTable(int expectedSize, HashTable.HashStrategy hashStrategy) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be positive: " + expectedSize);
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < MAX_CAPACITY && capacity * MAX_LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        table = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        seed = hashStrategy == HashTable.HashStrategy.SEEDED ? ThreadLocalRandom.current().nextInt() : 0;
+    }
+
+    /**
+     * Insert an entry inside the map.
+     * If an entry is already present for that key, replace it with the new value.
+     *
+     * @param key   key to insert. Must not be null.
+     * @param value value associated to the key. Can be null.
+     * @throws NullPointerException null key was provided as parameter.
+     */
+    public void put(K key, V value) {
+        assertKey(key);
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int cellIndex = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(cellIndex);
+            if (head == null) {
+                if (tab.compareAndSet(cellIndex, null, new Node<>(hash, key, value, null))) {
+                    added(tab);
+                    return;
+                }
+            } else if (head instanceof ForwardingNode) {
+                tab = helpResize((ForwardingNode<K, V>) head);
+            } else {
+                boolean added;
+                synchronized (lock(hash)) {
+                    if (tab.get(cellIndex) != head) {
+                        // Head removed or cell moved meanwhile.
+                        continue;
+                    }
+                    added = insert(head, hash, key, value);
+                }
+                if (added) {
+                    added(tab);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return the value for the key, null if not found. Takes no lock.
+     *
+     * @param key key
+     * @return Value associated to the value, or null if not found (might be that the inserted value was null).
+     * @throws NullPointerException null key was provided as parameter.
+     */
+    public V get(K key) {
+        assertKey(key);
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            Node<K, V> node = tab.get(hash & (tab.length() - 1));
+            if (node instanceof ForwardingNode) {
+                tab = ((ForwardingNode<K, V>) node).nextTable;
+                continue;
+            }
+            for (; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    return node.value;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Remove the provided key from the map if it was present.
+     * Return the actual value that was associated to key if available, null otherwise.
+     *
+     * @param key key to remove from the map.
+     * @return value associated to removed entry.
+     * @throws NullPointerException null key was provided as parameter.
+     */
+    public V remove(K key) {
+        assertKey(key);
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int cellIndex = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(cellIndex);
+            if (head == null) {
+                return null;
+            }
+            if (head instanceof ForwardingNode) {
+                tab = helpResize((ForwardingNode<K, V>) head);
+                continue;
+            }
+            synchronized (lock(hash)) {
+                if (tab.get(cellIndex) != head) {
+                    continue;
+                }
+                Node<K, V> previous = null;
+                for (Node<K, V> node = head; node != null; previous = node, node = node.next) {
+                    if (node.hash == hash && node.key.equals(key)) {
+                        // Readers on that node still find the rest of the list through its next entry.
+                        if (previous == null) {
+                            tab.set(cellIndex, node.next);
+                        } else {
+                            previous.next = node.next;
+                        }
+                        size.decrement();
+                        return node.value;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Return the numbers of entries actually present in the map, an estimate if the map is written to concurrently.
+     */
+    public int size() {
+        return (int) size.sum();
+    }
+
+    /**
+     * Number of cells, for tests.
+     */
+    int capacity() {
+        return table.length();
+    }
+
+    private void assertKey(K key) {
+        if (key == null) {
+            throw new NullPointerException("Provided Key is null");
+        }
+    }
+
+    private int hash(K key) {
+        return HashTable.mix(key.hashCode() + seed);
+    }
+
+    /**
+     * Lock of the cells of the hash: the cell index and the stripe index being the low bits of the hash, with at least
+     * as many cells as stripes, each cell has a single stripe.
+     */
+    private Object lock(int hash) {
+        return locks[hash & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Replace the value of the key in the list, or append an entry. Must be called with the lock of the list.
+     *
+     * @return true if an entry was added.
+     */
+    private boolean insert(Node<K, V> head, int hash, K key, V value) {
+        Node<K, V> node = head;
+        while (true) {
+            if (node.hash == hash && node.key.equals(key)) {
+                node.value = value;
+                return false;
+            }
+            if (node.next == null) {
+                node.next = new Node<>(hash, key, value, null);
+                return true;
+            }
+            node = node.next;
+        }
+    }
+
+    /**
+     * Count an added entry, and start a resize if the array crossed the max load factor.
+     *
+     * @param tab array the entry was added to
+     */
+    private void added(AtomicReferenceArray<Node<K, V>> tab) {
+        size.increment();
+        if (size.sum() > tab.length() * MAX_LOAD_FACTOR && tab.length() < MAX_CAPACITY && tab == table) {
+            Resize<K, V> current = resize.get();
+            if (current == null) {
+                // Another thread may have completed a resize since the table was read.
+                AtomicReferenceArray<Node<K, V>> latest = table;
+                if (latest == tab) {
+                    Resize<K, V> started = new Resize<>(tab);
+                    if (resize.compareAndSet(null, started)) {
+                        transfer(started);
+                        return;
+                    }
+                    current = resize.get();
+                }
+            }
+            if (current != null) {
+                transfer(current);
+            }
+        }
+    }
+
+    /**
+     * Help the resize a forwarding entry belongs to, then return the array to continue in.
+     */
+    private AtomicReferenceArray<Node<K, V>> helpResize(ForwardingNode<K, V> forwarding) {
+        Resize<K, V> current = resize.get();
+        if (current != null && current.nextTable == forwarding.nextTable) {
+            transfer(current);
+        }
+        return forwarding.nextTable;
+    }
+
+    /**
+     * Claim ranges of cells and move them to the new array until every cell is claimed. The thread moving the last
+     * cell publishes the new array.
+     */
+    private void transfer(Resize<K, V> current) {
+        int length = current.table.length();
+        int start;
+        while ((start = current.claimed.getAndAdd(TRANSFER_STRIDE)) < length) {
+            int end = Math.min(length, start + TRANSFER_STRIDE);
+            for (int cellIndex = start; cellIndex < end; cellIndex++) {
+                moveCell(current, cellIndex);
+            }
+            if (current.moved.addAndGet(end - start) == length) {
+                table = current.nextTable;
+                resize.compareAndSet(current, null);
+            }
+        }
+    }
+
+    /**
+     * Copy the entries of a cell to the new array, then replace it with a forwarding entry. Doubling the array, the
+     * entries of cell i go either to cell i or to cell i + length, depending on the next bit of their hash.
+     */
+    private void moveCell(Resize<K, V> current, int cellIndex) {
+        AtomicReferenceArray<Node<K, V>> tab = current.table;
+        ForwardingNode<K, V> forwarding = new ForwardingNode<>(current.nextTable);
+        // Inserted into an empty cell without lock: only a compare and set is safe.
+        if (tab.compareAndSet(cellIndex, null, forwarding)) {
+            return;
+        }
+        synchronized (locks[cellIndex & (LOCK_STRIPES - 1)]) {
+            int length = tab.length();
+            Node<K, V> low = null;
+            Node<K, V> high = null;
+            for (Node<K, V> node = tab.get(cellIndex); node != null; node = node.next) {
+                if ((node.hash & length) == 0) {
+                    low = new Node<>(node.hash, node.key, node.value, low);
+                } else {
+                    high = new Node<>(node.hash, node.key, node.value, high);
+                }
+            }
+            current.nextTable.set(cellIndex, low);
+            current.nextTable.set(cellIndex + length, high);
+            tab.set(cellIndex, forwarding);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package org.nbousquet.algorithms.hashtable;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Basic implementation of a chained Hash Table.
  * <p>
@@ -7,17 +11,25 @@ package org.nbousquet.algorithms.hashtable;
  * Actually, elements are put in an array like if the key were integer.
  * <p>
  * We must be able to compute an integer hash of each key (here we delegate it to standard hashCode method) and use that
- * number to select in which cell of the array we put the entry.
+ * number to select in which cell of the array we put the entry. The length of the array is a power of 2, so the cell
+ * is given by the low bits of the hash, a mask being much cheaper than a division. As many hashCode methods leave
+ * their low bits poorly distributed, the hash code is first mixed so that each of its bits changes the cell, see
+ * {@link HashStrategy}.
  * <p>
  * Each cell is actually a linked list and can hold as many entries as necessary. So in case of collision, the map still
- * behaves as expected but slow down a bit. So it is important to have a good hashing method for the key.
+ * behaves as expected but slow down a bit. So it is important to have a good hashing method for the key. A list longer
+ * than {@link HashTable#TREEIFY_THRESHOLD} is turned into a balanced tree, so that even keys sharing the same hash
+ * code are found in O(log N) rather than O(N) when they are comparable, see {@link TreeEntry}.
  * <p>
  * Finally this map grows the array capacity with the size. The growth rate are controlled by constants
- * MAX_LOAD_FACTOR & GROWTH_FACTOR.
+ * MAX_LOAD_FACTOR & GROWTH_FACTOR. By default every entry is moved to the new array at once, by the put crossing the
+ * max load factor. On a large map that single put takes hundreds of milliseconds, so an incremental mode spreads the
+ * move over the next operations, see {@link ResizeStrategy#INCREMENTAL}.
  * <p>
  * Remarks:
- * This map can be exploited for a DOS attack. We don't randomize the hash, and as such a
- * attacker can provide key (say from an HTTP request) that will all go into the same bucket.
+ * With the default hash strategy, an attacker knowing the keys' hashCode can provide keys (say from an HTTP request)
+ * that all go into the same cell. Use {@link HashStrategy#SEEDED} for keys coming from outside. Keys with equal hash
+ * codes still go into the same cell whatever the seed, the trees bounding the damage.
  * We have no interface and don't implement any for Java API. Bad for an actual lib, but against, this is just an
  * exercise.
  *
@@ -32,14 +44,91 @@ public class HashTable<K, V> {
      **/
     public static final float MAX_LOAD_FACTOR = 0.7f;
     /**
-     * By what factor the size of the array is increased when the max load capacity is crossed
+     * By what factor the size of the array is increased when the max load capacity is crossed. The length of the array
+     * being a power of 2, it is rounded up: the array doubles.
      */
     public static final float GROWTH_FACTOR = 1.33f;
+    /**
+     * Length of the linked list of a cell from which it is turned into a tree.
+     */
+    public static final int TREEIFY_THRESHOLD = 8;
+    /**
+     * Fewest cells of the previous array moved to the new one by each operation during an incremental resize.
+     */
+    public static final int MIN_MIGRATED_CELLS = 8;
+
+    /**
+     * Whether a class directly implements Comparable of itself, as {@link java.util.HashMap} checks it, computed once
+     * per class.
+     */
+    private static final ClassValue<Boolean> SELF_COMPARABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Type implemented : type.getGenericInterfaces()) {
+                if (implemented instanceof ParameterizedType) {
+                    ParameterizedType parameterized = (ParameterizedType) implemented;
+                    Type[] arguments = parameterized.getActualTypeArguments();
+                    if (parameterized.getRawType() == Comparable.class && arguments.length == 1
+                            && arguments[0] == type) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    };
+
+    /**
+     * How entries are moved to a larger array when the max load factor is crossed.
+     */
+    public enum ResizeStrategy {
+        /**
+         * Every entry is moved by the put crossing the max load factor: that put is O(N).
+         */
+        ALL_AT_ONCE,
+        /**
+         * The previous array is kept along the new one, and every operation moves the entries of a bounded number of
+         * its cells, so every operation stays O(1). Meanwhile, lookups check both arrays.
+         * <p>
+         * The number of cells moved per operation is computed when the resize starts, so that the move is over before
+         * the new array is full enough to grow again: at least {@link HashTable#MIN_MIGRATED_CELLS}, more if the
+         * growth factor is small.
+         */
+        INCREMENTAL
+    }
+
+    /**
+     * How the hash code of a key is turned into the hash selecting its cell.
+     */
+    public enum HashStrategy {
+        /**
+         * The hash code is mixed with the finalizer of MurmurHash3: each bit of the hash code changes about half of
+         * the bits of the hash, so keys differing in their high bits only still go into different cells. A key always
+         * goes into the same cell of a given array.
+         */
+        MIXED,
+        /**
+         * A random seed drawn for each map is added to the hash code before the mix. Without the seed, one can't
+         * compute keys going into the same cell, unless they have the same hash code.
+         */
+        SEEDED
+    }
 
     /**
      * The hash table state is stored in data field, this make grow of the map easier as well as unit testing
      */
-    protected Data data = new Data(new Entry[INITIAL_CAPACITY], 0, MAX_LOAD_FACTOR, GROWTH_FACTOR);
+    protected Data<K, V> data = newData(INITIAL_CAPACITY, MAX_LOAD_FACTOR, GROWTH_FACTOR);
+    /**
+     * Previous state during an incremental resize, null otherwise. Its cells before migratedCells are empty, their
+     * entries were moved to data.
+     */
+    protected Data<K, V> previousData;
+    private int migratedCells;
+    /* Number of cells of previousData moved by each operation */
+    private int migrationStep;
+    private final ResizeStrategy resizeStrategy;
+    /* Added to the hash codes before the mix, 0 unless seeded */
+    private final int seed;
 
     /**
      * Hash Table complete internal state
@@ -82,11 +171,52 @@ public class HashTable<K, V> {
         // We don't put getter/setters as this is an internal data structure. We use that class as a "struct"
     }
 
+    /**
+     * Node of a cell turned into a balanced binary search tree, an AVL tree: the heights of the subtrees of a node
+     * differ by at most 1, so the depth of the tree is at most 1.44 * log2(N).
+     * <p>
+     * Entries are ordered by hash, then by class name, then by natural order if the key class is Comparable to itself.
+     * Entries this order can't tell apart, typically keys with the same hash code that are not Comparable, share a node: they are
+     * chained to it with nextEntry, like in a list.
+     **/
+    static class TreeEntry<K, V> extends Entry<K, V> {
+        int hash;
+        int height = 1;
+        TreeEntry<K, V> left;
+        TreeEntry<K, V> right;
+
+        TreeEntry(int hash, K key, V value) {
+            super(key, value, null);
+            this.hash = hash;
+        }
+    }
+
 
     /**
-     * Default empty constructor. Nothing special, field are already initialized.
+     * Default empty constructor, the map is resized all at once and not seeded.
      */
     public HashTable() {
+        this(ResizeStrategy.ALL_AT_ONCE, HashStrategy.MIXED);
+    }
+
+    /**
+     * Empty map resized with the provided strategy, not seeded.
+     *
+     * @param resizeStrategy how entries are moved to a larger array.
+     */
+    public HashTable(ResizeStrategy resizeStrategy) {
+        this(resizeStrategy, HashStrategy.MIXED);
+    }
+
+    /**
+     * Empty map resized and hashing its keys with the provided strategies.
+     *
+     * @param resizeStrategy how entries are moved to a larger array.
+     * @param hashStrategy   how the hash codes of the keys are mixed.
+     */
+    public HashTable(ResizeStrategy resizeStrategy, HashStrategy hashStrategy) {
+        this.resizeStrategy = resizeStrategy;
+        this.seed = hashStrategy == HashStrategy.SEEDED ? ThreadLocalRandom.current().nextInt() : 0;
     }
 
     /**
@@ -99,7 +229,12 @@ public class HashTable<K, V> {
      */
     public void put(K key, V value) {
         assertKey(key);
+        migrate();
         ensureCapacity();
+        if (previousData != null) {
+            // The key shall only be in one array: move it to the new one.
+            remove(previousData, key);
+        }
         insert(data, key, value);
     }
 
@@ -112,7 +247,12 @@ public class HashTable<K, V> {
      */
     public V get(K key) {
         assertKey(key);
-        return retrieve(data, key);
+        migrate();
+        V value = retrieve(data, key);
+        if (value == null && previousData != null) {
+            value = retrieve(previousData, key);
+        }
+        return value;
     }
 
     /**
@@ -125,14 +265,19 @@ public class HashTable<K, V> {
      */
     public V remove(K key) {
         assertKey(key);
-        return remove(data, key);
+        migrate();
+        V value = remove(data, key);
+        if (value == null && previousData != null) {
+            value = remove(previousData, key);
+        }
+        return value;
     }
 
     /**
      * Return the numbers of entries actually present in the map
      */
     public int size() {
-        return data.size;
+        return previousData == null ? data.size : data.size + previousData.size;
     }
 
     /**
@@ -146,28 +291,71 @@ public class HashTable<K, V> {
         }
     }
 
+    /**
+     * Hash of the key, its hash code plus the seed, mixed with the finalizer of MurmurHash3.
+     *
+     * @param key key
+     * @return hash of the key
+     */
+    private int hash(K key) {
+        return mix(key.hashCode() + seed);
+    }
+
+    /**
+     * Finalizer of MurmurHash3: each bit of the input changes about half of the bits of the output.
+     *
+     * @param hash hash code to mix
+     * @return mixed hash
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Empty hash table state of the provided capacity.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Data<K, V> newData(int capacity, float maxLoadFactor, float growthFactor) {
+        return new Data<>(new Entry[capacity], 0, maxLoadFactor, growthFactor);
+    }
+
     /**
      * Hashing strategy used to associate a cell with a key
      *
      * @param hashTableData hash table state
-     * @param key           key
+     * @param hash          hash of the key, see {@link HashTable#hash(Object)}
      * @return index of the cell for provided key.
      */
-    private int computeKeyCell(Data hashTableData, K key) {
-        return key.hashCode() % hashTableData.array.length;
+    private int computeKeyCell(Data<K, V> hashTableData, int hash) {
+        return hash & (hashTableData.array.length - 1);
     }
 
     /**
      * For more details: {@link HashTable#put(Object, Object)}
      */
-    private void insert(Data hashTableData, K key, V value) {
-        int cellIndex = key.hashCode() % hashTableData.array.length;
+    private void insert(Data<K, V> hashTableData, K key, V value) {
+        int hash = hash(key);
+        int cellIndex = computeKeyCell(hashTableData, hash);
 
         if (hashTableData.array[cellIndex] == null) {
             hashTableData.array[cellIndex] = new Entry<K, V>(key, value, null);
             hashTableData.size++;
+        } else if (hashTableData.array[cellIndex] instanceof TreeEntry) {
+            TreeEntry<K, V> root = (TreeEntry<K, V>) hashTableData.array[cellIndex];
+            Entry<K, V> entry = find(root, hash, key);
+            if (entry != null) {
+                entry.value = value;
+                return;
+            }
+            hashTableData.array[cellIndex] = add(root, hash, key, value);
+            hashTableData.size++;
         } else {
             Entry<K, V> entry = hashTableData.array[cellIndex];
+            int length = 1;
             while (true) {
                 if (entry.key.equals(key)) {
                     entry.value = value;
@@ -177,17 +365,25 @@ public class HashTable<K, V> {
                     break;
                 }
                 entry = entry.nextEntry;
+                length++;
             }
             entry.nextEntry = new Entry<K, V>(key, value, null);
             hashTableData.size++;
+            if (length >= TREEIFY_THRESHOLD) {
+                hashTableData.array[cellIndex] = treeify(hashTableData.array[cellIndex]);
+            }
         }
     }
 
     /**
      * For more details: {@link HashTable#remove(Object)}
      */
-    private V remove(Data hashTableData, K key) {
-        int cellIndex = computeKeyCell(hashTableData, key);
+    private V remove(Data<K, V> hashTableData, K key) {
+        int hash = hash(key);
+        int cellIndex = computeKeyCell(hashTableData, hash);
+        if (hashTableData.array[cellIndex] instanceof TreeEntry) {
+            return remove(hashTableData, cellIndex, hash, key);
+        }
         if (hashTableData.array[cellIndex] != null) {
             Entry<K, V> parentEntry = null;
             Entry<K, V> entry = hashTableData.array[cellIndex];
@@ -211,8 +407,13 @@ public class HashTable<K, V> {
     /**
      * For more details: {@link HashTable#get(Object)}
      */
-    private V retrieve(Data hashTableData, K key) {
-        int cellIndex = computeKeyCell(hashTableData, key);
+    private V retrieve(Data<K, V> hashTableData, K key) {
+        int hash = hash(key);
+        int cellIndex = computeKeyCell(hashTableData, hash);
+        if (hashTableData.array[cellIndex] instanceof TreeEntry) {
+            Entry<K, V> entry = find((TreeEntry<K, V>) hashTableData.array[cellIndex], hash, key);
+            return entry == null ? null : entry.value;
+        }
         if (hashTableData.array[cellIndex] != null) {
             Entry<K, V> entry = hashTableData.array[cellIndex];
             while (entry != null && !(entry.key.equals(key))) {
@@ -231,17 +432,285 @@ public class HashTable<K, V> {
      * Remark: our basic map grow in size but never shrink.
      */
     private void ensureCapacity() {
-        if (data.size > (data.array.length * data.maxLoadFactor)) {
-            int newCapacity = (int) (data.array.length * data.growthFactor);
-            Data<K, V> newData = new Data<>(new Entry[newCapacity], 0, data.maxLoadFactor, data.growthFactor);
-            for (Entry<K, V> entry : data.array) {
-                while (entry != null) {
-                    insert(newData, entry.key, entry.value);
-                    entry = entry.nextEntry;
+        int size = size();
+        if (size > (data.array.length * data.maxLoadFactor)) {
+            if (previousData != null) {
+                // The migration step ends the move before the new array fills, unless its max load factor was
+                // lowered meanwhile: finish the move before starting another.
+                migrate(previousData.array.length);
+            }
+            // Smallest power of 2 at least growthFactor times larger, and larger anyway.
+            int minCapacity = Math.max(data.array.length + 1, (int) Math.ceil(data.array.length * data.growthFactor));
+            int newCapacity = Integer.highestOneBit(minCapacity - 1) << 1;
+            Data<K, V> newData = newData(newCapacity, data.maxLoadFactor, data.growthFactor);
+            if (resizeStrategy == ResizeStrategy.INCREMENTAL) {
+                previousData = data;
+                migratedCells = 0;
+                // Spread the move over the puts left before the new array crosses the max load factor.
+                int headroom = Math.max(1, (int) (newCapacity * data.maxLoadFactor) - size);
+                migrationStep = Math.max(MIN_MIGRATED_CELLS, (data.array.length + headroom - 1) / headroom);
+            } else {
+                for (Entry<K, V> entry : data.array) {
+                    insertAll(newData, entry);
                 }
             }
             data = newData;
         }
     }
 
+    /**
+     * During an incremental resize, move the entries of the next cells of the previous array to the new one.
+     */
+    private void migrate() {
+        if (previousData != null) {
+            migrate(migrationStep);
+        }
+    }
+
+    /**
+     * Move the entries of the next cells of the previous array to the new one, the previous array being dropped once
+     * all its cells are moved.
+     *
+     * @param cells number of cells to move
+     */
+    private void migrate(int cells) {
+        Entry<K, V>[] previousArray = previousData.array;
+        int end = Math.min(previousArray.length, migratedCells + cells);
+        for (; migratedCells < end; migratedCells++) {
+            previousData.size -= insertAll(data, previousArray[migratedCells]);
+            previousArray[migratedCells] = null;
+        }
+        if (migratedCells == previousArray.length) {
+            previousData = null;
+        }
+    }
+
+    /**
+     * Insert every entry of a cell, list or tree, into the provided hash table state.
+     *
+     * @param hashTableData hash table state
+     * @param cell          first entry of the list or root of the tree, can be null.
+     * @return number of inserted entries.
+     */
+    private int insertAll(Data<K, V> hashTableData, Entry<K, V> cell) {
+        int inserted = 0;
+        for (Entry<K, V> entry = cell; entry != null; entry = entry.nextEntry) {
+            insert(hashTableData, entry.key, entry.value);
+            inserted++;
+        }
+        if (cell instanceof TreeEntry) {
+            TreeEntry<K, V> node = (TreeEntry<K, V>) cell;
+            inserted += insertAll(hashTableData, node.left) + insertAll(hashTableData, node.right);
+        }
+        return inserted;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Cells turned into trees
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Turn the linked list of a cell into a tree.
+     *
+     * @param list first entry of the list
+     * @return root of the tree
+     */
+    private TreeEntry<K, V> treeify(Entry<K, V> list) {
+        TreeEntry<K, V> root = null;
+        for (Entry<K, V> entry = list; entry != null; entry = entry.nextEntry) {
+            root = add(root, hash(entry.key), entry.key, entry.value);
+        }
+        return root;
+    }
+
+    /**
+     * Order of a key against a node of a tree: by hash, then by class name, then by natural order if the class is
+     * Comparable to itself. A class Comparable to another type may throw ClassCastException from compareTo.
+     *
+     * @return negative if the key goes before the node, positive after, 0 if it goes in the node.
+     */
+    @SuppressWarnings("unchecked")
+    private static int compare(int hash, Object key, TreeEntry<?, ?> node) {
+        if (hash != node.hash) {
+            return Integer.compare(hash, node.hash);
+        }
+        Class<?> keyClass = key.getClass();
+        Class<?> nodeClass = node.key.getClass();
+        if (keyClass != nodeClass) {
+            int order = keyClass.getName().compareTo(nodeClass.getName());
+            // Same name from different class loaders.
+            return order != 0 ? order : Integer.compare(System.identityHashCode(keyClass),
+                    System.identityHashCode(nodeClass));
+        }
+        return SELF_COMPARABLE.get(keyClass) ? ((Comparable<Object>) key).compareTo(node.key) : 0;
+    }
+
+    /**
+     * Return the entry of the key in the tree, null if not found.
+     */
+    private Entry<K, V> find(TreeEntry<K, V> node, int hash, K key) {
+        while (node != null) {
+            int order = compare(hash, key, node);
+            if (order < 0) {
+                node = node.left;
+            } else if (order > 0) {
+                node = node.right;
+            } else {
+                for (Entry<K, V> entry = node; entry != null; entry = entry.nextEntry) {
+                    if (entry.key.equals(key)) {
+                        return entry;
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a key that is not in the tree.
+     *
+     * @param node root of the subtree, can be null
+     * @return new root of the subtree
+     */
+    private TreeEntry<K, V> add(TreeEntry<K, V> node, int hash, K key, V value) {
+        if (node == null) {
+            return new TreeEntry<>(hash, key, value);
+        }
+        int order = compare(hash, key, node);
+        if (order < 0) {
+            node.left = add(node.left, hash, key, value);
+        } else if (order > 0) {
+            node.right = add(node.right, hash, key, value);
+        } else {
+            node.nextEntry = new Entry<>(key, value, node.nextEntry);
+            return node;
+        }
+        return balance(node);
+    }
+
+    /**
+     * Remove the key from the tree of the cell, see {@link HashTable#remove(Object)}.
+     */
+    private V remove(Data<K, V> hashTableData, int cellIndex, int hash, K key) {
+        TreeEntry<K, V> root = (TreeEntry<K, V>) hashTableData.array[cellIndex];
+        TreeEntry<K, V> node = root;
+        int order;
+        while (node != null && (order = compare(hash, key, node)) != 0) {
+            node = order < 0 ? node.left : node.right;
+        }
+        if (node == null) {
+            return null;
+        }
+        Entry<K, V> parentEntry = null;
+        Entry<K, V> entry = node;
+        while (entry != null && !entry.key.equals(key)) {
+            parentEntry = entry;
+            entry = entry.nextEntry;
+        }
+        if (entry == null) {
+            return null;
+        }
+        V value = entry.value;
+        if (parentEntry != null) {
+            parentEntry.nextEntry = entry.nextEntry;
+        } else if (node.nextEntry != null) {
+            // The node stays, holding the next entry it shares with.
+            node.key = node.nextEntry.key;
+            node.value = node.nextEntry.value;
+            node.nextEntry = node.nextEntry.nextEntry;
+        } else {
+            hashTableData.array[cellIndex] = delete(root, hash, key);
+        }
+        hashTableData.size--;
+        return value;
+    }
+
+    /**
+     * Delete the node of the key from the tree, the node holding no other entry.
+     *
+     * @param node root of the subtree
+     * @return new root of the subtree, null if empty
+     */
+    private TreeEntry<K, V> delete(TreeEntry<K, V> node, int hash, K key) {
+        int order = compare(hash, key, node);
+        if (order < 0) {
+            node.left = delete(node.left, hash, key);
+        } else if (order > 0) {
+            node.right = delete(node.right, hash, key);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Replaced by its successor, the leftmost node of its right subtree.
+            TreeEntry<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteLeftmost(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private TreeEntry<K, V> deleteLeftmost(TreeEntry<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteLeftmost(node.left);
+        return balance(node);
+    }
+
+    /**
+     * Restore the balance of a node whose subtrees heights differ by at most 2, with one or two rotations.
+     *
+     * @return new root of the subtree
+     */
+    private static <K, V> TreeEntry<K, V> balance(TreeEntry<K, V> node) {
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        updateHeight(node);
+        return node;
+    }
+
+    private static <K, V> TreeEntry<K, V> rotateRight(TreeEntry<K, V> node) {
+        TreeEntry<K, V> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        updateHeight(node);
+        updateHeight(left);
+        return left;
+    }
+
+    private static <K, V> TreeEntry<K, V> rotateLeft(TreeEntry<K, V> node) {
+        TreeEntry<K, V> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        updateHeight(node);
+        updateHeight(right);
+        return right;
+    }
+
+    private static void updateHeight(TreeEntry<?, ?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    static int height(TreeEntry<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
 }
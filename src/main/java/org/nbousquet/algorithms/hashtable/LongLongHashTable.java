@@ -0,0 +1,253 @@
+package org.nbousquet.algorithms.hashtable;
+
+/**
+ * Hash table from long keys to long values, with open addressing and no object per entry. Same design as
+ * {@link IntIntHashTable}: keys and values side by side in a single long array, linear probing, key 0 kept aside as
+ * it marks free slots, and removal by shifting back the rest of the cluster rather than with tombstones.
+ * <p>
+ * Each slot takes 16 bytes, so 50 million entries at the default load factor fit in 1GB (2^26 slots) where
+ * a {@link HashTable} of boxed longs needs about 4 times more.
+ */
+public class LongLongHashTable {
+    public static final int INITIAL_CAPACITY = 16;
+    /**
+     * Default max load factor. Linear probing needs about 2.5 probes for a hit and 8.5 for a miss at that load.
+     */
+    public static final float MAX_LOAD_FACTOR = 0.75f;
+    /**
+     * Largest number of slots, the array holding 2 longs per slot.
+     */
+    static final int MAX_CAPACITY = 1 << 29;
+    /**
+     * Key marking a free slot.
+     */
+    private static final long FREE = 0;
+
+    private final float maxLoadFactor;
+    /* Key of slot i at index 2i, value at index 2i + 1. */
+    private long[] slots;
+    /* Number of entries in slots, the entry of the free key excluded. */
+    private int size;
+    /* Number of entries in slots from which the capacity is doubled. */
+    private int resizeThreshold;
+    private boolean hasFreeKey;
+    private long freeKeyValue;
+
+    /**
+     * Hash table with the default initial capacity and load factor.
+     */
+    public LongLongHashTable() {
+        this(0, MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Hash table sized to hold the expected number of entries without growing, with the default load factor.
+     *
+     * @param expectedSize number of entries to hold without growing
+     * @throws IllegalArgumentException negative expected size.
+     */
+    public LongLongHashTable(int expectedSize) {
+        this(expectedSize, MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Hash table sized to hold the expected number of entries without growing.
+     *
+     * @param expectedSize  number of entries to hold without growing
+     * @param maxLoadFactor max ratio of used slots, between 0 and 1 excluded
+     * @throws IllegalArgumentException negative expected size, or load factor out of range.
+     */
+    public LongLongHashTable(int expectedSize, float maxLoadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be positive: " + expectedSize);
+        }
+        if (!(maxLoadFactor > 0 && maxLoadFactor < 1)) {
+            throw new IllegalArgumentException("Max load factor must be between 0 and 1: " + maxLoadFactor);
+        }
+        this.maxLoadFactor = maxLoadFactor;
+        allocate(capacityFor(expectedSize, maxLoadFactor));
+    }
+
+    /**
+     * Insert an entry inside the map.
+     * If an entry is already present for that key, replace it with the new value.
+     *
+     * @param key   key to insert
+     * @param value value associated to the key
+     * @throws IllegalStateException the map holds as many entries as it can.
+     */
+    public void put(long key, long value) {
+        if (key == FREE) {
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+        int index = find(key);
+        if (slots[index] == key) {
+            slots[index + 1] = value;
+            return;
+        }
+        if (size >= resizeThreshold) {
+            grow();
+            index = find(key);
+        }
+        slots[index] = key;
+        slots[index + 1] = value;
+        size++;
+    }
+
+    /**
+     * Return the value for the key, the provided default value if not found.
+     *
+     * @param key          key
+     * @param defaultValue value returned if the key is not in the map
+     * @return value associated to the key, or the default value.
+     */
+    public long get(long key, long defaultValue) {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int index = find(key);
+        return slots[index] == key ? slots[index + 1] : defaultValue;
+    }
+
+    /**
+     * Return whether the map holds an entry for the key.
+     *
+     * @param key key
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE) {
+            return hasFreeKey;
+        }
+        return slots[find(key)] == key;
+    }
+
+    /**
+     * Remove the provided key from the map if it was present.
+     *
+     * @param key key to remove from the map.
+     * @return true if the key was in the map.
+     */
+    public boolean remove(long key) {
+        if (key == FREE) {
+            boolean removed = hasFreeKey;
+            hasFreeKey = false;
+            return removed;
+        }
+        int index = find(key);
+        if (slots[index] != key) {
+            return false;
+        }
+        shiftBack(index);
+        size--;
+        return true;
+    }
+
+    /**
+     * Return the numbers of entries actually present in the map
+     */
+    public int size() {
+        return hasFreeKey ? size + 1 : size;
+    }
+
+    /**
+     * Number of slots, for tests.
+     */
+    int capacity() {
+        return slots.length >>> 1;
+    }
+
+    /**
+     * Return the index of the slot holding the key, or of the free slot ending its cluster if the key is absent.
+     *
+     * @param key key, not the free key
+     * @return index of the key of the slot in the slots array
+     */
+    private int find(long key) {
+        int mask = slots.length - 1;
+        int index = home(key, mask);
+        while (slots[index] != key && slots[index] != FREE) {
+            index = (index + 2) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Fill the gap left by a removed entry with the next entries of its cluster that may go there: the ones whose
+     * home slot is not between the gap and their current slot. The last gap becomes a free slot.
+     *
+     * @param gap index of the removed entry
+     */
+    private void shiftBack(int gap) {
+        int mask = slots.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 2) & mask;
+            long key = slots[index];
+            if (key == FREE) {
+                slots[gap] = FREE;
+                return;
+            }
+            // Distance from the home slot to the current slot, against distance from the gap to the current slot.
+            if (((index - home(key, mask)) & mask) >= ((index - gap) & mask)) {
+                slots[gap] = key;
+                slots[gap + 1] = slots[index + 1];
+                gap = index;
+            }
+        }
+    }
+
+    /**
+     * Double the capacity and reinsert every entry.
+     *
+     * @throws IllegalStateException capacity is already the max one.
+     */
+    private void grow() {
+        int capacity = capacity();
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Hash table is full: " + size() + " entries");
+        }
+        long[] oldSlots = slots;
+        allocate(2 * capacity);
+        int mask = slots.length - 1;
+        for (int i = 0; i < oldSlots.length; i += 2) {
+            long key = oldSlots[i];
+            if (key != FREE) {
+                int index = home(key, mask);
+                while (slots[index] != FREE) {
+                    index = (index + 2) & mask;
+                }
+                slots[index] = key;
+                slots[index + 1] = oldSlots[i + 1];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[2 * capacity];
+        // At least one free slot is left, so that probing always ends.
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * maxLoadFactor));
+    }
+
+    /**
+     * Index of the home slot of the key in the slots array: its product with 2^64 / golden ratio, high
+     * bits folded into the low ones.
+     */
+    private static int home(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return ((int) (hash ^ (hash >>> 32)) << 1) & mask;
+    }
+
+    /**
+     * Smallest power of 2 capacity holding the expected size under the load factor.
+     */
+    static int capacityFor(int expectedSize, float maxLoadFactor) {
+        long capacity = INITIAL_CAPACITY;
+        while (capacity < MAX_CAPACITY && capacity * maxLoadFactor < expectedSize) {
+            capacity <<= 1;
+        }
+        return (int) capacity;
+    }
+}
@@ -0,0 +1,260 @@
+package org.nbousquet.algorithms.hashtable;
+
+/**
+ * Hash table from long keys to object values, with open addressing and no entry object. Same design as
+ * {@link IntIntHashTable}, except that values can't share the array of the keys: they are in a second array, at the
+ * same index as their key.
+ * <p>
+ * Keys are not boxed, only the values are objects, so that map costs 12 to 16 bytes per slot plus the values
+ * themselves. Removed values are cleared from the array so they can be garbage collected.
+ *
+ * @param <V> Type of the Value
+ */
+public class LongObjectHashTable<V> {
+    public static final int INITIAL_CAPACITY = 16;
+    /**
+     * Default max load factor, see {@link IntIntHashTable#MAX_LOAD_FACTOR}.
+     */
+    public static final float MAX_LOAD_FACTOR = 0.75f;
+    /**
+     * Largest number of slots, a power of 2 array length.
+     */
+    static final int MAX_CAPACITY = 1 << 30;
+    /**
+     * Key marking a free slot.
+     */
+    private static final long FREE = 0;
+
+    private final float maxLoadFactor;
+    private long[] keys;
+    /* Value of the key at the same index. */
+    private V[] values;
+    /* Number of entries in the arrays, the entry of the free key excluded. */
+    private int size;
+    /* Number of entries in the arrays from which the capacity is doubled. */
+    private int resizeThreshold;
+    private boolean hasFreeKey;
+    private V freeKeyValue;
+
+    /**
+     * Hash table with the default initial capacity and load factor.
+     */
+    public LongObjectHashTable() {
+        this(0, MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Hash table sized to hold the expected number of entries without growing, with the default load factor.
+     *
+     * @param expectedSize number of entries to hold without growing
+     * @throws IllegalArgumentException negative expected size.
+     */
+    public LongObjectHashTable(int expectedSize) {
+        this(expectedSize, MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Hash table sized to hold the expected number of entries without growing.
+     *
+     * @param expectedSize  number of entries to hold without growing
+     * @param maxLoadFactor max ratio of used slots, between 0 and 1 excluded
+     * @throws IllegalArgumentException negative expected size, or load factor out of range.
+     */
+    public LongObjectHashTable(int expectedSize, float maxLoadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be positive: " + expectedSize);
+        }
+        if (!(maxLoadFactor > 0 && maxLoadFactor < 1)) {
+            throw new IllegalArgumentException("Max load factor must be between 0 and 1: " + maxLoadFactor);
+        }
+        this.maxLoadFactor = maxLoadFactor;
+        allocate(capacityFor(expectedSize, maxLoadFactor));
+    }
+
+    /**
+     * Insert an entry inside the map.
+     * If an entry is already present for that key, replace it with the new value.
+     *
+     * @param key   key to insert
+     * @param value value associated to the key. Can be null.
+     * @throws IllegalStateException the map holds as many entries as it can.
+     */
+    public void put(long key, V value) {
+        if (key == FREE) {
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+        int index = find(key);
+        if (keys[index] == key) {
+            values[index] = value;
+            return;
+        }
+        if (size >= resizeThreshold) {
+            grow();
+            index = find(key);
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * Return the value for the key, null if not found.
+     *
+     * @param key key
+     * @return Value associated to the key, or null if not found (might be that the inserted value was null).
+     */
+    public V get(long key) {
+        if (key == FREE) {
+            return freeKeyValue;
+        }
+        int index = find(key);
+        return keys[index] == key ? values[index] : null;
+    }
+
+    /**
+     * Return whether the map holds an entry for the key.
+     *
+     * @param key key
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE) {
+            return hasFreeKey;
+        }
+        return keys[find(key)] == key;
+    }
+
+    /**
+     * Remove the provided key from the map if it was present.
+     * Return the actual value that was associated to key if available, null otherwise.
+     *
+     * @param key key to remove from the map.
+     * @return value associated to removed entry.
+     */
+    public V remove(long key) {
+        if (key == FREE) {
+            V value = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = null;
+            return value;
+        }
+        int index = find(key);
+        if (keys[index] != key) {
+            return null;
+        }
+        V value = values[index];
+        shiftBack(index);
+        size--;
+        return value;
+    }
+
+    /**
+     * Return the numbers of entries actually present in the map
+     */
+    public int size() {
+        return hasFreeKey ? size + 1 : size;
+    }
+
+    /**
+     * Number of slots, for tests.
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Return the index of the key, or of the free slot ending its cluster if the key is absent.
+     *
+     * @param key key, not the free key
+     * @return index of the key in the keys array
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int index = home(key, mask);
+        while (keys[index] != key && keys[index] != FREE) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * See {@link IntIntHashTable}: fill the gap left by a removed entry with the next entries of its cluster whose
+     * home slot is not between the gap and their current slot. The last gap becomes a free slot.
+     *
+     * @param gap index of the removed entry
+     */
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            long key = keys[index];
+            if (key == FREE) {
+                keys[gap] = FREE;
+                values[gap] = null;
+                return;
+            }
+            if (((index - home(key, mask)) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+    }
+
+    /**
+     * Double the capacity and reinsert every entry.
+     *
+     * @throws IllegalStateException capacity is already the max one.
+     */
+    private void grow() {
+        int capacity = capacity();
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Hash table is full: " + size() + " entries");
+        }
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        allocate(2 * capacity);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != FREE) {
+                int index = home(key, mask);
+                while (keys[index] != FREE) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = (V[]) new Object[capacity];
+        // At least one free slot is left, so that probing always ends.
+        resizeThreshold = Math.min(capacity - 1, (int) (capacity * maxLoadFactor));
+    }
+
+    /**
+     * Index of the home slot of the key: its product with 2^64 / golden ratio, high bits folded into the low ones.
+     */
+    private static int home(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Smallest power of 2 capacity holding the expected size under the load factor.
+     */
+    static int capacityFor(int expectedSize, float maxLoadFactor) {
+        long capacity = INITIAL_CAPACITY;
+        while (capacity < MAX_CAPACITY && capacity * maxLoadFactor < expectedSize) {
+            capacity <<= 1;
+        }
+        return (int) capacity;
+    }
+}
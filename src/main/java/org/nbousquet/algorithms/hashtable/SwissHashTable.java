@@ -0,0 +1,330 @@
+package org.nbousquet.algorithms.hashtable;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Open addressing Hash Table in the style of SwissTable, with a control byte per slot.
+ * <p>
+ * {@link HashTable} follows a pointer per probed entry, each one likely a cache miss. Here keys and values are stored
+ * side by side in a flat array, the key of slot i at index 2i and its value at 2i + 1, so the value is usually in the
+ * cache line of its key. A second array holds one control byte per slot: either {@link SwissHashTable#EMPTY}, or
+ * {@link SwissHashTable#DELETED}, or for a used slot the 7 low bits of the hash of its key.
+ * <p>
+ * Slots are probed by groups of 8, the control bytes of a group packed in a long. A lookup compares the 7 bits of its
+ * hash to the 8 control bytes at once with a few arithmetic operations on the long (SWAR, SIMD within a register), and
+ * only reads the keys whose byte matches: 1 in 128 of the other keys on average. The group is given by the high bits
+ * of the hash. Probing stops at the first group holding an empty slot, otherwise continues with the next groups in
+ * triangular order (+1, +2, +3...), which visits every group of a power of 2 table.
+ * <p>
+ * That cheap filtering allows a max load factor of 7/8: most lookups read a single long of control bytes and a single
+ * key.
+ * <p>
+ * A removed slot becomes empty if its group has an empty slot, since no probe went past such a group. Otherwise it is
+ * marked deleted: lookups skip it, insertions reuse it. Deleted slots are dropped by the next rehash, which keeps the
+ * same capacity if they make most of the load.
+ * <p>
+ * Like {@link HashTable}, hash codes are mixed first, see {@link HashTable.HashStrategy}.
+ *
+ * @param <K> Type of the Key
+ * @param <V> Type of the Value
+ */
+public class SwissHashTable<K, V> {
+    public static final int INITIAL_CAPACITY = 16;
+    /**
+     * Max load factor: the used and deleted slots fill at most 7/8 of the slots, so every probe sequence ends.
+     */
+    public static final float MAX_LOAD_FACTOR = 0.875f;
+    /**
+     * Number of slots in a group, the control bytes of a long.
+     */
+    static final int GROUP_SIZE = 8;
+    /**
+     * Largest number of slots. The group is given by the 25 bits of the hash above its 7 bits tag, so 2^25 groups of 8
+     * slots at most: with more, some groups could only be reached by probing.
+     */
+    static final int MAX_CAPACITY = 1 << 28;
+    /**
+     * Control byte of a slot that never held a key since the last rehash.
+     */
+    static final int EMPTY = 0x80;
+    /**
+     * Control byte of a slot whose key was removed.
+     */
+    static final int DELETED = 0xFE;
+
+    /* Lowest bit of each byte of a long. */
+    private static final long LSB = 0x0101010101010101L;
+    /* Highest bit of each byte of a long. */
+    private static final long MSB = 0x8080808080808080L;
+
+    /* Control bytes of slots 8g to 8g + 7 in control[g], slot 8g in the lowest byte. */
+    private long[] control;
+    /* Key of slot i at index 2i, value at index 2i + 1. */
+    private Object[] slots;
+    private int size;
+    /* Number of empty slots that may still be used before the rehash. */
+    private int growthLeft;
+    /* Added to the hash codes before the mix, 0 unless seeded */
+    private final int seed;
+
+    /**
+     * Empty map with the default capacity, not seeded.
+     */
+    public SwissHashTable() {
+        this(0, HashTable.HashStrategy.MIXED);
+    }
+
+    /**
+     * Empty map sized to hold the expected number of entries without rehash, not seeded.
+     *
+     * @param expectedSize number of entries to hold without rehash
+     * @throws IllegalArgumentException negative expected size.
+     */
+    public SwissHashTable(int expectedSize) {
+        this(expectedSize, HashTable.HashStrategy.MIXED);
+    }
+
+    /**
+     * Empty map sized to hold the expected number of entries without rehash.
+     *
+     * @param expectedSize number of entries to hold without rehash
+     * @param hashStrategy how the hash codes of the keys are mixed.
+     * @throws IllegalArgumentException negative expected size.
+     */
+    public SwissHashTable(int expectedSize, HashTable.HashStrategy hashStrategy) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be positive: " + expectedSize);
+        }
+        allocate(capacityFor(expectedSize));
+        seed = hashStrategy == HashTable.HashStrategy.SEEDED ? ThreadLocalRandom.current().nextInt() : 0;
+    }
+
+    /**
+     * Insert an entry inside the map.
+     * If an entry is already present for that key, replace it with the new value.
+     *
+     * @param key   key to insert. Must not be null.
+     * @param value value associated to the key. Can be null.
+     * @throws NullPointerException  null key was provided as parameter.
+     * @throws IllegalStateException the map holds as many entries as it can.
+     */
+    public void put(K key, V value) {
+        assertKey(key);
+        int hash = hash(key);
+        int slot = find(key, hash);
+        if (slot >= 0) {
+            slots[2 * slot + 1] = value;
+            return;
+        }
+        slot = findFree(hash);
+        if (growthLeft == 0 && controlByte(slot) == EMPTY) {
+            rehash();
+            slot = findFree(hash);
+        }
+        if (controlByte(slot) == EMPTY) {
+            growthLeft--;
+        }
+        setControlByte(slot, hash & 0x7F);
+        slots[2 * slot] = key;
+        slots[2 * slot + 1] = value;
+        size++;
+    }
+
+    /**
+     * Return the value for the key, null if not found.
+     *
+     * @param key key
+     * @return Value associated to the value, or null if not found (might be that the inserted value was null).
+     * @throws NullPointerException null key was provided as parameter.
+     */
+    public V get(K key) {
+        assertKey(key);
+        int slot = find(key, hash(key));
+        return slot >= 0 ? value(slot) : null;
+    }
+
+    /**
+     * Remove the provided key from the map if it was present.
+     * Return the actual value that was associated to key if available, null otherwise.
+     *
+     * @param key key to remove from the map.
+     * @return value associated to removed entry.
+     * @throws NullPointerException null key was provided as parameter.
+     */
+    public V remove(K key) {
+        assertKey(key);
+        int slot = find(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        V value = value(slot);
+        slots[2 * slot] = null;
+        slots[2 * slot + 1] = null;
+        if (matchEmpty(control[slot / GROUP_SIZE]) != 0) {
+            setControlByte(slot, EMPTY);
+            growthLeft++;
+        } else {
+            setControlByte(slot, DELETED);
+        }
+        size--;
+        return value;
+    }
+
+    /**
+     * Return the numbers of entries actually present in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of slots, for tests.
+     */
+    int capacity() {
+        return slots.length >>> 1;
+    }
+
+    private void assertKey(K key) {
+        if (key == null) {
+            throw new NullPointerException("Provided Key is null");
+        }
+    }
+
+    private int hash(K key) {
+        return HashTable.mix(key.hashCode() + seed);
+    }
+
+    /**
+     * Return the slot of the key, -1 if absent.
+     *
+     * @param key  key
+     * @param hash hash of the key
+     * @return slot index, or -1
+     */
+    private int find(K key, int hash) {
+        int groupMask = control.length - 1;
+        int group = (hash >>> 7) & groupMask;
+        for (int step = 1; ; step++) {
+            long controlBytes = control[group];
+            for (long match = match(controlBytes, hash & 0x7F); match != 0; match &= match - 1) {
+                int slot = group * GROUP_SIZE + (Long.numberOfTrailingZeros(match) >>> 3);
+                if (key.equals(slots[2 * slot])) {
+                    return slot;
+                }
+            }
+            if (matchEmpty(controlBytes) != 0) {
+                return -1;
+            }
+            group = (group + step) & groupMask;
+        }
+    }
+
+    /**
+     * Return the first empty or deleted slot of the probe sequence of the hash.
+     */
+    private int findFree(int hash) {
+        int groupMask = control.length - 1;
+        int group = (hash >>> 7) & groupMask;
+        for (int step = 1; ; step++) {
+            long free = matchEmptyOrDeleted(control[group]);
+            if (free != 0) {
+                return group * GROUP_SIZE + (Long.numberOfTrailingZeros(free) >>> 3);
+            }
+            group = (group + step) & groupMask;
+        }
+    }
+
+    /**
+     * Reinsert every entry into new arrays, dropping the deleted slots. Capacity doubles unless deleted slots
+     * made more than half of the load.
+     *
+     * @throws IllegalStateException capacity is already the max one.
+     */
+    private void rehash() {
+        int capacity = capacity();
+        if (size > capacity / 2 * MAX_LOAD_FACTOR) {
+            if (capacity >= MAX_CAPACITY) {
+                throw new IllegalStateException("Hash table is full: " + size + " entries");
+            }
+            capacity <<= 1;
+        }
+        long[] oldControl = control;
+        Object[] oldSlots = slots;
+        allocate(capacity);
+        for (int slot = 0; slot < oldSlots.length >>> 1; slot++) {
+            if ((oldControl[slot / GROUP_SIZE] >>> (8 * (slot % GROUP_SIZE)) & 0x80) == 0) {
+                @SuppressWarnings("unchecked")
+                int hash = hash((K) oldSlots[2 * slot]);
+                int newSlot = findFree(hash);
+                setControlByte(newSlot, hash & 0x7F);
+                slots[2 * newSlot] = oldSlots[2 * slot];
+                slots[2 * newSlot + 1] = oldSlots[2 * slot + 1];
+            }
+        }
+        growthLeft -= size;
+    }
+
+    /**
+     * Replace the arrays with empty ones of the capacity. Both are allocated before any is replaced, so an
+     * OutOfMemoryError leaves the map unchanged.
+     */
+    private void allocate(int capacity) {
+        long[] newControl = new long[capacity / GROUP_SIZE];
+        Arrays.fill(newControl, LSB * EMPTY);
+        Object[] newSlots = new Object[2 * capacity];
+        control = newControl;
+        slots = newSlots;
+        growthLeft = (int) (capacity * MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Smallest power of 2 capacity holding the expected size under the max load factor.
+     */
+    static int capacityFor(int expectedSize) {
+        long capacity = INITIAL_CAPACITY;
+        while (capacity < MAX_CAPACITY && capacity * MAX_LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return (int) capacity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int slot) {
+        return (V) slots[2 * slot + 1];
+    }
+
+    private int controlByte(int slot) {
+        return (int) (control[slot / GROUP_SIZE] >>> (8 * (slot % GROUP_SIZE))) & 0xFF;
+    }
+
+    private void setControlByte(int slot, int controlByte) {
+        int shift = 8 * (slot % GROUP_SIZE);
+        int group = slot / GROUP_SIZE;
+        control[group] = control[group] & ~(0xFFL << shift) | (long) controlByte << shift;
+    }
+
+    /**
+     * Return the high bit set for the bytes of the group equal to the 7 bits of hash. A byte following a match may be
+     * reported too, as the subtraction borrows: the keys are compared anyway.
+     */
+    static long match(long controlBytes, int hash7) {
+        long x = controlBytes ^ (LSB * hash7);
+        return (x - LSB) & ~x & MSB;
+    }
+
+    /**
+     * Return the high bit set for the empty bytes of the group: high bit set and bit 1 clear, which excludes
+     * {@link SwissHashTable#DELETED}.
+     */
+    static long matchEmpty(long controlBytes) {
+        return controlBytes & (~controlBytes << 6) & MSB;
+    }
+
+    /**
+     * Return the high bit set for the empty or deleted bytes of the group: high bit set and bit 0 clear.
+     */
+    static long matchEmptyOrDeleted(long controlBytes) {
+        return controlBytes & (~controlBytes << 7) & MSB;
+    }
+}
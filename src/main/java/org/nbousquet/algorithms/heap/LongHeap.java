@@ -0,0 +1,337 @@
+package org.nbousquet.algorithms.heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue of long values, the smallest value being polled first, backed by a d-ary "min heap" stored in an
+ * array.
+ * <p>
+ * A d-ary min heap is a tree where each node has up to d children and hold a smaller value than all of them. It is
+ * stored in an array layer by layer: the root at index 0 and, for a node at index i:
+ * children indexes = d * i + 1 to d * i + d;
+ * parent index = (i - 1) / d
+ * <p>
+ * The classic binary heap (d = 2) is log2(N) levels deep, and on a large heap each level visited is a cache miss.
+ * With d = 4 or 8 the heap is 2 or 3 times less deep, while the d children of a node are contiguous and mostly share
+ * a cache line: a sift-down compares more values per level but these are already in cache. The arity is restricted to
+ * powers of 2 so the index computations are shifts.
+ * <p>
+ * Sift operations are iterative and move the values up or down into a "hole" rather than swapping them, so each level
+ * costs a single write.
+ * <p>
+ * The array only grows when offering more values than its capacity, a queue sized up front never allocates.
+ * The static {@link LongHeap#heapify(long[], int, int, int)}, {@link LongHeap#siftDown(long[], int, int, int, int)} &
+ * {@link LongHeap#pop(long[], int, int, int)} expose the same heap logic on an array range, for in place algorithms like
+ * {@link org.nbousquet.algorithms.sort.HeapSort}.
+ */
+public class LongHeap {
+    public static final int DEFAULT_CAPACITY = 16;
+    /**
+     * Arity of the heap when not provided. 4 children of 8 bytes each, in the same cache line most of the time.
+     */
+    public static final int DEFAULT_ARITY = 4;
+    /**
+     * Largest arity allowed, the children of a node then fill a 512 bytes block.
+     */
+    public static final int MAX_ARITY = 64;
+
+    /**
+     * log2 of the arity, so d * i is i << shift.
+     */
+    private final int shift;
+    private long[] heap;
+    private int size;
+
+    /**
+     * Create an empty 4-ary heap.
+     */
+    public LongHeap() {
+        this(DEFAULT_CAPACITY, DEFAULT_ARITY);
+    }
+
+    /**
+     * Create an empty heap.
+     *
+     * @param capacity number of values the heap can hold before growing
+     * @param arity    number of children per node, a power of 2 between 2 and {@link LongHeap#MAX_ARITY}
+     * @throws IllegalArgumentException capacity is negative or arity is not supported
+     */
+    public LongHeap(int capacity, int arity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        shift = shift(arity);
+        heap = new long[capacity];
+    }
+
+    /**
+     * Add a value to the heap, in O(log(N)).
+     *
+     * @param value value to add
+     */
+    public void offer(long value) {
+        ensureCapacity(size + 1);
+        siftUp(heap, 0, size++, value, shift);
+    }
+
+    /**
+     * Add all the provided values to the heap.
+     * <p>
+     * When adding at least as many values as the heap already holds, the values are appended and the whole heap is
+     * rebuilt with {@link LongHeap#heapify(long[], int, int, int)}, in O(N) rather than O(K log(N)) for K offers.
+     *
+     * @param values values to add
+     */
+    public void offerAll(long[] values) {
+        ensureCapacity(size + values.length);
+        if (values.length >= size) {
+            System.arraycopy(values, 0, heap, size, values.length);
+            size += values.length;
+            buildHeap(heap, 0, size, shift);
+        } else {
+            for (long value : values) {
+                siftUp(heap, 0, size++, value, shift);
+            }
+        }
+    }
+
+    /**
+     * Return the smallest value, without removing it.
+     *
+     * @return smallest value of the heap
+     * @throws NoSuchElementException the heap is empty
+     */
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Remove and return the smallest value, in O(log(N)).
+     *
+     * @return smallest value of the heap
+     * @throws NoSuchElementException the heap is empty
+     */
+    public long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return bottomUpPop(heap, 0, size--, shift);
+    }
+
+    /**
+     * Remove the smallest value and add the provided one, like a {@link LongHeap#poll()} followed by an
+     * {@link LongHeap#offer(long)} but with a single sift-down.
+     *
+     * @param value value to add
+     * @return smallest value of the heap before the value is added
+     * @throws NoSuchElementException the heap is empty
+     */
+    public long replaceTop(long value) {
+        long min = peek();
+        siftDown(heap, 0, size, 0, value, shift);
+        return min;
+    }
+
+    /**
+     * Remove the count smallest values, or all of them if the heap holds less, and write them in ascending order at the
+     * beginning of the destination.
+     *
+     * @param destination array receiving the values
+     * @param count       maximum number of values to remove
+     * @return number of values removed
+     * @throws IllegalArgumentException count is negative or greater than the destination length
+     */
+    public int pollN(long[] destination, int count) {
+        if (count < 0 || count > destination.length) {
+            throw new IllegalArgumentException("Count " + count + " is out of destination of size "
+                    + destination.length);
+        }
+        int polled = Math.min(count, size);
+        for (int i = 0; i < polled; i++) {
+            destination[i] = bottomUpPop(heap, 0, size--, shift);
+        }
+        return polled;
+    }
+
+    /**
+     * Return the values of the heap, in heap order.
+     *
+     * @return new array of the values of the heap
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all the values, keeping the capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Return the number of children per node.
+     */
+    public int arity() {
+        return 1 << shift;
+    }
+
+    /**
+     * Turn the range of the array into a min heap with the provided arity, the root being at index start.
+     * <p>
+     * Floyd's bottom-up construction: the leaves are already heaps, every other node is sifted down from the last one
+     * to the root, so each node is only merged with heaps already built below it. This is O(N), as most nodes are near
+     * the bottom and sift down few levels.
+     *
+     * @param array  arbitrary array
+     * @param start  index of the heap root in the array
+     * @param length number of elements in the heap
+     * @param arity  number of children per node, a power of 2 between 2 and {@link LongHeap#MAX_ARITY}
+     * @throws IllegalArgumentException arity is not supported
+     */
+    public static void heapify(long[] array, int start, int length, int arity) {
+        buildHeap(array, start, length, shift(arity));
+    }
+
+    /**
+     * Correct the node at the provided index of a min heap whose children are heaps, by moving its value down until
+     * it is smaller than its children.
+     *
+     * @param array  array holding a heap
+     * @param start  index of the heap root in the array
+     * @param length number of elements in the heap
+     * @param index  index of the node to correct, relative to the heap root
+     * @param arity  number of children per node, a power of 2 between 2 and {@link LongHeap#MAX_ARITY}
+     * @throws IllegalArgumentException arity is not supported
+     */
+    public static void siftDown(long[] array, int start, int length, int index, int arity) {
+        siftDown(array, start, length, index, array[start + index], shift(arity));
+    }
+
+    /**
+     * Remove the root of the min heap stored in the range, the heap then holding length - 1 elements and the element
+     * at index length - 1 of the heap being free.
+     * <p>
+     * The last element moves to the root. As it comes from the bottom, it most probably goes back near the bottom:
+     * rather than comparing it at each level on the way down, the hole left by the root is moved down to a leaf along
+     * the smallest children, and the element is then sifted up from there, usually by few levels. This is Floyd's
+     * bottom-up variant, saving about one comparison per level.
+     *
+     * @param array  array holding a heap
+     * @param start  index of the heap root in the array
+     * @param length number of elements in the heap, at least 1
+     * @param arity  number of children per node, a power of 2 between 2 and {@link LongHeap#MAX_ARITY}
+     * @return the root, smallest element of the heap
+     * @throws IllegalArgumentException arity is not supported
+     */
+    public static long pop(long[] array, int start, int length, int arity) {
+        return bottomUpPop(array, start, length, shift(arity));
+    }
+
+    private static void buildHeap(long[] array, int start, int length, int shift) {
+        if (length < 2) {
+            return;
+        }
+        for (int i = (length - 2) >> shift; i >= 0; i--) {
+            siftDown(array, start, length, i, array[start + i], shift);
+        }
+    }
+
+    /**
+     * Put the value in the hole at the provided index, moving the smallest child up while it is smaller than the value.
+     */
+    private static void siftDown(long[] array, int start, int length, int index, long value, int shift) {
+        // Compared before shifting: the index of the first child may not fit in an int.
+        int lastParent = (length - 2) >> shift;
+        while (index <= lastParent) {
+            int firstChild = (index << shift) + 1;
+            int lastChild = firstChild + Math.min(1 << shift, length - firstChild);
+            int min = firstChild;
+            long minValue = array[start + firstChild];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                long childValue = array[start + child];
+                // Conditional moves rather than a branch, mispredicted half of the time on random values.
+                min = childValue < minValue ? child : min;
+                minValue = Math.min(childValue, minValue);
+            }
+            if (minValue >= value) {
+                break;
+            }
+            array[start + index] = minValue;
+            index = min;
+        }
+        array[start + index] = value;
+    }
+
+    private static long bottomUpPop(long[] array, int start, int length, int shift) {
+        long min = array[start];
+        int last = length - 1;
+        if (last == 0) {
+            return min;
+        }
+        long value = array[start + last];
+        int index = 0;
+        int lastParent = (last - 2) >> shift;
+        while (index <= lastParent) {
+            int firstChild = (index << shift) + 1;
+            int lastChild = firstChild + Math.min(1 << shift, last - firstChild);
+            int minChild = firstChild;
+            long minValue = array[start + firstChild];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                long childValue = array[start + child];
+                minChild = childValue < minValue ? child : minChild;
+                minValue = Math.min(childValue, minValue);
+            }
+            array[start + index] = minValue;
+            index = minChild;
+        }
+        siftUp(array, start, index, value, shift);
+        return min;
+    }
+
+    /**
+     * Put the value in the hole at the provided index, moving the parent down while it is greater than the value.
+     */
+    private static void siftUp(long[] array, int start, int index, long value, int shift) {
+        while (index > 0) {
+            int parent = (index - 1) >> shift;
+            long parentValue = array[start + parent];
+            if (parentValue <= value) {
+                break;
+            }
+            array[start + index] = parentValue;
+            index = parent;
+        }
+        array[start + index] = value;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(capacity, heap.length + (heap.length >> 1)));
+        }
+    }
+
+    /**
+     * Return log2 of the arity.
+     *
+     * @throws IllegalArgumentException arity is not a power of 2 between 2 and {@link LongHeap#MAX_ARITY}
+     */
+    static int shift(int arity) {
+        if (arity < 2 || arity > MAX_ARITY || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("Arity must be a power of 2 between 2 and " + MAX_ARITY + ": " + arity);
+        }
+        return Integer.numberOfTrailingZeros(arity);
+    }
+}
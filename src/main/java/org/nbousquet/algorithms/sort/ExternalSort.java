@@ -0,0 +1,369 @@
+package org.nbousquet.algorithms.sort;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * External merge sort of binary files of ints, for files larger than the available memory.
+ * <p>
+ * The sort runs in 2 phases:
+ * <ol>
+ * <li>Run generation: the input is cut in chunks small enough to be sorted in memory. Each chunk is read through a
+ * memory mapped buffer, sorted with {@link QuickSort#introSort(int[])} and written to a temporary file, called a
+ * run. Chunks are sorted in parallel, one per thread of the pool.</li>
+ * <li>Merge: the sorted runs are merged k at a time with a {@link KWayMerge}, reading each one through its own
+ * buffer. If there are more runs than can be merged at once within the memory budget,
+ * several merge passes are done, each pass producing fewer and longer runs. The buffers are slices of a single direct
+ * buffer allocated once per sort, no larger than needed for the input.</li>
+ * </ol>
+ * All reads and writes are large sequential I/O, which is what disks are good at.
+ * <p>
+ * Files are raw sequences of 4 bytes ints, without any header, in the configured byte order.
+ */
+public class ExternalSort {
+
+    /**
+     * Size of the smallest read buffer of a run during merges. Below that, I/O calls cost more than the data they move.
+     */
+    public static final int MIN_MERGE_BUFFER_BYTES = 4096;
+    /**
+     * Smallest memory budget accepted: enough to merge at least 2 runs plus an output buffer.
+     */
+    public static final long MIN_MEMORY_BUDGET = 4L * MIN_MERGE_BUFFER_BYTES;
+    /**
+     * Largest chunk sorted in memory, a memory mapped buffer cannot be bigger than 2GB.
+     */
+    private static final long MAX_CHUNK_BYTES = (Integer.MAX_VALUE / Integer.BYTES) * (long) Integer.BYTES;
+
+    private final long memoryBudget;
+    private final Path temporaryDirectory;
+    private final ByteOrder byteOrder;
+    private final ForkJoinPool pool;
+
+    /**
+     * Statistics of a sort, to follow the throughput of each phase.
+     */
+    public static class Report {
+        /* Number of ints sorted */
+        public long elements;
+        /* Number of runs written by the run generation phase */
+        public int runs;
+        /* Number of merge passes, 1 when all runs could be merged at once */
+        public int mergePasses;
+        /* Duration of the run generation phase, in nanoseconds */
+        public long runGenerationNanos;
+        /* Duration of the merge phase, all passes included, in nanoseconds */
+        public long mergeNanos;
+
+        /**
+         * @return throughput of the run generation phase, in MB of input per second.
+         */
+        public double runGenerationThroughput() {
+            return throughput(runGenerationNanos);
+        }
+
+        /**
+         * @return throughput of the merge phase, in MB of input per second, all passes included.
+         */
+        public double mergeThroughput() {
+            return throughput(mergeNanos);
+        }
+
+        private double throughput(long nanos) {
+            return nanos == 0 ? 0 : (elements * Integer.BYTES / 1e6) / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d elements, %d runs, %d merge passes, run generation %.1f MB/s, merge %.1f MB/s",
+                    elements, runs, mergePasses, runGenerationThroughput(), mergeThroughput());
+        }
+        // We don't put getter/setters as this is a simple report. We use that class as a "struct"
+    }
+
+    /**
+     * Create an external sort in big endian byte order, sorting chunks on the common fork/join pool.
+     *
+     * @param memoryBudget       bytes of memory the sort may use for its buffers.
+     * @param temporaryDirectory directory where runs are written, it needs as much free space as the input.
+     */
+    public ExternalSort(long memoryBudget, Path temporaryDirectory) {
+        this(memoryBudget, temporaryDirectory, ByteOrder.BIG_ENDIAN, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create an external sort.
+     *
+     * @param memoryBudget       bytes of memory the sort may use for its buffers, at least MIN_MEMORY_BUDGET.
+     * @param temporaryDirectory directory where runs are written, it needs as much free space as the input.
+     * @param byteOrder          byte order of the ints in the files.
+     * @param pool               pool sorting the chunks, the budget is shared between all its threads. Each one gets
+     *                           chunks of at least MIN_MERGE_BUFFER_BYTES, whatever the parallelism.
+     * @throws IllegalArgumentException memory budget is too small.
+     */
+    public ExternalSort(long memoryBudget, Path temporaryDirectory, ByteOrder byteOrder, ForkJoinPool pool) {
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_MEMORY_BUDGET + " bytes: "
+                    + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        this.temporaryDirectory = temporaryDirectory;
+        this.byteOrder = byteOrder;
+        this.pool = pool;
+    }
+
+    /**
+     * Sort the ints of the input file in ascending order into the output file. The input is left untouched.
+     *
+     * @param input  file to sort, its size must be a multiple of 4 bytes.
+     * @param output file to create or overwrite with the sorted ints.
+     * @return statistics of the sort
+     * @throws IOException              reading, writing or creating temporary files failed.
+     * @throws IllegalArgumentException input size is not a multiple of 4 bytes.
+     */
+    public Report sort(Path input, Path output) throws IOException {
+        long size = Files.size(input);
+        if (size % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("File size is not a multiple of " + Integer.BYTES + ": " + size);
+        }
+        Report report = new Report();
+        report.elements = size / Integer.BYTES;
+        List<Path> runs = new ArrayList<>();
+        // Runs written by merge passes, deleted even if their pass fails before they are added to runs.
+        List<Path> mergedRuns = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            runs.addAll(generateRuns(input, size));
+            report.runs = runs.size();
+            long generated = System.nanoTime();
+            report.runGenerationNanos = generated - start;
+
+            ByteBuffer mergeBuffer = ByteBuffer.allocateDirect(mergeBufferBytes(size));
+            int fanIn = maxFanIn(mergeBuffer.capacity());
+            while (runs.size() > fanIn) {
+                List<Path> passRuns = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    Path mergedRun = Files.createTempFile(temporaryDirectory, "run-", ".bin");
+                    mergedRuns.add(mergedRun);
+                    passRuns.add(mergedRun);
+                    merge(group, mergedRun, mergeBuffer);
+                    deleteAll(group);
+                }
+                runs = passRuns;
+                report.mergePasses++;
+            }
+            merge(runs, output, mergeBuffer);
+            report.mergePasses++;
+            report.mergeNanos = System.nanoTime() - generated;
+        } finally {
+            deleteAll(runs);
+            deleteAll(mergedRuns);
+        }
+        return report;
+    }
+
+    /**
+     * Size of the buffer split between the runs and the output of each merge: the memory budget, within the 2GB of a
+     * buffer. Past twice the input size, the run buffers would be larger than the runs they read.
+     */
+    private int mergeBufferBytes(long size) {
+        long bytes = Math.min(Math.min(memoryBudget, MAX_CHUNK_BYTES), Math.max(MIN_MEMORY_BUDGET, 2 * size));
+        return (int) bytes;
+    }
+
+    /**
+     * Number of runs that can be merged at once: each run and the output get a slice of the merge buffer of at least
+     * MIN_MERGE_BUFFER_BYTES.
+     */
+    private static int maxFanIn(int mergeBufferBytes) {
+        return mergeBufferBytes / MIN_MERGE_BUFFER_BYTES - 1;
+    }
+
+    /**
+     * Cut the input in chunks, sort them in parallel and write each one to a run file.
+     *
+     * @return sorted run files, in the order of the input.
+     */
+    private List<Path> generateRuns(Path input, long size) throws IOException {
+        // Each thread of the pool holds one chunk at a time. A pool with more threads than the budget has merge
+        // buffers still gets chunks of a merge buffer, rather than empty ones that would never cover the input.
+        long chunkBytes = memoryBudget / pool.getParallelism();
+        chunkBytes = Math.min(MAX_CHUNK_BYTES, chunkBytes - chunkBytes % Integer.BYTES);
+        chunkBytes = Math.max(MIN_MERGE_BUFFER_BYTES, chunkBytes);
+        List<Path> runs = new ArrayList<>();
+        List<Future<Void>> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            for (long position = 0; position < size; position += chunkBytes) {
+                Path run = Files.createTempFile(temporaryDirectory, "run-", ".bin");
+                runs.add(run);
+                chunks.add(pool.submit(sortChunk(channel, position, Math.min(chunkBytes, size - position), run)));
+            }
+            for (Future<Void> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            cancelAll(chunks, runs);
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while sorting chunks");
+            interrupted.initCause(e);
+            throw interrupted;
+        } catch (Exception e) {
+            cancelAll(chunks, runs);
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            throw new IOException("Sorting a chunk failed", e);
+        }
+        return runs;
+    }
+
+    /**
+     * Cancel the chunks not sorted yet and delete all the runs.
+     */
+    private static void cancelAll(List<Future<Void>> chunks, List<Path> runs) throws IOException {
+        for (Future<Void> chunk : chunks) {
+            chunk.cancel(false);
+        }
+        deleteAll(runs);
+    }
+
+    /**
+     * @return task sorting the chunk of the input at provided position, and writing it to the run file.
+     */
+    private Callable<Void> sortChunk(FileChannel input, long position, long bytes, Path run) {
+        return () -> {
+            int[] chunk = new int[(int) (bytes / Integer.BYTES)];
+            MappedByteBuffer mapped = input.map(FileChannel.MapMode.READ_ONLY, position, bytes);
+            mapped.order(byteOrder).asIntBuffer().get(chunk);
+            QuickSort.introSort(chunk);
+            try (FileChannel output = FileChannel.open(run, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                output.map(FileChannel.MapMode.READ_WRITE, 0, bytes).order(byteOrder).asIntBuffer().put(chunk);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Merge the sorted runs into the output file.
+     * <p>
+     * The merge buffer is split in equal slices for each run and the output.
+     */
+    private void merge(List<Path> runs, Path output, ByteBuffer mergeBuffer) throws IOException {
+        int bufferBytes = mergeBuffer.capacity() / (runs.size() + 1);
+        bufferBytes -= bufferBytes % Integer.BYTES;
+        RunReader[] readers = new RunReader[runs.size()];
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(runs.get(i), mergeBuffer.slice(i * bufferBytes, bufferBytes));
+            }
+            KWayMerge merge = new KWayMerge(readers);
+
+            ByteBuffer outputBuffer = mergeBuffer.slice(readers.length * bufferBytes, bufferBytes).order(byteOrder);
+            IntBuffer outputInts = outputBuffer.asIntBuffer();
+            while (merge.hasNext()) {
+                outputInts.put(merge.nextInt());
+                if (!outputInts.hasRemaining()) {
+                    write(out, outputBuffer, outputInts);
+                }
+            }
+            write(out, outputBuffer, outputInts);
+        } catch (UncheckedIOException e) {
+            // Reading a run failed within the merge.
+            throw e.getCause();
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the ints put in the buffer to the channel and clear the buffer.
+     */
+    private static void write(FileChannel channel, ByteBuffer bytes, IntBuffer ints) throws IOException {
+        bytes.limit(ints.position() * Integer.BYTES);
+        bytes.position(0);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+        ints.clear();
+    }
+
+    private static void deleteAll(List<Path> files) throws IOException {
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Sequential reader of a run, through a buffer refilled with large reads. As an iterator can't throw checked
+     * exceptions, read failures are thrown as {@link UncheckedIOException}.
+     */
+    private class RunReader implements PrimitiveIterator.OfInt, AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private IntBuffer ints;
+
+        RunReader(Path run, ByteBuffer buffer) throws IOException {
+            channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.buffer = buffer.order(byteOrder);
+            ints = buffer.asIntBuffer();
+            ints.limit(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!ints.hasRemaining()) {
+                fill();
+            }
+            return ints.hasRemaining();
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Run is exhausted");
+            }
+            return ints.get();
+        }
+
+        private void fill() {
+            buffer.clear();
+            try {
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Keep reading until the buffer is full or the run is exhausted.
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.flip();
+            ints = buffer.asIntBuffer();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
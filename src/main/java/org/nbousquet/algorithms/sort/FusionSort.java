@@ -2,13 +2,39 @@ package org.nbousquet.algorithms.sort;
 
 import org.nbousquet.algorithms.common.Utils;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class FusionSort {
 
     /**
-     * Sort the provided array in ascending order using insertion sort.
+     * Size under which the parallel sort stop splitting the work and sort or merge sequentially.
+     * Below that, the cost of creating and scheduling tasks is higher than the work itself.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * Minimal length of a run: shorter natural runs are extended to that length with a binary insertion sort, as for
+     * a handful of elements insertion is cheaper than merging.
+     */
+    private static final int MIN_MERGE = 32;
+    /**
+     * Maximal number of pending runs. The merge policy keeps run lengths growing at least like the Fibonacci
+     * sequence from the bottom of the stack, so 49 runs are enough for any int indexed array.
+     */
+    static final int MAX_PENDING_RUNS = 49;
+
+    /**
+     * Sort the provided array in ascending order using an adaptive fusion sort.
      * <p>
      * The fusion sort has O(N log(N)) complexity.
-     * The idea is to recursively divide the array in 2 sub arrays, sort then and then merge the result.
+     * The idea is to divide the array in sorted sub arrays, called runs, and then merge them 2 by 2 until a single run
+     * remains. Rather than blindly cutting the array in halves, the sort looks for the runs already present in the
+     * input (descending runs are reversed in place), like TimSort does. So an already or mostly sorted array is sorted
+     * in close to O(N).
+     * <p>
+     * A single auxiliary buffer of half the array size is allocated. See {@link FusionSort#sort(int[], int[])} to
+     * provide it and reuse it across calls.
      *
      * @param array array to sort
      */
@@ -16,48 +42,478 @@ public class FusionSort {
         if (array == null) {
             return;
         }
-        sortSubArray(array, 0, array.length - 1);
+        sort(array, new int[array.length / 2]);
     }
 
     /**
-     * Sort the provided array but within the index range (start & end included).
+     * Same as {@link FusionSort#sort(int[])} but using the provided scratch buffer instead of allocating one, so
+     * sorting does not allocate at all.
+     *
+     * @param array  array to sort
+     * @param buffer scratch buffer, at least half the size of the array. Its content is overwritten.
+     * @throws IllegalArgumentException the buffer is too small for the array.
+     */
+    public static void sort(int[] array, int[] buffer) {
+        if (array == null) {
+            return;
+        }
+        if (buffer.length < array.length / 2) {
+            throw new IllegalArgumentException("Buffer of size " + buffer.length + " is too small to sort "
+                    + array.length + " elements");
+        }
+        sortSubArray(array, 0, array.length - 1, buffer, 0);
+    }
+
+    /**
+     * Sort the provided array in ascending order using a parallel fusion sort on the common fork/join pool.
+     * <p>
+     * See {@link FusionSort#parallelSort(int[], ForkJoinPool, int)}.
      *
      * @param array array to sort
-     * @param start start of range (included)
-     * @param end   end of range (included)
      */
-    private static void sortSubArray(int[] array, int start, int end) {
-        // A null array or with only 1 element is already sorted.
-        if (end - start == 0) { // Sub array of size one, work is already done !
+    public static void parallelSort(int[] array) {
+        parallelSort(array, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Sort the provided array in ascending order using a parallel fusion sort.
+     * <p>
+     * The 2 halves of the fusion sort are independent, so they are sorted as 2 fork/join tasks. The merge of 2 large
+     * sorted runs is parallelized too: the middle element of the largest run is located in the other run by binary
+     * search, which split the merge in 2 independent smaller merges on each side of that element.
+     * Ranges smaller than the threshold are sorted or merged sequentially.
+     * <p>
+     * A single auxiliary buffer the size of the array is allocated for the whole sort.
+     *
+     * @param array     array to sort
+     * @param pool      pool running the sort tasks
+     * @param threshold size of range under which the work is done sequentially. Must be at least 1.
+     * @throws IllegalArgumentException threshold is lower than 1.
+     */
+    public static void parallelSort(int[] array, ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1: " + threshold);
+        }
+        if (array == null || array.length < 2) {
             return;
         }
-        int midDistance = (end - start) / 2;
+        pool.invoke(new SortTask(array, new int[array.length], 0, array.length - 1, threshold));
+    }
 
-        sortSubArray(array, start, start + midDistance);
-        sortSubArray(array, start + midDistance + 1, end);
-        mergeAdjacentSubArrays(array, start, start + midDistance+1, end);
+    /**
+     * Sort the provided array but within the index range (start & end included).
+     * <p>
+     * Runs are found from left to right and pushed on a stack of pending runs. After each push, the top runs are
+     * merged as long as their lengths would not keep decreasing fast enough from the bottom to the top of the stack.
+     * This balance the merges, like the halves of a classic fusion sort, while respecting the natural runs.
+     *
+     * @param array       array to sort
+     * @param start       start of range (included)
+     * @param end         end of range (included)
+     * @param buffer      scratch buffer
+     * @param bufferStart first index of the buffer that can be used, at least half the range is needed after it.
+     */
+    private static void sortSubArray(int[] array, int start, int end, int[] buffer, int bufferStart) {
+        int length = end - start + 1;
+        // A range with only 1 element is already sorted.
+        if (length < 2) {
+            return;
+        }
+        int minRun = minRunLength(length);
+        PendingRuns runs = new PendingRuns(array, buffer, bufferStart);
+        int runStart = start;
+        while (runStart <= end) {
+            int runLength = countRunAndMakeAscending(array, runStart, end);
+            if (runLength < minRun) {
+                int forcedLength = Math.min(minRun, end - runStart + 1);
+                SmallSort.sort(array, runStart, runStart + forcedLength - 1, runStart + runLength);
+                runLength = forcedLength;
+            }
+            runs.push(runStart, runLength);
+            runs.mergeCollapse();
+            runStart += runLength;
+        }
+        runs.mergeForceCollapse();
+    }
+
+    /**
+     * Compute the minimal run length for a range of the provided length.
+     * It is chosen between MIN_MERGE / 2 and MIN_MERGE so that the number of runs is a power of 2 or just below, which
+     * makes for balanced merges on random input.
+     */
+    static int minRunLength(int length) {
+        int lowBitsSet = 0;
+        while (length >= MIN_MERGE) {
+            lowBitsSet |= (length & 1);
+            length >>= 1;
+        }
+        return length + lowBitsSet;
+    }
+
+    /**
+     * Return the length of the run starting at provided index, reversing it in place if it is strictly descending.
+     * Descending run must be strict to not swap equal elements and keep the sort stable.
+     *
+     * @param array array to look into
+     * @param start start of the run (included)
+     * @param end   last index the run may extend to (included)
+     * @return length of the run, now ascending.
+     */
+    private static int countRunAndMakeAscending(int[] array, int start, int end) {
+        if (start == end) {
+            return 1;
+        }
+        int next = start + 1;
+        if (array[next] < array[start]) {
+            while (next < end && array[next + 1] < array[next]) {
+                next++;
+            }
+            reverse(array, start, next);
+        } else {
+            while (next < end && array[next + 1] >= array[next]) {
+                next++;
+            }
+        }
+        return next - start + 1;
     }
 
-    private static void mergeAdjacentSubArrays(int[] array, int startFirstArray, int startSecondArray, int end) {
-        // Create copy of the sub arrays
-        int[] firstArray = new int[startSecondArray - startFirstArray];
-        System.arraycopy(array, startFirstArray, firstArray, 0, startSecondArray - startFirstArray);
-        int[] secondArray = new int[end - startSecondArray + 1];
-        System.arraycopy(array, startSecondArray, secondArray, 0, end - startSecondArray + 1);
+    private static void reverse(int[] array, int start, int end) {
+        while (start < end) {
+            Utils.swap(array, start++, end--);
+        }
+    }
 
-        // Merge the sub arrays
-        int firstIndex = 0;
-        int secondIndex = 0;
-        for (int i = startFirstArray; i <= end; i++) {
-            if (firstArray.length > firstIndex) {
-                if ((firstArray.length > firstIndex) && (secondArray.length <= secondIndex || (firstArray[firstIndex] < secondArray[secondIndex]))) {
-                    array[i] = firstArray[firstIndex];
-                    firstIndex++;
+    /**
+     * Stack of the sorted runs found so far, waiting to be merged.
+     */
+    private static class PendingRuns {
+        private final int[] array;
+        private final int[] buffer;
+        private final int bufferStart;
+        private final int[] runStart = new int[MAX_PENDING_RUNS];
+        private final int[] runLength = new int[MAX_PENDING_RUNS];
+        private int size;
+
+        PendingRuns(int[] array, int[] buffer, int bufferStart) {
+            this.array = array;
+            this.buffer = buffer;
+            this.bufferStart = bufferStart;
+        }
+
+        void push(int start, int length) {
+            runStart[size] = start;
+            runLength[size] = length;
+            size++;
+        }
+
+        /**
+         * Merge the runs on top of the stack until the lengths respect, from bottom to top:
+         * runLength[i - 2] > runLength[i - 1] + runLength[i] and runLength[i - 1] > runLength[i].
+         */
+        void mergeCollapse() {
+            while (size > 1) {
+                int n = size - 2;
+                if ((n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1])
+                        || (n > 1 && runLength[n - 2] <= runLength[n - 1] + runLength[n])) {
+                    if (runLength[n - 1] < runLength[n + 1]) {
+                        n--;
+                    }
+                } else if (runLength[n] > runLength[n + 1]) {
+                    return;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * Merge all the remaining runs, once the whole range has been scanned.
+         */
+        void mergeForceCollapse() {
+            while (size > 1) {
+                int n = size - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            }
+        }
+
+        /**
+         * Merge the runs at index i and i + 1 of the stack.
+         */
+        private void mergeAt(int i) {
+            int firstStart = runStart[i];
+            int firstLength = runLength[i];
+            int secondStart = runStart[i + 1];
+            int secondLength = runLength[i + 1];
+
+            runLength[i] = firstLength + secondLength;
+            if (i == size - 3) {
+                runStart[i + 1] = runStart[i + 2];
+                runLength[i + 1] = runLength[i + 2];
+            }
+            size--;
+
+            // Runs already in order, nothing to merge.
+            if (array[secondStart - 1] <= array[secondStart]) {
+                return;
+            }
+            // Elements of the first run lower or equal to the head of the second run are already in place.
+            int inPlace = gallopFromStart(array, firstStart, firstLength, array[secondStart]);
+            firstStart += inPlace;
+            firstLength -= inPlace;
+            // Elements of the second run greater or equal to the tail of the first run are already in place too.
+            secondLength = gallopFromEnd(array, secondStart, secondLength, array[firstStart + firstLength - 1]);
+
+            if (firstLength <= secondLength) {
+                mergeLow(firstStart, firstLength, secondStart, secondLength);
+            } else {
+                mergeHigh(firstStart, firstLength, secondStart, secondLength);
+            }
+        }
+
+        /**
+         * Merge 2 adjacent runs, the first one being the shortest: it is copied to the buffer and the merge fill the
+         * array from the left.
+         */
+        private void mergeLow(int firstStart, int firstLength, int secondStart, int secondLength) {
+            System.arraycopy(array, firstStart, buffer, bufferStart, firstLength);
+            int first = bufferStart;
+            int firstEnd = bufferStart + firstLength;
+            int second = secondStart;
+            int secondEnd = secondStart + secondLength;
+            int destination = firstStart;
+            while (first < firstEnd && second < secondEnd) {
+                if (array[second] < buffer[first]) {
+                    array[destination++] = array[second++];
+                } else {
+                    array[destination++] = buffer[first++];
+                }
+            }
+            // Remaining elements of the second run are already in place.
+            System.arraycopy(buffer, first, array, destination, firstEnd - first);
+        }
+
+        /**
+         * Merge 2 adjacent runs, the second one being the shortest: it is copied to the buffer and the merge fill the
+         * array from the right.
+         */
+        private void mergeHigh(int firstStart, int firstLength, int secondStart, int secondLength) {
+            System.arraycopy(array, secondStart, buffer, bufferStart, secondLength);
+            int first = firstStart + firstLength - 1;
+            int second = bufferStart + secondLength - 1;
+            int destination = secondStart + secondLength - 1;
+            while (first >= firstStart && second >= bufferStart) {
+                if (buffer[second] < array[first]) {
+                    array[destination--] = array[first--];
+                } else {
+                    array[destination--] = buffer[second--];
+                }
+            }
+            // Remaining elements of the first run are already in place.
+            System.arraycopy(buffer, bufferStart, array, firstStart, second - bufferStart + 1);
+        }
+    }
+
+    /**
+     * Count the elements lower or equal to value at the start of a sorted run.
+     * <p>
+     * Galloping: indexes 0, 1, 3, 7, 15... are probed until an element greater than value is found, then a binary
+     * search is done within the last gap. When only a few elements are concerned this is much cheaper than a binary
+     * search on the whole run.
+     *
+     * @param array  array holding the run
+     * @param start  start of the run
+     * @param length length of the run
+     * @param value  value to look for
+     * @return number of elements lower or equal to value
+     */
+    private static int gallopFromStart(int[] array, int start, int length, int value) {
+        int verified = 0;
+        int bound = 1;
+        while (array[start + bound - 1] <= value) {
+            verified = bound;
+            if (bound == length) {
+                return length;
+            }
+            bound = bound >= length - bound ? length : 2 * bound + 1;
+        }
+        return upperBound(array, start + verified, start + bound - 1, value) - start;
+    }
+
+    /**
+     * Count the elements lower than value in a sorted run, galloping from the end of the run.
+     * See {@link FusionSort#gallopFromStart(int[], int, int, int)}.
+     *
+     * @param array  array holding the run
+     * @param start  start of the run
+     * @param length length of the run
+     * @param value  value to look for
+     * @return number of elements lower than value
+     */
+    private static int gallopFromEnd(int[] array, int start, int length, int value) {
+        int end = start + length;
+        int verified = 0;
+        int bound = 1;
+        while (array[end - bound] >= value) {
+            verified = bound;
+            if (bound == length) {
+                return 0;
+            }
+            bound = bound >= length - bound ? length : 2 * bound + 1;
+        }
+        return lowerBound(array, end - bound + 1, end - verified, value) - start;
+    }
+
+    /**
+     * Fork/join task sorting the range start to end (both included) of the array.
+     * The buffer is shared by all the tasks, each one only use its own range.
+     */
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] array;
+        private final int[] buffer;
+        private final int start;
+        private final int end;
+        private final int threshold;
+
+        SortTask(int[] array, int[] buffer, int start, int end, int threshold) {
+            this.array = array;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start + 1 <= threshold) {
+                sortSubArray(array, start, end, buffer, start);
+                return;
+            }
+            int mid = start + (end - start) / 2;
+            invokeAll(new SortTask(array, buffer, start, mid, threshold),
+                    new SortTask(array, buffer, mid + 1, end, threshold));
+            // Halves already in order, nothing to merge.
+            if (array[mid] <= array[mid + 1]) {
+                return;
+            }
+            // Both halves are now sorted, copy them aside and merge them back into the array.
+            System.arraycopy(array, start, buffer, start, end - start + 1);
+            new MergeTask(buffer, start, mid, mid + 1, end, array, start, threshold).compute();
+        }
+    }
+
+    /**
+     * Fork/join task merging the 2 sorted runs firstStart..firstEnd and secondStart..secondEnd (all included) of the
+     * source array into the destination array, starting at index destination.
+     */
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] source;
+        private final int firstStart;
+        private final int firstEnd;
+        private final int secondStart;
+        private final int secondEnd;
+        private final int[] destination;
+        private final int destinationStart;
+        private final int threshold;
+
+        MergeTask(int[] source, int firstStart, int firstEnd, int secondStart, int secondEnd,
+                  int[] destination, int destinationStart, int threshold) {
+            this.source = source;
+            this.firstStart = firstStart;
+            this.firstEnd = firstEnd;
+            this.secondStart = secondStart;
+            this.secondEnd = secondEnd;
+            this.destination = destination;
+            this.destinationStart = destinationStart;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int firstLength = firstEnd - firstStart + 1;
+            int secondLength = secondEnd - secondStart + 1;
+            if (firstLength + secondLength <= threshold) {
+                mergeSequentially();
+                return;
+            }
+            // Put the middle element of the largest run at its final place, and find where it splits the other run.
+            // The merge is then divided in 2 independent merges, each being at most three quarters of the work.
+            int firstSplit;
+            int secondSplit;
+            int firstResume;
+            int secondResume;
+            int middleValue;
+            if (firstLength >= secondLength) {
+                firstSplit = firstStart + firstLength / 2;
+                middleValue = source[firstSplit];
+                secondSplit = lowerBound(source, secondStart, secondEnd + 1, middleValue);
+                firstResume = firstSplit + 1;
+                secondResume = secondSplit;
+            } else {
+                secondSplit = secondStart + secondLength / 2;
+                middleValue = source[secondSplit];
+                firstSplit = upperBound(source, firstStart, firstEnd + 1, middleValue);
+                firstResume = firstSplit;
+                secondResume = secondSplit + 1;
+            }
+            int destinationSplit = destinationStart + (firstSplit - firstStart) + (secondSplit - secondStart);
+            destination[destinationSplit] = middleValue;
+            invokeAll(new MergeTask(source, firstStart, firstSplit - 1, secondStart, secondSplit - 1,
+                            destination, destinationStart, threshold),
+                    new MergeTask(source, firstResume, firstEnd, secondResume, secondEnd,
+                            destination, destinationSplit + 1, threshold));
+        }
+
+        private void mergeSequentially() {
+            int first = firstStart;
+            int second = secondStart;
+            int i = destinationStart;
+            while (first <= firstEnd && second <= secondEnd) {
+                if (source[second] < source[first]) {
+                    destination[i++] = source[second++];
                 } else {
-                    array[i] = secondArray[secondIndex];
-                    secondIndex++;
+                    destination[i++] = source[first++];
                 }
             }
+            // Only one of the runs still has elements.
+            System.arraycopy(source, first, destination, i, firstEnd - first + 1);
+            i += firstEnd - first + 1;
+            System.arraycopy(source, second, destination, i, secondEnd - second + 1);
+        }
+    }
+
+    /**
+     * @return index of the first element not lower than value in the sorted range from (included) to (excluded).
+     */
+    private static int lowerBound(int[] array, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (array[mid] < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * @return index of the first element greater than value in the sorted range from (included) to (excluded).
+     */
+    private static int upperBound(int[] array, int from, int to, int value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (array[mid] <= value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
         }
+        return from;
     }
 }
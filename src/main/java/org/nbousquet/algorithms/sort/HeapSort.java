@@ -1,25 +1,32 @@
 package org.nbousquet.algorithms.sort;
 
 import org.nbousquet.algorithms.common.Utils;
+import org.nbousquet.algorithms.heap.IntHeap;
 
 public class HeapSort {
 
+    /**
+     * Arity of the heap used to sort, see {@link IntHeap}. On large arrays 8 children per node measured faster than 4,
+     * the heap being 3 times less deep than a binary one.
+     */
+    static final int ARITY = 8;
+
     /**
      * Sort the provided array using heap sort.
      * <p>
-     * A "max heap" is a binary tree where each node hold a bigger value than its 2 children.
-     * We can efficiently store it as an array storing the binary layer by layer.
-     * The index O is the root, index one is the left child of the root and index two the right child of the root.
-     * This goes on recursively index 3 & 4 are children of 1 and index 5 & 6 are children of 2.
+     * A "min heap" is a tree where each node hold a smaller value than its children.
+     * We can efficiently store it as an array storing the tree layer by layer, see {@link IntHeap}. Here each node
+     * has 8 children: index 0 is the root, indexes 1 to 8 are its children, indexes 9 to 16 the children of 1 and so
+     * on. A 8-ary heap is 3 times less deep than a binary one and the children of a node mostly share a cache line, so
+     * each level of a sift-down costs about one cache miss.
      * <p>
      * So for a node at index i we can say that:
-     * leftchild index = 2* i + 1;
-     * rightchild index = 2 * i + 1;
-     * parent index = (i-1) / 2
+     * children indexes = 8 * i + 1 to 8 * i + 8;
+     * parent index = (i - 1) / 8
      * <p>
-     * The algorithm first transform an arbitrary array into a max heap, meaning that the largest element is now
-     * at the root, index 0. It then put the root at the end knowing it at the right place, being the largest and
-     * it rebuild a max heap with an array of size reduced by 1.
+     * The algorithm first transform an arbitrary array into a min heap, meaning that the smallest element is now
+     * at the root, index 0. It then pops the root, the last element of the heap filling the gap, and put the root at
+     * the end where it stays as the heap is now smaller by 1. The array ends up in descending order, and is reversed.
      * <p>
      * See https://en.wikipedia.org/wiki/Heapsort for more details.
      *
@@ -29,45 +36,33 @@ public class HeapSort {
         if (array == null) {
             return;
         }
-        buildMaxHeap(array, array.length);
-        for (int i = array.length; i >= 1; i--) {
-            // Put the biggest element at its final place
-            Utils.swap(array, i - 1, 0);
-            // Rectify the heap that has now an arbitrary root.
-            maxHeapify(array, i - 1, 0);
-        }
-
+        sort(array, 0, array.length - 1);
     }
 
-
     /**
-     * Perform a max-Heapify operation at provided index on a heap stored as an array.
+     * Sort the provided array but within the index range (start & end included). The heap is stored in the range,
+     * its root being at index start.
      * <p>
-     * The max-heapify operation for a given node correct the provided root to ensure the property of the max-heap are
-     * meet. In case one of the children has changed, the operation is done recursively.
+     * See {@link HeapSort#sort(int[])}.
      *
-     * @param array arbitrary array
+     * @param array array to sort
+     * @param start start of range (included)
+     * @param end   end of range (included)
      */
-    private static void maxHeapify(int[] array, int length, int index) {
-        int leftChild = 2 * index + 1;
-        int rightChild = leftChild + 1;
-        int max = index;
-
-        if (leftChild < length && array[leftChild] > array[max]) {
-            max = leftChild;
-        }
-        if (rightChild < length && array[rightChild] > array[max]) {
-            max = rightChild;
-        }
-        if (max != index) {
-            Utils.swap(array, max, index);
-            maxHeapify(array, length, max);
+    static void sort(int[] array, int start, int end) {
+        int length = end - start + 1;
+        IntHeap.heapify(array, start, length, ARITY);
+        for (int i = length; i > 1; i--) {
+            // Put the smallest element right after the heap, now smaller by 1: its place once the range in descending
+            // order.
+            array[start + i - 1] = IntHeap.pop(array, start, i, ARITY);
         }
+        reverse(array, start, end);
     }
 
-    private static void buildMaxHeap(int[] array, int length) {
-        for (int i = (array.length - 1) / 2; i >= 0; i--) {
-            maxHeapify(array, array.length, i);
+    private static void reverse(int[] array, int start, int end) {
+        while (start < end) {
+            Utils.swap(array, start++, end--);
         }
     }
 }
@@ -1,4 +1,4 @@
-package org.nbousquet.algorithms.common;
+package org.nbousquet.algorithms.sort;
 
 public class InsertionSort {
 
@@ -15,12 +15,29 @@ public class InsertionSort {
         if (array == null || array.length < 2) {
             return;
         }
-        for (int i = 1; i < array.length; i++) {
-            for (int j = 0; j < i; j++) {
-                if (array[j] > array[i]) {
-                    Utils.swap(array, i, j);
-                }
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * Sort the provided array but within the index range (start & end included).
+     * <p>
+     * Each element is inserted in the already sorted beginning of the range by shifting the greater elements one
+     * place to the right. Being very cheap on small or almost sorted ranges, it is used by other sorts to finish
+     * their small partitions.
+     *
+     * @param array array to sort
+     * @param start start of range (included)
+     * @param end   end of range (included)
+     */
+    public static void sort(int[] array, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            int value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
             }
+            array[j] = value;
         }
     }
 }
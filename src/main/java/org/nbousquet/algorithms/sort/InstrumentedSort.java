@@ -0,0 +1,620 @@
+package org.nbousquet.algorithms.sort;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Instrumented copies of the sorts of this package, counting what they do to tell why a sort is slow: comparisons,
+ * swaps, writes, recursion depth, balance of the partitions and wall time. See {@link SortMetrics}.
+ * <p>
+ * The production sorts are left untouched: counting in them would cost a branch or an increment in their hot loops
+ * even when nobody looks at the metrics. Instead each algorithm is mirrored here step by step, every comparison and
+ * write going through a counting helper. An instrumented sort compares, swaps and recurses exactly like its production
+ * counterpart given the same pivots, so its metrics explain the production behavior, only its wall time being
+ * inflated by the counting. Sorting networks have a fixed sequence of comparators, they are run uninstrumented and
+ * accounted for from their size.
+ * <p>
+ * The introspective sort is mirrored with Lomuto partitioning, as {@link QuickSort#introSort(int[])}, the block
+ * partition being an optimisation of the same comparisons.
+ * <p>
+ * The fusion sort mirror also counts the runs it detects and the elements its galloping leaves in place, which tell
+ * how much of the input was already sorted. The radix sorts are not mirrored: they do not compare elements, their
+ * cost is a fixed number of passes over the array whatever the data.
+ */
+public class InstrumentedSort {
+
+    /**
+     * Algorithms that can be sorted with metrics.
+     */
+    public enum Algorithm {
+        QUICK_SORT,
+        INTRO_SORT,
+        THREE_WAY_QUICK_SORT,
+        FUSION_SORT,
+        HEAP_SORT,
+        INSERTION_SORT,
+        BUBBLE_SORT
+    }
+
+    /**
+     * Shift of the arity of the heap sort, see {@link HeapSort#ARITY}.
+     */
+    private static final int HEAP_SHIFT = Integer.numberOfTrailingZeros(HeapSort.ARITY);
+
+    private final SortMetrics metrics = new SortMetrics();
+    private int depth;
+
+    private InstrumentedSort(Algorithm algorithm, int length) {
+        metrics.algorithm = algorithm;
+        metrics.length = length;
+    }
+
+    /**
+     * Sort the provided array in ascending order with the provided algorithm, collecting its metrics.
+     *
+     * @param algorithm algorithm to sort with
+     * @param array     array to sort
+     * @param listener  called with the metrics once the array is sorted, may be null
+     * @return metrics of the sort
+     */
+    public static SortMetrics sort(Algorithm algorithm, int[] array, Consumer<SortMetrics> listener) {
+        InstrumentedSort sort = new InstrumentedSort(algorithm, array == null ? 0 : array.length);
+        long startTime = System.nanoTime();
+        if (array != null && array.length > 1) {
+            int end = array.length - 1;
+            sort.enter();
+            switch (algorithm) {
+                case QUICK_SORT:
+                    sort.quickSort(array, 0, end);
+                    break;
+                case INTRO_SORT:
+                    sort.introSort(array, 0, end, 2 * QuickSort.log2(array.length));
+                    break;
+                case THREE_WAY_QUICK_SORT:
+                    sort.threeWayQuickSort(array, 0, end);
+                    break;
+                case FUSION_SORT:
+                    sort.fusionSort(array, 0, end);
+                    break;
+                case HEAP_SORT:
+                    sort.heapSort(array, 0, end);
+                    break;
+                case INSERTION_SORT:
+                    sort.insertionSort(array, 0, end);
+                    break;
+                default:
+                    sort.bubbleSort(array);
+            }
+            sort.exit();
+        }
+        sort.metrics.nanos = System.nanoTime() - startTime;
+        if (listener != null) {
+            listener.accept(sort.metrics);
+        }
+        return sort.metrics;
+    }
+
+    /**
+     * Mirror of {@link QuickSort#sort(int[])}.
+     */
+    private void quickSort(int[] array, int start, int end) {
+        if (end <= start) {
+            return;
+        }
+        int pivotIndex = partition(array, start, end, ThreadLocalRandom.current().nextInt(start, end + 1));
+        enter();
+        quickSort(array, start, pivotIndex - 1);
+        quickSort(array, pivotIndex + 1, end);
+        exit();
+    }
+
+    /**
+     * Mirror of {@link QuickSort#introSort(int[])}.
+     */
+    private void introSort(int[] array, int start, int end, int depthLimit) {
+        while (end - start + 1 > QuickSort.SMALL_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(array, start, end);
+                return;
+            }
+            depthLimit--;
+            int pivotIndex = partition(array, start, end, choosePivot(array, start, end));
+            enter();
+            if (pivotIndex - start < end - pivotIndex) {
+                introSort(array, start, pivotIndex - 1, depthLimit);
+                start = pivotIndex + 1;
+            } else {
+                introSort(array, pivotIndex + 1, end, depthLimit);
+                end = pivotIndex - 1;
+            }
+            exit();
+        }
+        smallSort(array, start, end);
+    }
+
+    /**
+     * Mirror of {@link ThreeWayQuickSort#sort(int[])}.
+     */
+    private void threeWayQuickSort(int[] array, int start, int end) {
+        if (end - start < SmallSort.MAX_NETWORK_SIZE) {
+            smallSort(array, start, end);
+            return;
+        }
+        ThreeWayQuickSort.PivotIndexes pivot = threeWayPartition(array, start, end,
+                ThreadLocalRandom.current().nextInt(start, end + 1));
+        enter();
+        threeWayQuickSort(array, start, pivot.start - 1);
+        threeWayQuickSort(array, pivot.end + 1, end);
+        exit();
+    }
+
+    /**
+     * Mirror of {@link FusionSort#sort(int[])}.
+     */
+    private void fusionSort(int[] array, int start, int end) {
+        int minRun = FusionSort.minRunLength(end - start + 1);
+        PendingRuns runs = new PendingRuns(array, new int[array.length / 2]);
+        int runStart = start;
+        while (runStart <= end) {
+            int runLength = countRunAndMakeAscending(array, runStart, end);
+            metrics.runs++;
+            if (runLength < minRun) {
+                int forcedLength = Math.min(minRun, end - runStart + 1);
+                smallSort(array, runStart, runStart + forcedLength - 1, runStart + runLength);
+                runLength = forcedLength;
+            }
+            runs.push(runStart, runLength);
+            runs.mergeCollapse();
+            runStart += runLength;
+        }
+        runs.mergeForceCollapse();
+    }
+
+    /**
+     * Mirror of the run detection of {@link FusionSort}.
+     */
+    private int countRunAndMakeAscending(int[] array, int start, int end) {
+        if (start == end) {
+            return 1;
+        }
+        int next = start + 1;
+        if (less(array[next], array[start])) {
+            while (next < end && less(array[next + 1], array[next])) {
+                next++;
+            }
+            for (int i = start, j = next; i < j; i++, j--) {
+                swap(array, i, j);
+            }
+        } else {
+            while (next < end && !less(array[next + 1], array[next])) {
+                next++;
+            }
+        }
+        return next - start + 1;
+    }
+
+    /**
+     * Mirror of the stack of pending runs of {@link FusionSort}, merging with galloping.
+     */
+    private class PendingRuns {
+        private final int[] array;
+        private final int[] buffer;
+        private final int[] runStart = new int[FusionSort.MAX_PENDING_RUNS];
+        private final int[] runLength = new int[FusionSort.MAX_PENDING_RUNS];
+        private int size;
+
+        PendingRuns(int[] array, int[] buffer) {
+            this.array = array;
+            this.buffer = buffer;
+        }
+
+        void push(int start, int length) {
+            runStart[size] = start;
+            runLength[size] = length;
+            size++;
+        }
+
+        void mergeCollapse() {
+            while (size > 1) {
+                int n = size - 2;
+                if ((n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1])
+                        || (n > 1 && runLength[n - 2] <= runLength[n - 1] + runLength[n])) {
+                    if (runLength[n - 1] < runLength[n + 1]) {
+                        n--;
+                    }
+                } else if (runLength[n] > runLength[n + 1]) {
+                    return;
+                }
+                mergeAt(n);
+            }
+        }
+
+        void mergeForceCollapse() {
+            while (size > 1) {
+                int n = size - 2;
+                if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            }
+        }
+
+        private void mergeAt(int i) {
+            int firstStart = runStart[i];
+            int firstLength = runLength[i];
+            int secondStart = runStart[i + 1];
+            int secondLength = runLength[i + 1];
+
+            runLength[i] = firstLength + secondLength;
+            if (i == size - 3) {
+                runStart[i + 1] = runStart[i + 2];
+                runLength[i + 1] = runLength[i + 2];
+            }
+            size--;
+
+            if (!greater(array[secondStart - 1], array[secondStart])) {
+                metrics.gallopSkipped += firstLength + secondLength;
+                return;
+            }
+            int inPlace = gallopFromStart(array, firstStart, firstLength, array[secondStart]);
+            firstStart += inPlace;
+            firstLength -= inPlace;
+            int toMerge = gallopFromEnd(array, secondStart, secondLength, array[firstStart + firstLength - 1]);
+            metrics.gallopSkipped += inPlace + secondLength - toMerge;
+            secondLength = toMerge;
+
+            if (firstLength <= secondLength) {
+                mergeLow(firstStart, firstLength, secondStart, secondLength);
+            } else {
+                mergeHigh(firstStart, firstLength, secondStart, secondLength);
+            }
+        }
+
+        private void mergeLow(int firstStart, int firstLength, int secondStart, int secondLength) {
+            System.arraycopy(array, firstStart, buffer, 0, firstLength);
+            int first = 0;
+            int second = secondStart;
+            int secondEnd = secondStart + secondLength;
+            int destination = firstStart;
+            while (first < firstLength && second < secondEnd) {
+                if (less(array[second], buffer[first])) {
+                    write(array, destination++, array[second++]);
+                } else {
+                    write(array, destination++, buffer[first++]);
+                }
+            }
+            while (first < firstLength) {
+                write(array, destination++, buffer[first++]);
+            }
+        }
+
+        private void mergeHigh(int firstStart, int firstLength, int secondStart, int secondLength) {
+            System.arraycopy(array, secondStart, buffer, 0, secondLength);
+            int first = firstStart + firstLength - 1;
+            int second = secondLength - 1;
+            int destination = secondStart + secondLength - 1;
+            while (first >= firstStart && second >= 0) {
+                if (less(buffer[second], array[first])) {
+                    write(array, destination--, array[first--]);
+                } else {
+                    write(array, destination--, buffer[second--]);
+                }
+            }
+            while (second >= 0) {
+                write(array, destination--, buffer[second--]);
+            }
+        }
+    }
+
+    /**
+     * Mirror of the galloping of {@link FusionSort}: number of elements lower or equal to value at the start of a run.
+     */
+    private int gallopFromStart(int[] array, int start, int length, int value) {
+        int verified = 0;
+        int bound = 1;
+        while (!greater(array[start + bound - 1], value)) {
+            verified = bound;
+            if (bound == length) {
+                return length;
+            }
+            bound = bound >= length - bound ? length : 2 * bound + 1;
+        }
+        int from = start + verified;
+        int to = start + bound - 1;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (!greater(array[mid], value)) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from - start;
+    }
+
+    /**
+     * Mirror of the galloping of {@link FusionSort}: number of elements lower than value in a run, from its end.
+     */
+    private int gallopFromEnd(int[] array, int start, int length, int value) {
+        int end = start + length;
+        int verified = 0;
+        int bound = 1;
+        while (!less(array[end - bound], value)) {
+            verified = bound;
+            if (bound == length) {
+                return 0;
+            }
+            bound = bound >= length - bound ? length : 2 * bound + 1;
+        }
+        int from = end - bound + 1;
+        int to = end - verified;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (less(array[mid], value)) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from - start;
+    }
+
+    /**
+     * Mirror of {@link HeapSort#sort(int[])}.
+     */
+    private void heapSort(int[] array, int start, int end) {
+        int length = end - start + 1;
+        for (int i = (length - 2) >> HEAP_SHIFT; i >= 0; i--) {
+            siftDown(array, start, length, i, array[start + i]);
+        }
+        for (int i = length; i > 1; i--) {
+            write(array, start + i - 1, pop(array, start, i));
+        }
+        while (start < end) {
+            swap(array, start++, end--);
+        }
+    }
+
+    /**
+     * Mirror of {@link InsertionSort#sort(int[])}.
+     */
+    private void insertionSort(int[] array, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            int value = array[i];
+            int j = i;
+            while (j > start && greater(array[j - 1], value)) {
+                write(array, j, array[j - 1]);
+                j--;
+            }
+            write(array, j, value);
+        }
+    }
+
+    /**
+     * Mirror of {@link BubbleSort#sort(int[])}.
+     */
+    private void bubbleSort(int[] array) {
+        for (int i = 0; i < array.length; i++) {
+            for (int j = i + 1; j < array.length; j++) {
+                if (greater(array[i], array[j])) {
+                    swap(array, i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mirror of {@link QuickSort#partition(int[], int, int, int)}.
+     */
+    private int partition(int[] array, int start, int end, int pivotIndex) {
+        swap(array, pivotIndex, end);
+        int pivotValue = array[end];
+        int nextSmallElementIndex = start;
+        for (int i = start; i < end; i++) {
+            if (less(array[i], pivotValue)) {
+                swap(array, i, nextSmallElementIndex);
+                nextSmallElementIndex++;
+            }
+        }
+        swap(array, nextSmallElementIndex, end);
+        metrics.partitioned(nextSmallElementIndex - start, end - nextSmallElementIndex);
+        return nextSmallElementIndex;
+    }
+
+    /**
+     * Mirror of {@link ThreeWayQuickSort#partition(int[], int, int, int)}. The elements equal to the pivot are on
+     * neither side of the partition.
+     */
+    private ThreeWayQuickSort.PivotIndexes threeWayPartition(int[] array, int start, int end, int pivotIndex) {
+        swap(array, pivotIndex, end);
+        int pivotValue = array[end];
+        int nextSmallElementIndex = start;
+        int nextEqualElementIndex = end - 1;
+        int i = start;
+        while (i <= nextEqualElementIndex) {
+            if (less(array[i], pivotValue)) {
+                swap(array, i, nextSmallElementIndex);
+                nextSmallElementIndex++;
+                i++;
+            } else if (equal(array[i], pivotValue)) {
+                swap(array, i, nextEqualElementIndex);
+                nextEqualElementIndex--;
+            } else {
+                i++;
+            }
+        }
+        ThreeWayQuickSort.PivotIndexes pivot = new ThreeWayQuickSort.PivotIndexes();
+        pivot.start = nextSmallElementIndex;
+        for (i = nextEqualElementIndex + 1; i <= end; i++) {
+            swap(array, nextSmallElementIndex, i);
+            nextSmallElementIndex++;
+        }
+        pivot.end = nextSmallElementIndex - 1;
+        metrics.partitioned(pivot.start - start, end - pivot.end);
+        return pivot;
+    }
+
+    /**
+     * Mirror of {@link QuickSort#choosePivot(int[], int, int)}.
+     */
+    private int choosePivot(int[] array, int start, int end) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < QuickSort.NINTHER_THRESHOLD) {
+            return medianOfThree(array, start, middle, end);
+        }
+        int step = length / 8;
+        int first = medianOfThree(array, start, start + step, start + 2 * step);
+        int second = medianOfThree(array, middle - step, middle, middle + step);
+        int third = medianOfThree(array, end - 2 * step, end - step, end);
+        return medianOfThree(array, first, second, third);
+    }
+
+    private int medianOfThree(int[] array, int i, int j, int k) {
+        if (less(array[i], array[j])) {
+            if (less(array[j], array[k])) {
+                return j;
+            }
+            return less(array[i], array[k]) ? k : i;
+        }
+        if (less(array[i], array[k])) {
+            return i;
+        }
+        return less(array[j], array[k]) ? k : j;
+    }
+
+    /**
+     * Sort a range of at most MAX_NETWORK_SIZE elements with {@link SmallSort}. The network does the same comparisons
+     * whatever the data and writes back every element, so it is accounted for from its size.
+     */
+    private void smallSort(int[] array, int start, int end) {
+        int length = end - start + 1;
+        if (length > 1) {
+            metrics.comparisons += SmallSort.comparators(length);
+            metrics.writes += length;
+            SmallSort.sort(array, start, end);
+        }
+    }
+
+    /**
+     * Mirror of {@link SmallSort#sort(int[], int, int, int)}: a network up to MAX_NETWORK_SIZE elements, a binary
+     * insertion sort of the unsorted part otherwise.
+     */
+    private void smallSort(int[] array, int start, int end, int firstUnsorted) {
+        if (end - start < SmallSort.MAX_NETWORK_SIZE) {
+            smallSort(array, start, end);
+            return;
+        }
+        for (int i = Math.max(firstUnsorted, start + 1); i <= end; i++) {
+            int value = array[i];
+            int from = start;
+            int to = i;
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (!greater(array[mid], value)) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            for (int j = i; j > from; j--) {
+                write(array, j, array[j - 1]);
+            }
+            write(array, from, value);
+        }
+    }
+
+    /**
+     * Mirror of the sift-down of {@link org.nbousquet.algorithms.heap.IntHeap}.
+     */
+    private void siftDown(int[] array, int start, int length, int index, int value) {
+        int lastParent = (length - 2) >> HEAP_SHIFT;
+        while (index <= lastParent) {
+            int firstChild = (index << HEAP_SHIFT) + 1;
+            int lastChild = firstChild + Math.min(1 << HEAP_SHIFT, length - firstChild);
+            int min = minChild(array, start, firstChild, lastChild);
+            if (!less(array[start + min], value)) {
+                break;
+            }
+            write(array, start + index, array[start + min]);
+            index = min;
+        }
+        write(array, start + index, value);
+    }
+
+    /**
+     * Mirror of the bottom-up pop of {@link org.nbousquet.algorithms.heap.IntHeap#pop(int[], int, int, int)}.
+     */
+    private int pop(int[] array, int start, int length) {
+        int min = array[start];
+        int last = length - 1;
+        int value = array[start + last];
+        int index = 0;
+        int lastParent = (last - 2) >> HEAP_SHIFT;
+        while (index <= lastParent) {
+            int firstChild = (index << HEAP_SHIFT) + 1;
+            int lastChild = firstChild + Math.min(1 << HEAP_SHIFT, last - firstChild);
+            int minChild = minChild(array, start, firstChild, lastChild);
+            write(array, start + index, array[start + minChild]);
+            index = minChild;
+        }
+        while (index > 0) {
+            int parent = (index - 1) >> HEAP_SHIFT;
+            if (!greater(array[start + parent], value)) {
+                break;
+            }
+            write(array, start + index, array[start + parent]);
+            index = parent;
+        }
+        write(array, start + index, value);
+        return min;
+    }
+
+    /**
+     * @return index of the smallest child between firstChild (included) and lastChild (excluded).
+     */
+    private int minChild(int[] array, int start, int firstChild, int lastChild) {
+        int min = firstChild;
+        for (int child = firstChild + 1; child < lastChild; child++) {
+            if (less(array[start + child], array[start + min])) {
+                min = child;
+            }
+        }
+        return min;
+    }
+
+    private boolean less(int a, int b) {
+        metrics.comparisons++;
+        return a < b;
+    }
+
+    private boolean greater(int a, int b) {
+        metrics.comparisons++;
+        return a > b;
+    }
+
+    private boolean equal(int a, int b) {
+        metrics.comparisons++;
+        return a == b;
+    }
+
+    private void write(int[] array, int index, int value) {
+        metrics.writes++;
+        array[index] = value;
+    }
+
+    private void swap(int[] array, int i, int j) {
+        metrics.swaps++;
+        int swap = array[i];
+        write(array, i, array[j]);
+        write(array, j, swap);
+    }
+
+    private void enter() {
+        metrics.maxRecursionDepth = Math.max(metrics.maxRecursionDepth, ++depth);
+    }
+
+    private void exit() {
+        depth--;
+    }
+}
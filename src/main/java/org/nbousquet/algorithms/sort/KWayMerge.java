@@ -0,0 +1,240 @@
+package org.nbousquet.algorithms.sort;
+
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Merge of k runs of ints, each sorted in ascending order, into a single sorted stream. The merged ints are pulled one
+ * at a time as a {@link PrimitiveIterator.OfInt}, or in bulk into an array with
+ * {@link KWayMerge#drainTo(int[], int, int)}.
+ * <p>
+ * The smallest head of the runs is found with a loser tree, also called tournament tree: a complete binary tree whose
+ * leaves are the runs, where each internal node remembers the loser of the match played there, the overall winner
+ * being kept apart. Once the winner is consumed, only the matches on the path from its leaf to the root are replayed,
+ * against the losers stored on that path: one comparison per level, log2(k) in total, where a binary heap sift-down
+ * needs up to 2 per level. The tree is stored in arrays allocated once, so merging thousands of runs allocates nothing
+ * per element.
+ * <p>
+ * Each node of the tree holds both the head of a run and the index of that run, packed in a long: the head in the high
+ * 32 bits and the index in the low 32 bits. Comparing two packed longs compares the heads, so a match is a single load
+ * and a single comparison, without going through the run index to fetch its head. An exhausted run is packed as
+ * {@link Long#MAX_VALUE}, greater than any packed head: it loses every match and needs no special case.
+ * <p>
+ * Runs are consumed as the merge advances. A run that is not sorted makes the output unsorted, it is not checked.
+ */
+public class KWayMerge implements PrimitiveIterator.OfInt {
+
+    /**
+     * Packed head of an exhausted run, losing against any other.
+     */
+    private static final long EXHAUSTED = Long.MAX_VALUE;
+
+    private final PrimitiveIterator.OfInt[] runs;
+    /**
+     * tree[0] is the packed head of the winning run, tree[1] to tree[k - 1] the packed head of the run that lost at each
+     * internal node. Children of node n are nodes 2n and 2n + 1, the leaf of run i being node k + i.
+     */
+    private final long[] tree;
+
+    /**
+     * Create a merge of the provided sorted runs.
+     *
+     * @param runs iterators over sorted ints
+     */
+    public KWayMerge(PrimitiveIterator.OfInt... runs) {
+        this.runs = runs.clone();
+        int k = runs.length;
+        tree = new long[Math.max(k, 1)];
+        tree[0] = EXHAUSTED;
+        if (k > 0) {
+            // Play the whole tournament once, from the leaves up, the winner of each node going to its parent.
+            long[] winners = new long[2 * k];
+            for (int i = 0; i < k; i++) {
+                winners[k + i] = next(i);
+            }
+            for (int node = k - 1; node > 0; node--) {
+                long left = winners[2 * node];
+                long right = winners[2 * node + 1];
+                winners[node] = Math.min(left, right);
+                tree[node] = Math.max(left, right);
+            }
+            tree[0] = winners[1];
+        }
+    }
+
+    /**
+     * Create a merge of the provided sorted runs.
+     *
+     * @param runs iterators over sorted ints
+     */
+    public KWayMerge(List<? extends PrimitiveIterator.OfInt> runs) {
+        this(runs.toArray(new PrimitiveIterator.OfInt[0]));
+    }
+
+    /**
+     * Create a merge of the provided sorted arrays. The arrays are left untouched.
+     *
+     * @param runs arrays sorted in ascending order
+     * @return merge of the arrays
+     */
+    public static KWayMerge of(int[]... runs) {
+        PrimitiveIterator.OfInt[] iterators = new PrimitiveIterator.OfInt[runs.length];
+        for (int i = 0; i < runs.length; i++) {
+            iterators[i] = new ArrayRun(runs[i]);
+        }
+        return new KWayMerge(iterators);
+    }
+
+    /**
+     * Create a merge of the remaining ints of the provided buffers, each sorted in ascending order from its position to
+     * its limit. The buffers and their position are left untouched.
+     *
+     * @param runs buffers sorted in ascending order
+     * @return merge of the buffers
+     */
+    public static KWayMerge of(IntBuffer... runs) {
+        PrimitiveIterator.OfInt[] iterators = new PrimitiveIterator.OfInt[runs.length];
+        for (int i = 0; i < runs.length; i++) {
+            iterators[i] = new BufferRun(runs[i].duplicate());
+        }
+        return new KWayMerge(iterators);
+    }
+
+    /**
+     * Merge the provided sorted arrays into a new sorted array.
+     *
+     * @param runs arrays sorted in ascending order
+     * @return new array holding all the ints of the runs, in ascending order
+     * @throws IllegalArgumentException the runs hold more ints than an array can
+     */
+    public static int[] merge(int[]... runs) {
+        long length = 0;
+        for (int[] run : runs) {
+            length += run.length;
+        }
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Runs hold too many ints for an array: " + length);
+        }
+        int[] merged = new int[(int) length];
+        of(runs).drainTo(merged, 0, merged.length);
+        return merged;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return tree[0] != EXHAUSTED;
+    }
+
+    /**
+     * Return the smallest int not merged yet.
+     *
+     * @throws NoSuchElementException all runs are exhausted
+     */
+    @Override
+    public int nextInt() {
+        long winner = tree[0];
+        if (winner == EXHAUSTED) {
+            throw new NoSuchElementException("All runs are exhausted");
+        }
+        advance((int) winner);
+        return (int) (winner >> 32);
+    }
+
+    /**
+     * Write the next merged ints into the destination, until length ints are written or all runs are exhausted.
+     *
+     * @param destination array receiving the ints
+     * @param offset      index of the destination where to write the first int
+     * @param length      maximum number of ints to write
+     * @return number of ints written, lower than length only when all runs are exhausted
+     * @throws IllegalArgumentException the range is out of the destination
+     */
+    public int drainTo(int[] destination, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > destination.length - length) {
+            throw new IllegalArgumentException("Range of " + length + " ints at " + offset
+                    + " is out of destination of size " + destination.length);
+        }
+        int written = 0;
+        long winner;
+        while (written < length && (winner = tree[0]) != EXHAUSTED) {
+            destination[offset + written++] = (int) (winner >> 32);
+            advance((int) winner);
+        }
+        return written;
+    }
+
+    /**
+     * Move the run that won to its next int, and replay its matches up to the root.
+     */
+    private void advance(int run) {
+        long winner = next(run);
+        long[] tree = this.tree;
+        for (int node = (run + runs.length) >> 1; node > 0; node >>= 1) {
+            // Min & max compile to conditional moves: the outcome of a match is random, a branch would be mispredicted
+            // half of the time.
+            long loser = tree[node];
+            tree[node] = Math.max(loser, winner);
+            winner = Math.min(loser, winner);
+        }
+        tree[0] = winner;
+    }
+
+    /**
+     * Return the next int of the run packed with the run index, or EXHAUSTED.
+     */
+    private long next(int run) {
+        PrimitiveIterator.OfInt iterator = runs[run];
+        return iterator.hasNext() ? ((long) iterator.nextInt() << 32) | run : EXHAUSTED;
+    }
+
+    /**
+     * Iterator over an array, without boxing.
+     */
+    private static class ArrayRun implements PrimitiveIterator.OfInt {
+        private final int[] array;
+        private int position;
+
+        ArrayRun(int[] array) {
+            this.array = array;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < array.length;
+        }
+
+        @Override
+        public int nextInt() {
+            if (position >= array.length) {
+                throw new NoSuchElementException("Run is exhausted");
+            }
+            return array[position++];
+        }
+    }
+
+    /**
+     * Iterator over the remaining ints of a buffer, without boxing.
+     */
+    private static class BufferRun implements PrimitiveIterator.OfInt {
+        private final IntBuffer buffer;
+
+        BufferRun(IntBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return buffer.hasRemaining();
+        }
+
+        @Override
+        public int nextInt() {
+            if (!buffer.hasRemaining()) {
+                throw new NoSuchElementException("Run is exhausted");
+            }
+            return buffer.get();
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package org.nbousquet.algorithms.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorts of arrays and lists of objects: a stable merge sort and an unstable quick sort, each ordering elements either
+ * with a {@link Comparator} or by a primitive key extracted from each element.
+ * <p>
+ * With a comparator, every comparison is a virtual call that usually dereferences both elements, and often a chain of
+ * comparators and getters: far more expensive than comparing 2 ints. When the order is given by an int or long key,
+ * the key extraction modes ({@code ...ByIntKey} and {@code ...ByLongKey}) call the key function once per element,
+ * store the keys in a long array and sort it, each move of a key moving the element at the same index of the array of
+ * references. Comparisons are then plain primitive comparisons on a contiguous array, the elements being only moved,
+ * never read.
+ * <p>
+ * Lists are copied to an array, sorted and written back, like {@link List#sort(Comparator)}.
+ * <p>
+ * Remark: the comparator and key kernels are identical but the comparison itself, keep them in sync when changing one
+ * of them.
+ */
+public class ObjectSort {
+
+    /**
+     * Size of range under which the sorts finish with an insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = QuickSort.INSERTION_SORT_THRESHOLD;
+    /**
+     * Size from which the pivot is the ninther rather than the median of 3 elements.
+     */
+    private static final int NINTHER_THRESHOLD = QuickSort.NINTHER_THRESHOLD;
+
+    /**
+     * Sort the provided array with a stable merge sort, in the order of the comparator.
+     * <p>
+     * The array is cut in halves, each half sorted recursively then both merged, small ranges being finished with an
+     * insertion sort. Halves already in order are not merged, so a sorted array costs a single comparison per range.
+     * Equal elements keep their relative order. Complexity is O(N log(N)), with a buffer of half the array.
+     *
+     * @param array      array to sort
+     * @param comparator order of the elements
+     * @param <T>        type of the elements
+     * @throws NullPointerException the comparator is null
+     */
+    public static <T> void mergeSort(T[] array, Comparator<? super T> comparator) {
+        checkNotNull(comparator);
+        if (array == null || array.length < 2) {
+            return;
+        }
+        mergeSort(array, 0, array.length - 1, new Object[(array.length + 1) / 2], comparator);
+    }
+
+    /**
+     * Sort the provided list with a stable merge sort, in the order of the comparator.
+     * See {@link ObjectSort#mergeSort(Object[], Comparator)}.
+     *
+     * @param list       list to sort, must support {@link ListIterator#set(Object)}
+     * @param comparator order of the elements
+     * @param <T>        type of the elements
+     * @throws NullPointerException the comparator is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void mergeSort(List<T> list, Comparator<? super T> comparator) {
+        checkNotNull(comparator);
+        if (list == null) {
+            return;
+        }
+        T[] array = (T[]) list.toArray();
+        mergeSort(array, comparator);
+        writeBack(list, array);
+    }
+
+    /**
+     * Sort the provided array with a stable merge sort, in ascending order of the int key of each element.
+     * <p>
+     * The key function is called once per element, see {@link ObjectSort}. Otherwise same as
+     * {@link ObjectSort#mergeSort(Object[], Comparator)}.
+     *
+     * @param array array to sort
+     * @param key   key of each element
+     * @param <T>   type of the elements
+     * @throws NullPointerException the key function is null
+     */
+    public static <T> void mergeSortByIntKey(T[] array, ToIntFunction<? super T> key) {
+        checkNotNull(key);
+        if (array == null || array.length < 2) {
+            return;
+        }
+        mergeSort(intKeys(array, key), array);
+    }
+
+    /**
+     * Sort the provided list with a stable merge sort, in ascending order of the int key of each element.
+     * See {@link ObjectSort#mergeSortByIntKey(Object[], ToIntFunction)}.
+     *
+     * @param list list to sort, must support {@link ListIterator#set(Object)}
+     * @param key  key of each element
+     * @param <T>  type of the elements
+     * @throws NullPointerException the key function is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void mergeSortByIntKey(List<T> list, ToIntFunction<? super T> key) {
+        checkNotNull(key);
+        if (list == null) {
+            return;
+        }
+        T[] array = (T[]) list.toArray();
+        mergeSortByIntKey(array, key);
+        writeBack(list, array);
+    }
+
+    /**
+     * Sort the provided array with a stable merge sort, in ascending order of the long key of each element.
+     * See {@link ObjectSort#mergeSortByIntKey(Object[], ToIntFunction)}.
+     *
+     * @param array array to sort
+     * @param key   key of each element
+     * @param <T>   type of the elements
+     * @throws NullPointerException the key function is null
+     */
+    public static <T> void mergeSortByLongKey(T[] array, ToLongFunction<? super T> key) {
+        checkNotNull(key);
+        if (array == null || array.length < 2) {
+            return;
+        }
+        mergeSort(longKeys(array, key), array);
+    }
+
+    /**
+     * Sort the provided list with a stable merge sort, in ascending order of the long key of each element.
+     * See {@link ObjectSort#mergeSortByIntKey(Object[], ToIntFunction)}.
+     *
+     * @param list list to sort, must support {@link ListIterator#set(Object)}
+     * @param key  key of each element
+     * @param <T>  type of the elements
+     * @throws NullPointerException the key function is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void mergeSortByLongKey(List<T> list, ToLongFunction<? super T> key) {
+        checkNotNull(key);
+        if (list == null) {
+            return;
+        }
+        T[] array = (T[]) list.toArray();
+        mergeSortByLongKey(array, key);
+        writeBack(list, array);
+    }
+
+    /**
+     * Sort the provided array with an introspective quick sort, in the order of the comparator. Equal elements may be
+     * reordered.
+     * <p>
+     * It is {@link QuickSort#introSort(int[])} with a 3 way partition, see {@link ThreeWayQuickSort}: a comparator
+     * gives in a single call whether an element is lower, equal or greater than the pivot, so gathering the elements
+     * equal to the pivot costs no extra comparison, and sorting by a field with few distinct values stays
+     * O(N log(N)). It sorts in place without any buffer.
+     *
+     * @param array      array to sort
+     * @param comparator order of the elements
+     * @param <T>        type of the elements
+     * @throws NullPointerException the comparator is null
+     */
+    public static <T> void quickSort(T[] array, Comparator<? super T> comparator) {
+        checkNotNull(comparator);
+        if (array == null || array.length < 2) {
+            return;
+        }
+        introSort(array, 0, array.length - 1, 2 * QuickSort.log2(array.length), comparator);
+    }
+
+    /**
+     * Sort the provided list with an introspective quick sort, in the order of the comparator.
+     * See {@link ObjectSort#quickSort(Object[], Comparator)}.
+     *
+     * @param list       list to sort, must support {@link ListIterator#set(Object)}
+     * @param comparator order of the elements
+     * @param <T>        type of the elements
+     * @throws NullPointerException the comparator is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void quickSort(List<T> list, Comparator<? super T> comparator) {
+        checkNotNull(comparator);
+        if (list == null) {
+            return;
+        }
+        T[] array = (T[]) list.toArray();
+        quickSort(array, comparator);
+        writeBack(list, array);
+    }
+
+    /**
+     * Sort the provided array with an introspective quick sort, in ascending order of the int key of each element.
+     * <p>
+     * The key function is called once per element, see {@link ObjectSort}. Otherwise same as
+     * {@link ObjectSort#quickSort(Object[], Comparator)}.
+     *
+     * @param array array to sort
+     * @param key   key of each element
+     * @param <T>   type of the elements
+     * @throws NullPointerException the key function is null
+     */
+    public static <T> void quickSortByIntKey(T[] array, ToIntFunction<? super T> key) {
+        checkNotNull(key);
+        if (array == null || array.length < 2) {
+            return;
+        }
+        introSort(intKeys(array, key), array, 0, array.length - 1, 2 * QuickSort.log2(array.length));
+    }
+
+    /**
+     * Sort the provided list with an introspective quick sort, in ascending order of the int key of each element.
+     * See {@link ObjectSort#quickSortByIntKey(Object[], ToIntFunction)}.
+     *
+     * @param list list to sort, must support {@link ListIterator#set(Object)}
+     * @param key  key of each element
+     * @param <T>  type of the elements
+     * @throws NullPointerException the key function is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void quickSortByIntKey(List<T> list, ToIntFunction<? super T> key) {
+        checkNotNull(key);
+        if (list == null) {
+            return;
+        }
+        T[] array = (T[]) list.toArray();
+        quickSortByIntKey(array, key);
+        writeBack(list, array);
+    }
+
+    /**
+     * Sort the provided array with an introspective quick sort, in ascending order of the long key of each element.
+     * See {@link ObjectSort#quickSortByIntKey(Object[], ToIntFunction)}.
+     *
+     * @param array array to sort
+     * @param key   key of each element
+     * @param <T>   type of the elements
+     * @throws NullPointerException the key function is null
+     */
+    public static <T> void quickSortByLongKey(T[] array, ToLongFunction<? super T> key) {
+        checkNotNull(key);
+        if (array == null || array.length < 2) {
+            return;
+        }
+        introSort(longKeys(array, key), array, 0, array.length - 1, 2 * QuickSort.log2(array.length));
+    }
+
+    /**
+     * Sort the provided list with an introspective quick sort, in ascending order of the long key of each element.
+     * See {@link ObjectSort#quickSortByIntKey(Object[], ToIntFunction)}.
+     *
+     * @param list list to sort, must support {@link ListIterator#set(Object)}
+     * @param key  key of each element
+     * @param <T>  type of the elements
+     * @throws NullPointerException the key function is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void quickSortByLongKey(List<T> list, ToLongFunction<? super T> key) {
+        checkNotNull(key);
+        if (list == null) {
+            return;
+        }
+        T[] array = (T[]) list.toArray();
+        quickSortByLongKey(array, key);
+        writeBack(list, array);
+    }
+
+    private static void checkNotNull(Object order) {
+        if (order == null) {
+            throw new NullPointerException("Provided comparator or key function shall not be null");
+        }
+    }
+
+    private static <T> long[] intKeys(T[] array, ToIntFunction<? super T> key) {
+        long[] keys = new long[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = key.applyAsInt(array[i]);
+        }
+        return keys;
+    }
+
+    private static <T> long[] longKeys(T[] array, ToLongFunction<? super T> key) {
+        long[] keys = new long[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = key.applyAsLong(array[i]);
+        }
+        return keys;
+    }
+
+    private static <T> void writeBack(List<T> list, T[] array) {
+        ListIterator<T> iterator = list.listIterator();
+        for (T element : array) {
+            iterator.next();
+            iterator.set(element);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // comparator kernels
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Merge sort of the range start to end (both included), see {@link ObjectSort#mergeSort(Object[], Comparator)}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void mergeSort(T[] array, int start, int end, Object[] buffer,
+                                      Comparator<? super T> comparator) {
+        if (end - start + 1 <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, start, end, comparator);
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        mergeSort(array, start, middle, buffer, comparator);
+        mergeSort(array, middle + 1, end, buffer, comparator);
+        // Halves already in order, nothing to merge.
+        if (comparator.compare(array[middle], array[middle + 1]) <= 0) {
+            return;
+        }
+        // The left half is moved to the buffer, so the merge can write over it from the start of the range.
+        int leftLength = middle - start + 1;
+        System.arraycopy(array, start, buffer, 0, leftLength);
+        int left = 0;
+        int right = middle + 1;
+        int next = start;
+        while (left < leftLength && right <= end) {
+            // On equality the left element goes first, which keeps the sort stable.
+            if (comparator.compare((T) buffer[left], array[right]) <= 0) {
+                array[next++] = (T) buffer[left++];
+            } else {
+                array[next++] = array[right++];
+            }
+        }
+        // Remaining right elements are already in place.
+        System.arraycopy(buffer, left, array, next, leftLength - left);
+        Arrays.fill(buffer, 0, leftLength, null);
+    }
+
+    /**
+     * See {@link QuickSort#introSort(int[])}, with a 3 way partition.
+     */
+    private static <T> void introSort(T[] array, int start, int end, int depthLimit,
+                                      Comparator<? super T> comparator) {
+        while (end - start + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(array, start, end, comparator);
+                return;
+            }
+            depthLimit--;
+            T pivot = array[choosePivot(array, start, end, comparator)];
+            // Everything before lower is lower than the pivot, everything after greater is greater.
+            int lower = start;
+            int greater = end;
+            int i = start;
+            while (i <= greater) {
+                int comparison = comparator.compare(array[i], pivot);
+                if (comparison < 0) {
+                    swap(array, lower++, i++);
+                } else if (comparison > 0) {
+                    swap(array, i, greater--);
+                } else {
+                    i++;
+                }
+            }
+            // Recurse on the smaller side, loop on the larger one, the elements equal to the pivot being in place.
+            if (lower - start < end - greater) {
+                introSort(array, start, lower - 1, depthLimit, comparator);
+                start = greater + 1;
+            } else {
+                introSort(array, greater + 1, end, depthLimit, comparator);
+                end = lower - 1;
+            }
+        }
+        insertionSort(array, start, end, comparator);
+    }
+
+    /**
+     * See {@link QuickSort#choosePivot(int[], int, int)}.
+     */
+    private static <T> int choosePivot(T[] array, int start, int end, Comparator<? super T> comparator) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < NINTHER_THRESHOLD) {
+            return medianOfThree(array, start, middle, end, comparator);
+        }
+        int step = length / 8;
+        int first = medianOfThree(array, start, start + step, start + 2 * step, comparator);
+        int second = medianOfThree(array, middle - step, middle, middle + step, comparator);
+        int third = medianOfThree(array, end - 2 * step, end - step, end, comparator);
+        return medianOfThree(array, first, second, third, comparator);
+    }
+
+    private static <T> int medianOfThree(T[] array, int i, int j, int k, Comparator<? super T> comparator) {
+        if (comparator.compare(array[i], array[j]) < 0) {
+            if (comparator.compare(array[j], array[k]) < 0) {
+                return j;
+            }
+            return comparator.compare(array[i], array[k]) < 0 ? k : i;
+        }
+        if (comparator.compare(array[i], array[k]) < 0) {
+            return i;
+        }
+        return comparator.compare(array[j], array[k]) < 0 ? k : j;
+    }
+
+    /**
+     * Heap sort of the range start to end (both included), see {@link HeapSort#sort(int[])}.
+     */
+    private static <T> void heapSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        int length = end - start + 1;
+        for (int i = (length - 1) / 2; i >= 0; i--) {
+            siftDown(array, start, length, i, comparator);
+        }
+        for (int i = length - 1; i > 0; i--) {
+            swap(array, start, start + i);
+            siftDown(array, start, i, 0, comparator);
+        }
+    }
+
+    private static <T> void siftDown(T[] array, int start, int length, int index, Comparator<? super T> comparator) {
+        while (true) {
+            int max = index;
+            int leftChild = 2 * index + 1;
+            int rightChild = leftChild + 1;
+            if (leftChild < length && comparator.compare(array[start + leftChild], array[start + max]) > 0) {
+                max = leftChild;
+            }
+            if (rightChild < length && comparator.compare(array[start + rightChild], array[start + max]) > 0) {
+                max = rightChild;
+            }
+            if (max == index) {
+                return;
+            }
+            swap(array, start + max, start + index);
+            index = max;
+        }
+    }
+
+    /**
+     * Stable insertion sort of the range start to end (both included).
+     */
+    private static <T> void insertionSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        for (int i = start + 1; i <= end; i++) {
+            T value = array[i];
+            int j = i;
+            while (j > start && comparator.compare(array[j - 1], value) > 0) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+
+    private static void swap(Object[] array, int i, int j) {
+        Object swap = array[i];
+        array[i] = array[j];
+        array[j] = swap;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // key kernels, each move of a key moving the element at the same index
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Stable merge sort of the keys, see {@link ObjectSort#mergeSort(Object[], Comparator)}.
+     */
+    private static void mergeSort(long[] keys, Object[] elements) {
+        int bufferLength = (keys.length + 1) / 2;
+        mergeSort(keys, elements, 0, keys.length - 1, new long[bufferLength], new Object[bufferLength]);
+    }
+
+    private static void mergeSort(long[] keys, Object[] elements, int start, int end,
+                                  long[] keyBuffer, Object[] elementBuffer) {
+        if (end - start + 1 <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, elements, start, end);
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        mergeSort(keys, elements, start, middle, keyBuffer, elementBuffer);
+        mergeSort(keys, elements, middle + 1, end, keyBuffer, elementBuffer);
+        if (keys[middle] <= keys[middle + 1]) {
+            return;
+        }
+        int leftLength = middle - start + 1;
+        System.arraycopy(keys, start, keyBuffer, 0, leftLength);
+        System.arraycopy(elements, start, elementBuffer, 0, leftLength);
+        int left = 0;
+        int right = middle + 1;
+        int next = start;
+        while (left < leftLength && right <= end) {
+            if (keyBuffer[left] <= keys[right]) {
+                keys[next] = keyBuffer[left];
+                elements[next++] = elementBuffer[left++];
+            } else {
+                keys[next] = keys[right];
+                elements[next++] = elements[right++];
+            }
+        }
+        System.arraycopy(keyBuffer, left, keys, next, leftLength - left);
+        System.arraycopy(elementBuffer, left, elements, next, leftLength - left);
+        Arrays.fill(elementBuffer, 0, leftLength, null);
+    }
+
+    /**
+     * See {@link QuickSort#introSort(int[])}, with a 3 way partition.
+     */
+    private static void introSort(long[] keys, Object[] elements, int start, int end, int depthLimit) {
+        while (end - start + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(keys, elements, start, end);
+                return;
+            }
+            depthLimit--;
+            long pivot = keys[choosePivot(keys, start, end)];
+            int lower = start;
+            int greater = end;
+            int i = start;
+            while (i <= greater) {
+                long key = keys[i];
+                if (key < pivot) {
+                    swap(keys, elements, lower++, i++);
+                } else if (key > pivot) {
+                    swap(keys, elements, i, greater--);
+                } else {
+                    i++;
+                }
+            }
+            if (lower - start < end - greater) {
+                introSort(keys, elements, start, lower - 1, depthLimit);
+                start = greater + 1;
+            } else {
+                introSort(keys, elements, greater + 1, end, depthLimit);
+                end = lower - 1;
+            }
+        }
+        insertionSort(keys, elements, start, end);
+    }
+
+    /**
+     * See {@link QuickSort#choosePivot(int[], int, int)}.
+     */
+    private static int choosePivot(long[] keys, int start, int end) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < NINTHER_THRESHOLD) {
+            return medianOfThree(keys, start, middle, end);
+        }
+        int step = length / 8;
+        int first = medianOfThree(keys, start, start + step, start + 2 * step);
+        int second = medianOfThree(keys, middle - step, middle, middle + step);
+        int third = medianOfThree(keys, end - 2 * step, end - step, end);
+        return medianOfThree(keys, first, second, third);
+    }
+
+    private static int medianOfThree(long[] keys, int i, int j, int k) {
+        if (keys[i] < keys[j]) {
+            if (keys[j] < keys[k]) {
+                return j;
+            }
+            return keys[i] < keys[k] ? k : i;
+        }
+        if (keys[i] < keys[k]) {
+            return i;
+        }
+        return keys[j] < keys[k] ? k : j;
+    }
+
+    /**
+     * Heap sort of the range start to end (both included), see {@link HeapSort#sort(int[])}.
+     */
+    private static void heapSort(long[] keys, Object[] elements, int start, int end) {
+        int length = end - start + 1;
+        for (int i = (length - 1) / 2; i >= 0; i--) {
+            siftDown(keys, elements, start, length, i);
+        }
+        for (int i = length - 1; i > 0; i--) {
+            swap(keys, elements, start, start + i);
+            siftDown(keys, elements, start, i, 0);
+        }
+    }
+
+    private static void siftDown(long[] keys, Object[] elements, int start, int length, int index) {
+        while (true) {
+            int max = index;
+            int leftChild = 2 * index + 1;
+            int rightChild = leftChild + 1;
+            if (leftChild < length && keys[start + leftChild] > keys[start + max]) {
+                max = leftChild;
+            }
+            if (rightChild < length && keys[start + rightChild] > keys[start + max]) {
+                max = rightChild;
+            }
+            if (max == index) {
+                return;
+            }
+            swap(keys, elements, start + max, start + index);
+            index = max;
+        }
+    }
+
+    private static void insertionSort(long[] keys, Object[] elements, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            long key = keys[i];
+            Object element = elements[i];
+            int j = i;
+            while (j > start && keys[j - 1] > key) {
+                keys[j] = keys[j - 1];
+                elements[j] = elements[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            elements[j] = element;
+        }
+    }
+
+    private static void swap(long[] keys, Object[] elements, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        swap(elements, i, j);
+    }
+}
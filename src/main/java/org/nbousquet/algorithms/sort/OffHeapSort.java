@@ -0,0 +1,273 @@
+package org.nbousquet.algorithms.sort;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Sorts working directly on int buffers, which may live outside of the java heap: direct byte buffers or memory
+ * mapped files. Copying a multi GB column into an int[] to sort it and back would double the memory needed and the
+ * time spent.
+ * <p>
+ * The elements sorted are the remaining ones of the buffer, between its position and its limit. Position and limit are
+ * left unchanged. A read only buffer raises {@link java.nio.ReadOnlyBufferException}.
+ * <p>
+ * The algorithms are the ones of the sort package for int[]: the introspective sort of
+ * {@link QuickSort#introSort(int[])} and the LSD radix sort of {@link RadixSort#sort(int[], int[])}, working with the
+ * absolute get & put of the buffer instead of array accesses.
+ */
+public class OffHeapSort {
+
+    /**
+     * Number of bits of a radix sort digit, see {@link RadixSort}.
+     */
+    private static final int DIGIT_BITS = 8;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    /**
+     * Sort the remaining ints of the buffer in ascending order using an introspective sort.
+     * See {@link QuickSort#introSort(int[])}.
+     *
+     * @param buffer buffer to sort
+     */
+    public static void sort(IntBuffer buffer) {
+        if (buffer == null || buffer.remaining() < 2) {
+            return;
+        }
+        introSort(buffer, buffer.position(), buffer.limit() - 1, 2 * QuickSort.log2(buffer.remaining()));
+    }
+
+    /**
+     * Sort the remaining bytes of the buffer as ints, in the byte order of the buffer, in ascending order using an
+     * introspective sort. See {@link QuickSort#introSort(int[])}.
+     *
+     * @param buffer buffer to sort, the number of remaining bytes must be a multiple of 4.
+     * @throws IllegalArgumentException remaining bytes are not a multiple of 4.
+     */
+    public static void sort(ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        sort(asIntBuffer(buffer));
+    }
+
+    /**
+     * Sort the remaining ints of the buffer in ascending order using a LSD radix sort.
+     * See {@link RadixSort#sort(int[])}.
+     *
+     * @param buffer  buffer to sort
+     * @param scratch scratch buffer, its limit at least the remaining ints of the buffer. Its content from index 0 is
+     *                overwritten.
+     * @throws IllegalArgumentException the scratch buffer is too small.
+     */
+    public static void radixSort(IntBuffer buffer, IntBuffer scratch) {
+        if (buffer == null) {
+            return;
+        }
+        int length = buffer.remaining();
+        if (scratch.limit() < length) {
+            throw new IllegalArgumentException("Scratch buffer of size " + scratch.limit() + " is too small to sort "
+                    + length + " elements");
+        }
+        if (length < 2) {
+            return;
+        }
+        int start = buffer.position();
+        int digits = Integer.SIZE / DIGIT_BITS;
+        int[][] counts = new int[digits][RADIX];
+        for (int i = start; i < start + length; i++) {
+            int unsignedKey = buffer.get(i) ^ Integer.MIN_VALUE;
+            for (int digit = 0; digit < digits; digit++) {
+                counts[digit][(unsignedKey >>> (digit * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+
+        IntBuffer source = buffer;
+        int sourceStart = start;
+        IntBuffer destination = scratch;
+        int destinationStart = 0;
+        for (int digit = 0; digit < digits; digit++) {
+            int shift = digit * DIGIT_BITS;
+            int[] count = counts[digit];
+            // All keys share that digit, this pass would not move anything.
+            if (count[((source.get(sourceStart) ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK] == length) {
+                continue;
+            }
+            int next = destinationStart;
+            for (int value = 0; value < RADIX; value++) {
+                int valueCount = count[value];
+                count[value] = next;
+                next += valueCount;
+            }
+            for (int i = sourceStart; i < sourceStart + length; i++) {
+                int key = source.get(i);
+                destination.put(count[((key ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++, key);
+            }
+            // Next pass reads what was just written, and writes where this pass read from.
+            IntBuffer swap = source;
+            source = destination;
+            destination = swap;
+            int swapStart = sourceStart;
+            sourceStart = destinationStart;
+            destinationStart = swapStart;
+        }
+        // After an odd number of passes, the sorted keys are in the scratch buffer.
+        if (source != buffer) {
+            for (int i = 0; i < length; i++) {
+                buffer.put(start + i, source.get(sourceStart + i));
+            }
+        }
+    }
+
+    /**
+     * Sort the remaining bytes of the buffer as ints, in the byte order of the buffer, using a LSD radix sort.
+     * See {@link OffHeapSort#radixSort(IntBuffer, IntBuffer)}.
+     *
+     * @param buffer  buffer to sort, the number of remaining bytes must be a multiple of 4.
+     * @param scratch scratch buffer, at least as large as the remaining ints of the buffer.
+     * @throws IllegalArgumentException remaining bytes are not a multiple of 4, or scratch buffer is too small.
+     */
+    public static void radixSort(ByteBuffer buffer, IntBuffer scratch) {
+        if (buffer == null) {
+            return;
+        }
+        radixSort(asIntBuffer(buffer), scratch);
+    }
+
+    /**
+     * @return view of the remaining bytes of the buffer as ints.
+     */
+    private static IntBuffer asIntBuffer(ByteBuffer buffer) {
+        if (buffer.remaining() % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("Remaining bytes are not a multiple of " + Integer.BYTES + ": "
+                    + buffer.remaining());
+        }
+        return buffer.asIntBuffer();
+    }
+
+    /**
+     * See {@link QuickSort#introSort(int[])}.
+     */
+    private static void introSort(IntBuffer buffer, int start, int end, int depthLimit) {
+        while (end - start + 1 > QuickSort.INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(buffer, start, end);
+                return;
+            }
+            depthLimit--;
+            int pivotIndex = partition(buffer, start, end, choosePivot(buffer, start, end));
+            // Recurse on the smaller partition, loop on the larger one.
+            if (pivotIndex - start < end - pivotIndex) {
+                introSort(buffer, start, pivotIndex - 1, depthLimit);
+                start = pivotIndex + 1;
+            } else {
+                introSort(buffer, pivotIndex + 1, end, depthLimit);
+                end = pivotIndex - 1;
+            }
+        }
+        insertionSort(buffer, start, end);
+    }
+
+    /**
+     * See {@link QuickSort#partition(int[], int, int, int)}.
+     */
+    private static int partition(IntBuffer buffer, int start, int end, int pivotIndex) {
+        swap(buffer, pivotIndex, end);
+        int pivotValue = buffer.get(end);
+        int nextSmallElementIndex = start;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < pivotValue) {
+                swap(buffer, i, nextSmallElementIndex);
+                nextSmallElementIndex++;
+            }
+        }
+        swap(buffer, nextSmallElementIndex, end);
+        return nextSmallElementIndex;
+    }
+
+    /**
+     * See {@link QuickSort#choosePivot(int[], int, int)}.
+     */
+    private static int choosePivot(IntBuffer buffer, int start, int end) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < QuickSort.NINTHER_THRESHOLD) {
+            return medianOfThree(buffer, start, middle, end);
+        }
+        int step = length / 8;
+        int first = medianOfThree(buffer, start, start + step, start + 2 * step);
+        int second = medianOfThree(buffer, middle - step, middle, middle + step);
+        int third = medianOfThree(buffer, end - 2 * step, end - step, end);
+        return medianOfThree(buffer, first, second, third);
+    }
+
+    private static int medianOfThree(IntBuffer buffer, int i, int j, int k) {
+        int a = buffer.get(i);
+        int b = buffer.get(j);
+        int c = buffer.get(k);
+        if (a < b) {
+            if (b < c) {
+                return j;
+            }
+            return a < c ? k : i;
+        }
+        if (a < c) {
+            return i;
+        }
+        return b < c ? k : j;
+    }
+
+    /**
+     * Heap sort of the range start to end (both included), see {@link HeapSort#sort(int[])}.
+     */
+    private static void heapSort(IntBuffer buffer, int start, int end) {
+        int length = end - start + 1;
+        for (int i = (length - 1) / 2; i >= 0; i--) {
+            siftDown(buffer, start, length, i);
+        }
+        for (int i = length - 1; i > 0; i--) {
+            swap(buffer, start, start + i);
+            siftDown(buffer, start, i, 0);
+        }
+    }
+
+    private static void siftDown(IntBuffer buffer, int start, int length, int index) {
+        while (true) {
+            int max = index;
+            int leftChild = 2 * index + 1;
+            int rightChild = leftChild + 1;
+            if (leftChild < length && buffer.get(start + leftChild) > buffer.get(start + max)) {
+                max = leftChild;
+            }
+            if (rightChild < length && buffer.get(start + rightChild) > buffer.get(start + max)) {
+                max = rightChild;
+            }
+            if (max == index) {
+                return;
+            }
+            swap(buffer, start + max, start + index);
+            index = max;
+        }
+    }
+
+    /**
+     * Insertion sort of the range start to end (both included).
+     */
+    private static void insertionSort(IntBuffer buffer, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            int value = buffer.get(i);
+            int j = i;
+            while (j > start && buffer.get(j - 1) > value) {
+                buffer.put(j, buffer.get(j - 1));
+                j--;
+            }
+            buffer.put(j, value);
+        }
+    }
+
+    private static void swap(IntBuffer buffer, int i, int j) {
+        int swap = buffer.get(i);
+        buffer.put(i, buffer.get(j));
+        buffer.put(j, swap);
+    }
+}
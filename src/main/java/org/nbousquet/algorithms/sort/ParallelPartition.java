@@ -0,0 +1,140 @@
+package org.nbousquet.algorithms.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Partition of a large range split in blocks processed in parallel, used by the parallel quick sorts for their top
+ * level partitions. A single thread partitioning hundreds of millions of elements would otherwise leave all other
+ * cores idle until the first split.
+ * <p>
+ * Must be called from within a fork/join pool.
+ */
+class ParallelPartition {
+
+    /**
+     * Size of range from which the parallel sorts use this block partition rather than the sequential one.
+     */
+    static final int DEFAULT_PARALLEL_PARTITION_THRESHOLD = 1 << 20;
+
+    /**
+     * Partition the range start to end (both included) around the provided pivot value in 3 parts: elements lower
+     * than the pivot, equal to the pivot and greater than the pivot.
+     * <p>
+     * It is done in 3 steps, each one running one task per block:
+     * <ol>
+     * <li>Count how many elements of each block are lower, equal or greater than the pivot.</li>
+     * <li>With these counts, each block knows where its elements go: the lower elements of block i are written after
+     * the lower elements of blocks 0 to i-1, and so on. Blocks copy their elements to the buffer at that place.</li>
+     * <li>Copy back the buffer into the array.</li>
+     * </ol>
+     *
+     * @param array      array to partition
+     * @param start      beginning of the range to partition, included.
+     * @param end        end of the range to partition, included.
+     * @param pivotValue value to partition around, shall be present in the range so the equal part is not empty.
+     * @param buffer     scratch buffer, its range start to end is overwritten.
+     * @param blockSize  number of elements processed by each task.
+     * @return range of the elements equal to the pivot.
+     */
+    static ThreeWayQuickSort.PivotIndexes partition(int[] array, int start, int end, int pivotValue,
+                                                    int[] buffer, int blockSize) {
+        int blocks = (int) (((long) end - start + blockSize) / blockSize);
+        int[] lowerCount = new int[blocks];
+        int[] equalCount = new int[blocks];
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(blocks);
+        for (int block = 0; block < blocks; block++) {
+            int blockIndex = block;
+            int blockStart = start + block * blockSize;
+            int blockEnd = Math.min(end, blockStart + blockSize - 1);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                int lower = 0;
+                int equal = 0;
+                for (int i = blockStart; i <= blockEnd; i++) {
+                    if (array[i] < pivotValue) {
+                        lower++;
+                    } else if (array[i] == pivotValue) {
+                        equal++;
+                    }
+                }
+                lowerCount[blockIndex] = lower;
+                equalCount[blockIndex] = equal;
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        // Turn counts into the index where each block writes its elements.
+        int totalLower = 0;
+        int totalEqual = 0;
+        for (int block = 0; block < blocks; block++) {
+            totalLower += lowerCount[block];
+            totalEqual += equalCount[block];
+        }
+        int[] lowerNext = new int[blocks];
+        int[] equalNext = new int[blocks];
+        int[] greaterNext = new int[blocks];
+        int nextLower = start;
+        int nextEqual = start + totalLower;
+        int nextGreater = nextEqual + totalEqual;
+        for (int block = 0; block < blocks; block++) {
+            int blockLength = Math.min(blockSize, end - (start + block * blockSize) + 1);
+            lowerNext[block] = nextLower;
+            equalNext[block] = nextEqual;
+            greaterNext[block] = nextGreater;
+            nextLower += lowerCount[block];
+            nextEqual += equalCount[block];
+            nextGreater += blockLength - lowerCount[block] - equalCount[block];
+        }
+
+        tasks.clear();
+        for (int block = 0; block < blocks; block++) {
+            int blockIndex = block;
+            int blockStart = start + block * blockSize;
+            int blockEnd = Math.min(end, blockStart + blockSize - 1);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                int lower = lowerNext[blockIndex];
+                int equal = equalNext[blockIndex];
+                int greater = greaterNext[blockIndex];
+                for (int i = blockStart; i <= blockEnd; i++) {
+                    int value = array[i];
+                    if (value < pivotValue) {
+                        buffer[lower++] = value;
+                    } else if (value == pivotValue) {
+                        buffer[equal++] = value;
+                    } else {
+                        buffer[greater++] = value;
+                    }
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        tasks.clear();
+        for (int block = 0; block < blocks; block++) {
+            int blockStart = start + block * blockSize;
+            int blockLength = Math.min(blockSize, end - blockStart + 1);
+            tasks.add(ForkJoinTask.adapt(() -> System.arraycopy(buffer, blockStart, array, blockStart, blockLength)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        ThreeWayQuickSort.PivotIndexes pivot = new ThreeWayQuickSort.PivotIndexes();
+        pivot.start = start + totalLower;
+        pivot.end = pivot.start + totalEqual - 1;
+        return pivot;
+    }
+
+    /**
+     * Choose the number of elements handled by each task of a block partition: enough blocks to keep every thread of
+     * the pool busy, but not smaller than the sequential threshold.
+     *
+     * @param length      size of the range to partition
+     * @param parallelism number of threads of the pool
+     * @param threshold   sequential threshold of the sort
+     * @return block size
+     */
+    static int blockSize(int length, int parallelism, int threshold) {
+        return Math.max(threshold, length / (4 * parallelism));
+    }
+}
@@ -0,0 +1,673 @@
+package org.nbousquet.algorithms.sort;
+
+/**
+ * Sorts specialized for the primitive types other than int: long, double, float, short, char and byte.
+ * <p>
+ * Sorting these through an int[] or a boxed array would cost a copy or an object per element, so each type gets its
+ * own copy of the algorithm. Comparison based types (long, double, float) use the introspective sort, see
+ * {@link QuickSort#introSort(int[])}. Small domain types (short, char, byte) use a counting sort: with at most 65536
+ * distinct values, counting occurrences of each value and rewriting the array is O(N) without any comparison.
+ * <p>
+ * Floating point values follow the same total order as {@link Double#compare(double, double)}: -0.0 is before 0.0
+ * and NaN values are after everything else, like {@link java.util.Arrays#sort(double[])}.
+ * <p>
+ * Remark: the comparison kernels are identical for each type but the type itself, keep them in sync when changing
+ * one of them.
+ */
+public class PrimitiveSort {
+
+    /**
+     * Size of range under which the introspective sort stops partitioning and finish with an insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = QuickSort.INSERTION_SORT_THRESHOLD;
+    /**
+     * Size from which the pivot is the ninther rather than the median of 3 elements.
+     */
+    private static final int NINTHER_THRESHOLD = QuickSort.NINTHER_THRESHOLD;
+    /**
+     * Size under which byte arrays are sorted with an insertion sort: 256 counters to clear and scan are not worth
+     * it for a handful of elements.
+     */
+    private static final int BYTE_COUNTING_SORT_THRESHOLD = 64;
+    /**
+     * Size under which short and char arrays are sorted with an insertion sort, as counting needs 65536 counters.
+     */
+    private static final int SHORT_COUNTING_SORT_THRESHOLD = 256;
+
+    /**
+     * Sort the provided array in ascending order using an introspective sort.
+     *
+     * @param array array to sort
+     */
+    public static void sort(long[] array) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        introSort(array, 0, array.length - 1, 2 * QuickSort.log2(array.length));
+    }
+
+    /**
+     * Sort the provided array in ascending order using an introspective sort.
+     * <p>
+     * Comparison with {@code <} does not order -0.0 and 0.0, and is always false with NaN. So NaN values are first
+     * moved to the end of the array and -0.0 values are counted and replaced with 0.0. Once the rest is sorted, the
+     * right number of zeros, which are now adjacent, are turned back into -0.0.
+     *
+     * @param array array to sort
+     */
+    public static void sort(double[] array) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        int end = array.length - 1;
+        int negativeZeros = 0;
+        for (int i = end; i >= 0; i--) {
+            double value = array[i];
+            if (value != value) {
+                // NaN, swap with the last element not known as NaN, which has already been examined.
+                array[i] = array[end];
+                array[end--] = value;
+            } else if (value == 0.0d && Double.doubleToRawLongBits(value) != 0) {
+                array[i] = 0.0d;
+                negativeZeros++;
+            }
+        }
+        if (end < 1) {
+            return;
+        }
+        introSort(array, 0, end, 2 * QuickSort.log2(end + 1));
+        if (negativeZeros > 0) {
+            int zero = lowerBound(array, 0, end + 1, 0.0d);
+            for (int i = zero; i < zero + negativeZeros; i++) {
+                array[i] = -0.0d;
+            }
+        }
+    }
+
+    /**
+     * Sort the provided array in ascending order using an introspective sort.
+     * See {@link PrimitiveSort#sort(double[])} for -0.0 and NaN handling.
+     *
+     * @param array array to sort
+     */
+    public static void sort(float[] array) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        int end = array.length - 1;
+        int negativeZeros = 0;
+        for (int i = end; i >= 0; i--) {
+            float value = array[i];
+            if (value != value) {
+                // NaN, swap with the last element not known as NaN, which has already been examined.
+                array[i] = array[end];
+                array[end--] = value;
+            } else if (value == 0.0f && Float.floatToRawIntBits(value) != 0) {
+                array[i] = 0.0f;
+                negativeZeros++;
+            }
+        }
+        if (end < 1) {
+            return;
+        }
+        introSort(array, 0, end, 2 * QuickSort.log2(end + 1));
+        if (negativeZeros > 0) {
+            int zero = lowerBound(array, 0, end + 1, 0.0f);
+            for (int i = zero; i < zero + negativeZeros; i++) {
+                array[i] = -0.0f;
+            }
+        }
+    }
+
+    /**
+     * Sort the provided array in ascending order using a counting sort.
+     * <p>
+     * Occurrences of each of the 256 possible values are counted, then the array is rewritten value by value.
+     * Complexity is O(N + 256) without any comparison between elements.
+     *
+     * @param array array to sort
+     */
+    public static void sort(byte[] array) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        if (array.length < BYTE_COUNTING_SORT_THRESHOLD) {
+            insertionSort(array, 0, array.length - 1);
+            return;
+        }
+        int[] counts = new int[1 << Byte.SIZE];
+        for (byte value : array) {
+            counts[value - Byte.MIN_VALUE]++;
+        }
+        int next = 0;
+        for (int i = 0; i < counts.length; i++) {
+            byte value = (byte) (i + Byte.MIN_VALUE);
+            for (int count = counts[i]; count > 0; count--) {
+                array[next++] = value;
+            }
+        }
+    }
+
+    /**
+     * Sort the provided array in ascending order using a counting sort.
+     * See {@link PrimitiveSort#sort(byte[])}, with 65536 possible values.
+     *
+     * @param array array to sort
+     */
+    public static void sort(short[] array) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        if (array.length < SHORT_COUNTING_SORT_THRESHOLD) {
+            insertionSort(array, 0, array.length - 1);
+            return;
+        }
+        int[] counts = new int[1 << Short.SIZE];
+        for (short value : array) {
+            counts[value - Short.MIN_VALUE]++;
+        }
+        int next = 0;
+        for (int i = 0; i < counts.length; i++) {
+            short value = (short) (i + Short.MIN_VALUE);
+            for (int count = counts[i]; count > 0; count--) {
+                array[next++] = value;
+            }
+        }
+    }
+
+    /**
+     * Sort the provided array in ascending order using a counting sort.
+     * See {@link PrimitiveSort#sort(byte[])}, with 65536 possible values.
+     *
+     * @param array array to sort
+     */
+    public static void sort(char[] array) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        if (array.length < SHORT_COUNTING_SORT_THRESHOLD) {
+            insertionSort(array, 0, array.length - 1);
+            return;
+        }
+        int[] counts = new int[1 << Character.SIZE];
+        for (char value : array) {
+            counts[value]++;
+        }
+        int next = 0;
+        for (int i = 0; i < counts.length; i++) {
+            char value = (char) i;
+            for (int count = counts[i]; count > 0; count--) {
+                array[next++] = value;
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // long kernels
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * See {@link QuickSort#introSort(int[])}.
+     */
+    private static void introSort(long[] array, int start, int end, int depthLimit) {
+        while (end - start + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(array, start, end);
+                return;
+            }
+            depthLimit--;
+            int pivotIndex = partition(array, start, end, choosePivot(array, start, end));
+            // Recurse on the smaller partition, loop on the larger one.
+            if (pivotIndex - start < end - pivotIndex) {
+                introSort(array, start, pivotIndex - 1, depthLimit);
+                start = pivotIndex + 1;
+            } else {
+                introSort(array, pivotIndex + 1, end, depthLimit);
+                end = pivotIndex - 1;
+            }
+        }
+        insertionSort(array, start, end);
+    }
+
+    /**
+     * See {@link QuickSort#partition(int[], int, int, int)}.
+     */
+    private static int partition(long[] array, int start, int end, int pivotIndex) {
+        swap(array, pivotIndex, end);
+        long pivotValue = array[end];
+        int nextSmallElementIndex = start;
+        for (int i = start; i < end; i++) {
+            if (array[i] < pivotValue) {
+                swap(array, i, nextSmallElementIndex);
+                nextSmallElementIndex++;
+            }
+        }
+        swap(array, nextSmallElementIndex, end);
+        return nextSmallElementIndex;
+    }
+
+    /**
+     * See {@link QuickSort#choosePivot(int[], int, int)}.
+     */
+    private static int choosePivot(long[] array, int start, int end) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < NINTHER_THRESHOLD) {
+            return medianOfThree(array, start, middle, end);
+        }
+        int step = length / 8;
+        int first = medianOfThree(array, start, start + step, start + 2 * step);
+        int second = medianOfThree(array, middle - step, middle, middle + step);
+        int third = medianOfThree(array, end - 2 * step, end - step, end);
+        return medianOfThree(array, first, second, third);
+    }
+
+    private static int medianOfThree(long[] array, int i, int j, int k) {
+        if (array[i] < array[j]) {
+            if (array[j] < array[k]) {
+                return j;
+            }
+            return array[i] < array[k] ? k : i;
+        }
+        if (array[i] < array[k]) {
+            return i;
+        }
+        return array[j] < array[k] ? k : j;
+    }
+
+    /**
+     * Heap sort of the range start to end (both included), see {@link HeapSort#sort(int[])}.
+     */
+    private static void heapSort(long[] array, int start, int end) {
+        int length = end - start + 1;
+        for (int i = (length - 1) / 2; i >= 0; i--) {
+            siftDown(array, start, length, i);
+        }
+        for (int i = length - 1; i > 0; i--) {
+            swap(array, start, start + i);
+            siftDown(array, start, i, 0);
+        }
+    }
+
+    private static void siftDown(long[] array, int start, int length, int index) {
+        while (true) {
+            int max = index;
+            int leftChild = 2 * index + 1;
+            int rightChild = leftChild + 1;
+            if (leftChild < length && array[start + leftChild] > array[start + max]) {
+                max = leftChild;
+            }
+            if (rightChild < length && array[start + rightChild] > array[start + max]) {
+                max = rightChild;
+            }
+            if (max == index) {
+                return;
+            }
+            swap(array, start + max, start + index);
+            index = max;
+        }
+    }
+
+    /**
+     * See {@link org.nbousquet.algorithms.common.Utils#swap(int[], int, int)}.
+     */
+    private static void swap(long[] array, int i, int j) {
+        long swap = array[i];
+        array[i] = array[j];
+        array[j] = swap;
+    }
+
+    /**
+     * Insertion sort of the range start to end (both included).
+     */
+    private static void insertionSort(long[] array, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            long value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // double kernels
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * See {@link QuickSort#introSort(int[])}.
+     */
+    private static void introSort(double[] array, int start, int end, int depthLimit) {
+        while (end - start + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(array, start, end);
+                return;
+            }
+            depthLimit--;
+            int pivotIndex = partition(array, start, end, choosePivot(array, start, end));
+            // Recurse on the smaller partition, loop on the larger one.
+            if (pivotIndex - start < end - pivotIndex) {
+                introSort(array, start, pivotIndex - 1, depthLimit);
+                start = pivotIndex + 1;
+            } else {
+                introSort(array, pivotIndex + 1, end, depthLimit);
+                end = pivotIndex - 1;
+            }
+        }
+        insertionSort(array, start, end);
+    }
+
+    /**
+     * See {@link QuickSort#partition(int[], int, int, int)}.
+     */
+    private static int partition(double[] array, int start, int end, int pivotIndex) {
+        swap(array, pivotIndex, end);
+        double pivotValue = array[end];
+        int nextSmallElementIndex = start;
+        for (int i = start; i < end; i++) {
+            if (array[i] < pivotValue) {
+                swap(array, i, nextSmallElementIndex);
+                nextSmallElementIndex++;
+            }
+        }
+        swap(array, nextSmallElementIndex, end);
+        return nextSmallElementIndex;
+    }
+
+    /**
+     * See {@link QuickSort#choosePivot(int[], int, int)}.
+     */
+    private static int choosePivot(double[] array, int start, int end) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < NINTHER_THRESHOLD) {
+            return medianOfThree(array, start, middle, end);
+        }
+        int step = length / 8;
+        int first = medianOfThree(array, start, start + step, start + 2 * step);
+        int second = medianOfThree(array, middle - step, middle, middle + step);
+        int third = medianOfThree(array, end - 2 * step, end - step, end);
+        return medianOfThree(array, first, second, third);
+    }
+
+    private static int medianOfThree(double[] array, int i, int j, int k) {
+        if (array[i] < array[j]) {
+            if (array[j] < array[k]) {
+                return j;
+            }
+            return array[i] < array[k] ? k : i;
+        }
+        if (array[i] < array[k]) {
+            return i;
+        }
+        return array[j] < array[k] ? k : j;
+    }
+
+    /**
+     * Heap sort of the range start to end (both included), see {@link HeapSort#sort(int[])}.
+     */
+    private static void heapSort(double[] array, int start, int end) {
+        int length = end - start + 1;
+        for (int i = (length - 1) / 2; i >= 0; i--) {
+            siftDown(array, start, length, i);
+        }
+        for (int i = length - 1; i > 0; i--) {
+            swap(array, start, start + i);
+            siftDown(array, start, i, 0);
+        }
+    }
+
+    private static void siftDown(double[] array, int start, int length, int index) {
+        while (true) {
+            int max = index;
+            int leftChild = 2 * index + 1;
+            int rightChild = leftChild + 1;
+            if (leftChild < length && array[start + leftChild] > array[start + max]) {
+                max = leftChild;
+            }
+            if (rightChild < length && array[start + rightChild] > array[start + max]) {
+                max = rightChild;
+            }
+            if (max == index) {
+                return;
+            }
+            swap(array, start + max, start + index);
+            index = max;
+        }
+    }
+
+    /**
+     * See {@link org.nbousquet.algorithms.common.Utils#swap(int[], int, int)}.
+     */
+    private static void swap(double[] array, int i, int j) {
+        double swap = array[i];
+        array[i] = array[j];
+        array[j] = swap;
+    }
+
+    /**
+     * Insertion sort of the range start to end (both included).
+     */
+    private static void insertionSort(double[] array, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            double value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+
+    /**
+     * @return index of the first element not lower than value in the sorted range from (included) to (excluded).
+     */
+    private static int lowerBound(double[] array, int from, int to, double value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (array[mid] < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // float kernels
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * See {@link QuickSort#introSort(int[])}.
+     */
+    private static void introSort(float[] array, int start, int end, int depthLimit) {
+        while (end - start + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(array, start, end);
+                return;
+            }
+            depthLimit--;
+            int pivotIndex = partition(array, start, end, choosePivot(array, start, end));
+            // Recurse on the smaller partition, loop on the larger one.
+            if (pivotIndex - start < end - pivotIndex) {
+                introSort(array, start, pivotIndex - 1, depthLimit);
+                start = pivotIndex + 1;
+            } else {
+                introSort(array, pivotIndex + 1, end, depthLimit);
+                end = pivotIndex - 1;
+            }
+        }
+        insertionSort(array, start, end);
+    }
+
+    /**
+     * See {@link QuickSort#partition(int[], int, int, int)}.
+     */
+    private static int partition(float[] array, int start, int end, int pivotIndex) {
+        swap(array, pivotIndex, end);
+        float pivotValue = array[end];
+        int nextSmallElementIndex = start;
+        for (int i = start; i < end; i++) {
+            if (array[i] < pivotValue) {
+                swap(array, i, nextSmallElementIndex);
+                nextSmallElementIndex++;
+            }
+        }
+        swap(array, nextSmallElementIndex, end);
+        return nextSmallElementIndex;
+    }
+
+    /**
+     * See {@link QuickSort#choosePivot(int[], int, int)}.
+     */
+    private static int choosePivot(float[] array, int start, int end) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < NINTHER_THRESHOLD) {
+            return medianOfThree(array, start, middle, end);
+        }
+        int step = length / 8;
+        int first = medianOfThree(array, start, start + step, start + 2 * step);
+        int second = medianOfThree(array, middle - step, middle, middle + step);
+        int third = medianOfThree(array, end - 2 * step, end - step, end);
+        return medianOfThree(array, first, second, third);
+    }
+
+    private static int medianOfThree(float[] array, int i, int j, int k) {
+        if (array[i] < array[j]) {
+            if (array[j] < array[k]) {
+                return j;
+            }
+            return array[i] < array[k] ? k : i;
+        }
+        if (array[i] < array[k]) {
+            return i;
+        }
+        return array[j] < array[k] ? k : j;
+    }
+
+    /**
+     * Heap sort of the range start to end (both included), see {@link HeapSort#sort(int[])}.
+     */
+    private static void heapSort(float[] array, int start, int end) {
+        int length = end - start + 1;
+        for (int i = (length - 1) / 2; i >= 0; i--) {
+            siftDown(array, start, length, i);
+        }
+        for (int i = length - 1; i > 0; i--) {
+            swap(array, start, start + i);
+            siftDown(array, start, i, 0);
+        }
+    }
+
+    private static void siftDown(float[] array, int start, int length, int index) {
+        while (true) {
+            int max = index;
+            int leftChild = 2 * index + 1;
+            int rightChild = leftChild + 1;
+            if (leftChild < length && array[start + leftChild] > array[start + max]) {
+                max = leftChild;
+            }
+            if (rightChild < length && array[start + rightChild] > array[start + max]) {
+                max = rightChild;
+            }
+            if (max == index) {
+                return;
+            }
+            swap(array, start + max, start + index);
+            index = max;
+        }
+    }
+
+    /**
+     * See {@link org.nbousquet.algorithms.common.Utils#swap(int[], int, int)}.
+     */
+    private static void swap(float[] array, int i, int j) {
+        float swap = array[i];
+        array[i] = array[j];
+        array[j] = swap;
+    }
+
+    /**
+     * Insertion sort of the range start to end (both included).
+     */
+    private static void insertionSort(float[] array, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            float value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+
+    /**
+     * @return index of the first element not lower than value in the sorted range from (included) to (excluded).
+     */
+    private static int lowerBound(float[] array, int from, int to, float value) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (array[mid] < value) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Small domain types, only used below the counting sort thresholds
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Insertion sort of the range start to end (both included).
+     */
+    private static void insertionSort(short[] array, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            short value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+
+    /**
+     * Insertion sort of the range start to end (both included).
+     */
+    private static void insertionSort(char[] array, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            char value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+
+    /**
+     * Insertion sort of the range start to end (both included).
+     */
+    private static void insertionSort(byte[] array, int start, int end) {
+        for (int i = start + 1; i <= end; i++) {
+            byte value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+}
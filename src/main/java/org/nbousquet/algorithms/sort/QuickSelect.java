@@ -0,0 +1,140 @@
+package org.nbousquet.algorithms.sort;
+
+import org.nbousquet.algorithms.common.Utils;
+
+public class QuickSelect {
+
+    /**
+     * Size of range under which the selection is finished with a sorting network, see {@link SmallSort}.
+     */
+    private static final int SMALL_SORT_THRESHOLD = SmallSort.MAX_NETWORK_SIZE;
+
+    /**
+     * Find the k-th smallest element of the provided array (k starting at 0), the element that would be at index k
+     * once the array sorted, using introspective quick select.
+     * <p>
+     * Quick select is a quick sort that only recurse in the partition holding index k, the other one does not need to
+     * be sorted. So on average the work is N + N/2 + N/4 ... which is O(N). Like quick sort, bad pivots make it
+     * O(N^2), so after 2 * log2(N) partitions the pivot is chosen with the median of medians algorithm instead: the
+     * median of the medians of groups of 5 elements, which is always between the 30% and 70% percentiles, giving a
+     * worst case complexity of O(N).
+     * <p>
+     * Partitions are 3 way, see {@link ThreeWayQuickSort}, so arrays with many duplicates are handled well.
+     * <p>
+     * The array is reordered: after the call, array[k] holds the k-th smallest element, elements before are lower or
+     * equal and elements after are greater or equal.
+     *
+     * @param array array to select from
+     * @param k     rank of the element to select, from 0 to array.length - 1
+     * @return the k-th smallest element
+     * @throws IllegalArgumentException k is not a valid index of the array.
+     */
+    public static int select(int[] array, int k) {
+        if (k < 0 || k >= array.length) {
+            throw new IllegalArgumentException("Rank " + k + " is out of array of size " + array.length);
+        }
+        select(array, 0, array.length - 1, k, 2 * QuickSort.log2(array.length));
+        return array[k];
+    }
+
+    /**
+     * Partially sort the provided array so that its first k elements are the k smallest, in ascending order.
+     * The order of the other elements is unspecified.
+     * <p>
+     * The k-th smallest element is selected, see {@link QuickSelect#select(int[], int)}, then only the range before
+     * it is sorted. Complexity is O(N + k log(k)).
+     *
+     * @param array array to partially sort
+     * @param k     number of smallest elements to sort, from 0 to array.length
+     * @throws IllegalArgumentException k is out of range.
+     */
+    public static void partialSort(int[] array, int k) {
+        if (k < 0 || k > array.length) {
+            throw new IllegalArgumentException("Count " + k + " is out of array of size " + array.length);
+        }
+        if (k == 0) {
+            return;
+        }
+        select(array, k - 1);
+        QuickSort.introSort(array, 0, k - 2);
+    }
+
+    /**
+     * Return the k largest elements of the provided array, in descending order. The array is left untouched.
+     * <p>
+     * Elements are streamed into a {@link TopK} bounded heap, so only k elements are kept in memory whatever the size
+     * of the input. Complexity is O(N log(k)).
+     *
+     * @param array array to read
+     * @param k     number of largest elements to return, at most array.length
+     * @return new array of the k largest elements, in descending order
+     * @throws IllegalArgumentException k is out of range.
+     */
+    public static int[] topK(int[] array, int k) {
+        if (k < 0 || k > array.length) {
+            throw new IllegalArgumentException("Count " + k + " is out of array of size " + array.length);
+        }
+        TopK topK = new TopK(k);
+        for (int value : array) {
+            topK.add(value);
+        }
+        return topK.toSortedArray();
+    }
+
+    /**
+     * See {@link QuickSelect#select(int[], int)}.
+     *
+     * @param array      array to select from
+     * @param start      beginning of the range holding index k, included.
+     * @param end        end of the range holding index k, included.
+     * @param k          index to select
+     * @param depthLimit number of partitions left before choosing pivots with median of medians.
+     */
+    private static void select(int[] array, int start, int end, int k, int depthLimit) {
+        while (end - start + 1 > SMALL_SORT_THRESHOLD) {
+            int pivotIndex;
+            if (depthLimit > 0) {
+                depthLimit--;
+                pivotIndex = QuickSort.choosePivot(array, start, end);
+            } else {
+                pivotIndex = medianOfMedians(array, start, end);
+            }
+            ThreeWayQuickSort.PivotIndexes pivot = ThreeWayQuickSort.partition(array, start, end, pivotIndex);
+            if (k < pivot.start) {
+                end = pivot.start - 1;
+            } else if (k > pivot.end) {
+                start = pivot.end + 1;
+            } else {
+                // k is among the elements equal to the pivot, already at their final place.
+                return;
+            }
+        }
+        SmallSort.sort(array, start, end);
+    }
+
+    /**
+     * Find an approximate median of the range, guaranteed to be greater than 30% of the elements and lower than 30%
+     * of them.
+     * <p>
+     * The range is cut in groups of 5 elements. Each group is sorted, and its median moved at the beginning of the
+     * range. The median of these medians is then selected recursively.
+     *
+     * @param array array to look into
+     * @param start beginning of the range, included.
+     * @param end   end of the range, included.
+     * @return index of the median of medians
+     */
+    private static int medianOfMedians(int[] array, int start, int end) {
+        int medians = 0;
+        for (int groupStart = start; groupStart <= end; groupStart += 5) {
+            int groupEnd = Math.min(groupStart + 4, end);
+            SmallSort.sort(array, groupStart, groupEnd);
+            Utils.swap(array, start + medians, groupStart + (groupEnd - groupStart) / 2);
+            medians++;
+        }
+        int medianIndex = start + (medians - 1) / 2;
+        // Depth limit of 0: the medians are selected with median of medians too, keeping the O(N) guarantee.
+        select(array, start, start + medians - 1, medianIndex, 0);
+        return medianIndex;
+    }
+}
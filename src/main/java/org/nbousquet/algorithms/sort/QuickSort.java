@@ -2,10 +2,54 @@ package org.nbousquet.algorithms.sort;
 
 import org.nbousquet.algorithms.common.Utils;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class QuickSort {
 
+    /**
+     * Size of range under which the introspective sort stops partitioning and finish with a sorting network, see
+     * {@link SmallSort}.
+     */
+    static final int SMALL_SORT_THRESHOLD = SmallSort.MAX_NETWORK_SIZE;
+    /**
+     * Size of range under which the introspective sort of keys with payloads stops partitioning and finish with an
+     * insertion sort.
+     */
+    static final int INSERTION_SORT_THRESHOLD = 24;
+    /**
+     * Size of range from which the pivot is chosen as the median of 3 medians of 3 (ninther) rather than the median
+     * of 3 elements.
+     */
+    static final int NINTHER_THRESHOLD = 128;
+    /**
+     * Size under which the parallel sort stop splitting the work and sort sequentially.
+     * Below that, the cost of creating and scheduling tasks is higher than the work itself.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+    /**
+     * Number of elements scanned at once on each side by the block partition.
+     */
+    static final int PARTITION_BLOCK_SIZE = 128;
+
+    /**
+     * Algorithm used to partition a range around its pivot.
+     */
+    public enum PartitionStrategy {
+        /**
+         * Single scan from the left, swapping each element lower than the pivot, see
+         * {@link QuickSort#partition(int[], int, int, int)}. Simple, but each element costs a branch that the CPU
+         * mispredicts half of the time on random data.
+         */
+        LOMUTO,
+        /**
+         * Block partition, see {@link QuickSort#blockPartition(int[], int, int, int, int[], int[])}: misplaced
+         * elements are located without branches, then swapped in bulk. Faster on random data.
+         */
+        BLOCK
+    }
+
     /**
      * Sort the provided array in ascending order using randomized quick sort.
      * <p>
@@ -30,6 +74,146 @@ public class QuickSort {
         sort(array, 0, array.length - 1);
     }
 
+    /**
+     * Sort the provided array in ascending order using an introspective sort, a quick sort hybrid.
+     * <p>
+     * It is a quick sort, see {@link QuickSort#sort(int[])}, with a few changes to make it robust and faster:
+     * <ul>
+     * <li>The pivot is the median of 3 elements of the range (first, middle & last), or for large ranges the median
+     * of 3 such medians (ninther). This is deterministic, cheaper than a random generator and gives good pivots on
+     * sorted or reversed input.</li>
+     * <li>Ranges of up to SMALL_SORT_THRESHOLD elements are finished with a branchless sorting network, see
+     * {@link SmallSort}, which is faster than partitioning for a few elements.</li>
+     * <li>Only the smaller partition is sorted recursively, the larger one is handled by the same call. So the stack
+     * depth stays O(log(N)).</li>
+     * <li>If partitioning goes deeper than 2 * log2(N), the pivots are known to be bad and the range is sorted
+     * with a heap sort instead. So worst case complexity is O(N log(N)), even on adversarial input.</li>
+     * </ul>
+     *
+     * @param array array to sort
+     */
+    public static void introSort(int[] array) {
+        introSort(array, PartitionStrategy.LOMUTO);
+    }
+
+    /**
+     * Sort the provided array in ascending order using an introspective sort, partitioning with the provided
+     * strategy. See {@link QuickSort#introSort(int[])}.
+     *
+     * @param array    array to sort
+     * @param strategy partition algorithm
+     */
+    public static void introSort(int[] array, PartitionStrategy strategy) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        if (strategy == PartitionStrategy.BLOCK) {
+            introSort(array, 0, array.length - 1, 2 * log2(array.length),
+                    new int[PARTITION_BLOCK_SIZE], new int[PARTITION_BLOCK_SIZE]);
+        } else {
+            introSort(array, 0, array.length - 1, 2 * log2(array.length));
+        }
+    }
+
+    /**
+     * Sort the keys in ascending order and apply the very same reordering to the payloads, like if each index of the
+     * keys and payloads was a row and keys the column to sort on.
+     * <p>
+     * The introspective sort is used, see {@link QuickSort#introSort(int[])}, each swap of 2 keys swapping the same
+     * indexes in every payload. Nothing is allocated per element, so columnar data can be sorted without building an
+     * array of objects. Order of rows with equal keys is unspecified.
+     *
+     * @param keys     array to sort
+     * @param payloads arrays reordered with the keys, each one of the same size than keys.
+     * @throws IllegalArgumentException a payload has not the same size than keys.
+     */
+    public static void sort(int[] keys, int[]... payloads) {
+        if (keys == null) {
+            return;
+        }
+        for (int[] payload : payloads) {
+            if (payload.length != keys.length) {
+                throw new IllegalArgumentException("Payload of size " + payload.length
+                        + " does not match keys of size " + keys.length);
+            }
+        }
+        if (keys.length < 2) {
+            return;
+        }
+        introSort(keys, payloads, 0, keys.length - 1, 2 * log2(keys.length));
+    }
+
+    /**
+     * Compute the permutation that sorts the provided keys, also known as argsort: keys[permutation[0]] is the
+     * smallest key, keys[permutation[1]] the next one and so on. Keys are left untouched.
+     * <p>
+     * See {@link QuickSort#sort(int[], int[]...)}, the keys are copied and sorted with the identity permutation as
+     * payload. Order of indexes of equal keys is unspecified.
+     *
+     * @param keys keys to sort
+     * @return permutation of indexes sorting the keys, or null if keys is null.
+     */
+    public static int[] sortIndices(int[] keys) {
+        if (keys == null) {
+            return null;
+        }
+        int[] permutation = new int[keys.length];
+        for (int i = 0; i < permutation.length; i++) {
+            permutation[i] = i;
+        }
+        sort(keys.clone(), permutation);
+        return permutation;
+    }
+
+    /**
+     * Sort the provided array in ascending order using a parallel quick sort on the common fork/join pool.
+     * <p>
+     * See {@link QuickSort#parallelSort(int[], ForkJoinPool, int)}.
+     *
+     * @param array array to sort
+     */
+    public static void parallelSort(int[] array) {
+        parallelSort(array, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Sort the provided array in ascending order using a parallel quick sort.
+     * <p>
+     * After a partition, both sides are independent, so they are sorted as 2 fork/join tasks. Ranges smaller than
+     * the threshold are sorted sequentially with {@link QuickSort#introSort(int[])}.
+     * <p>
+     * The first partitions of a large array would keep a single thread busy for long, so large ranges are partitioned
+     * by blocks in parallel, see {@link ParallelPartition}. That partition has 3 parts, elements equal to the pivot
+     * being left out of the recursion, so duplicate heavy input is handled well. It needs a buffer the size of the
+     * array, only allocated for arrays large enough.
+     * <p>
+     * Like the introspective sort, ranges partitioned more than 2 * log2(N) times are sorted with a heap sort.
+     *
+     * @param array     array to sort
+     * @param pool      pool running the sort tasks
+     * @param threshold size of range under which the work is done sequentially. Must be at least 1.
+     * @throws IllegalArgumentException threshold is lower than 1.
+     */
+    public static void parallelSort(int[] array, ForkJoinPool pool, int threshold) {
+        parallelSort(array, pool, threshold, ParallelPartition.DEFAULT_PARALLEL_PARTITION_THRESHOLD);
+    }
+
+    /**
+     * See {@link QuickSort#parallelSort(int[], ForkJoinPool, int)}, with a tunable size from which partitions are done
+     * in parallel.
+     */
+    static void parallelSort(int[] array, ForkJoinPool pool, int threshold, int partitionThreshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1: " + threshold);
+        }
+        if (array == null || array.length < 2) {
+            return;
+        }
+        int[] buffer = array.length >= partitionThreshold ? new int[array.length] : null;
+        pool.invoke(new SortTask(array, buffer, 0, array.length - 1, 2 * log2(array.length),
+                threshold, partitionThreshold, pool.getParallelism()));
+    }
+
     /**
      * See {@link QuickSort#sort(int[])}. For our divide & conquer strategy we specify in what range we do perform the
      * sorting.
@@ -62,10 +246,25 @@ public class QuickSort {
      * @return index of the pivot of the partition
      */
     private static int partition(int[] array, int start, int end) {
-        // We choose a random pivot and put it at the end of the range.
+        // We choose a random pivot.
         // This is to avoid the issue where a wrong pivot would make for bad performance O(N^2).
         int randomPivotIndex = ThreadLocalRandom.current().nextInt(start, end + 1);
-        Utils.swap(array, randomPivotIndex, end);
+        return partition(array, start, end, randomPivotIndex);
+    }
+
+    /**
+     * Partition the provided array around the provided pivot.
+     * See {@link QuickSort#partition(int[], int, int)}.
+     *
+     * @param array      array to partition withing start (included) and end (included)
+     * @param start      begining of the range to partition
+     * @param end        end of the range to partition
+     * @param pivotIndex index of the pivot, within the range
+     * @return index of the pivot of the partition
+     */
+    static int partition(int[] array, int start, int end, int pivotIndex) {
+        // The pivot is put at the end of the range.
+        Utils.swap(array, pivotIndex, end);
         int pivotValue = array[end];
         // Found out all elements smaller and the pivot and put them at the begining.
         int nextSmallElementIndex = start;
@@ -80,5 +279,336 @@ public class QuickSort {
         return nextSmallElementIndex; // The pivot is now there
     }
 
+    /**
+     * Sort the provided array within the index range (start & end included) with the introspective sort.
+     * See {@link QuickSort#introSort(int[])}.
+     *
+     * @param array array to sort
+     * @param start beginning of the range to sort, included.
+     * @param end   end of the range to sort, included.
+     */
+    static void introSort(int[] array, int start, int end) {
+        if (end > start) {
+            introSort(array, start, end, 2 * log2(end - start + 1));
+        }
+    }
+
+    /**
+     * See {@link QuickSort#introSort(int[])}.
+     *
+     * @param array      array to sort
+     * @param start      beginning of the range to sort, included.
+     * @param end        end of the range to sort, included.
+     * @param depthLimit number of partitioning levels left before falling back to heap sort.
+     */
+    private static void introSort(int[] array, int start, int end, int depthLimit) {
+        introSort(array, start, end, depthLimit, null, null);
+    }
+
+    /**
+     * See {@link QuickSort#introSort(int[])}.
+     *
+     * @param array        array to sort
+     * @param start        beginning of the range to sort, included.
+     * @param end          end of the range to sort, included.
+     * @param depthLimit   number of partitioning levels left before falling back to heap sort.
+     * @param leftOffsets  offsets buffer of the block partition, null to partition with Lomuto.
+     * @param rightOffsets offsets buffer of the block partition, null to partition with Lomuto.
+     */
+    private static void introSort(int[] array, int start, int end, int depthLimit,
+                                  int[] leftOffsets, int[] rightOffsets) {
+        while (end - start + 1 > SMALL_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                HeapSort.sort(array, start, end);
+                return;
+            }
+            depthLimit--;
+            int pivotIndex = choosePivot(array, start, end);
+            if (leftOffsets == null) {
+                pivotIndex = partition(array, start, end, pivotIndex);
+            } else {
+                pivotIndex = blockPartition(array, start, end, pivotIndex, leftOffsets, rightOffsets);
+            }
+            // Recurse on the smaller partition, loop on the larger one.
+            if (pivotIndex - start < end - pivotIndex) {
+                introSort(array, start, pivotIndex - 1, depthLimit, leftOffsets, rightOffsets);
+                start = pivotIndex + 1;
+            } else {
+                introSort(array, pivotIndex + 1, end, depthLimit, leftOffsets, rightOffsets);
+                end = pivotIndex - 1;
+            }
+        }
+        SmallSort.sort(array, start, end);
+    }
+
+    /**
+     * Partition the provided array around the provided pivot, like {@link QuickSort#partition(int[], int, int, int)},
+     * using the BlockQuicksort algorithm of Edelkamp & Weiss.
+     * <p>
+     * Like Hoare partition, the range is scanned from both ends, swapping elements misplaced on the left (greater or
+     * equal to the pivot) with elements misplaced on the right (lower than the pivot). But instead of branching on
+     * each comparison, a block of elements of each side is scanned first, recording the offsets of the misplaced
+     * elements: the comparison result is just added to the number of offsets, which compiles without any branch.
+     * Then the recorded elements are swapped in bulk. So the only branches left are the loop ones, which the CPU
+     * predicts well.
+     * <p>
+     * When less than 2 blocks are left, the remaining elements are partitioned with Lomuto.
+     *
+     * @param array        array to partition withing start (included) and end (included)
+     * @param start        begining of the range to partition
+     * @param end          end of the range to partition
+     * @param pivotIndex   index of the pivot, within the range
+     * @param leftOffsets  buffer of PARTITION_BLOCK_SIZE offsets for the left side
+     * @param rightOffsets buffer of PARTITION_BLOCK_SIZE offsets for the right side
+     * @return index of the pivot of the partition
+     */
+    static int blockPartition(int[] array, int start, int end, int pivotIndex,
+                              int[] leftOffsets, int[] rightOffsets) {
+        // The pivot is put at the end of the range, out of the scanned elements.
+        Utils.swap(array, pivotIndex, end);
+        int pivotValue = array[end];
+        // Everything before left is lower than the pivot, everything after right is greater or equal.
+        int left = start;
+        int right = end - 1;
+        int leftCount = 0;
+        int rightCount = 0;
+        int leftStart = 0;
+        int rightStart = 0;
+        while (right - left + 1 > 2 * PARTITION_BLOCK_SIZE) {
+            if (leftCount == 0) {
+                leftStart = 0;
+                for (int i = 0; i < PARTITION_BLOCK_SIZE; i++) {
+                    leftOffsets[leftCount] = i;
+                    leftCount += array[left + i] >= pivotValue ? 1 : 0;
+                }
+            }
+            if (rightCount == 0) {
+                rightStart = 0;
+                for (int i = 0; i < PARTITION_BLOCK_SIZE; i++) {
+                    rightOffsets[rightCount] = i;
+                    rightCount += array[right - i] < pivotValue ? 1 : 0;
+                }
+            }
+            int swaps = Math.min(leftCount, rightCount);
+            for (int i = 0; i < swaps; i++) {
+                Utils.swap(array, left + leftOffsets[leftStart + i], right - rightOffsets[rightStart + i]);
+            }
+            leftCount -= swaps;
+            rightCount -= swaps;
+            leftStart += swaps;
+            rightStart += swaps;
+            // A block is done once all its misplaced elements are swapped.
+            if (leftCount == 0) {
+                left += PARTITION_BLOCK_SIZE;
+            }
+            if (rightCount == 0) {
+                right -= PARTITION_BLOCK_SIZE;
+            }
+        }
+        // Lomuto on the elements left between the blocks, the pivot being still at the end.
+        int nextSmallElementIndex = left;
+        for (int i = left; i <= right; i++) {
+            if (array[i] < pivotValue) {
+                Utils.swap(array, i, nextSmallElementIndex);
+                nextSmallElementIndex++;
+            }
+        }
+        Utils.swap(array, nextSmallElementIndex, end);
+        return nextSmallElementIndex;
+    }
+
+    /**
+     * Choose a pivot index for the range: median of first, middle and last element, or for large range the ninther,
+     * median of the medians of 3 evenly spaced groups of 3 elements.
+     *
+     * @param array array to partition
+     * @param start beginning of the range, included.
+     * @param end   end of the range, included.
+     * @return index of the chosen pivot
+     */
+    static int choosePivot(int[] array, int start, int end) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < NINTHER_THRESHOLD) {
+            return medianOfThree(array, start, middle, end);
+        }
+        int step = length / 8;
+        int first = medianOfThree(array, start, start + step, start + 2 * step);
+        int second = medianOfThree(array, middle - step, middle, middle + step);
+        int third = medianOfThree(array, end - 2 * step, end - step, end);
+        return medianOfThree(array, first, second, third);
+    }
+
+    /**
+     * @return index among i, j & k holding the median value of the 3.
+     */
+    private static int medianOfThree(int[] array, int i, int j, int k) {
+        if (array[i] < array[j]) {
+            if (array[j] < array[k]) {
+                return j;
+            }
+            return array[i] < array[k] ? k : i;
+        }
+        if (array[i] < array[k]) {
+            return i;
+        }
+        return array[j] < array[k] ? k : j;
+    }
+
+    /**
+     * @return floor of log2 of the provided strictly positive number.
+     */
+    static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
 
+    /**
+     * Fork/join task sorting the range start to end (both included) of the array.
+     */
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] array;
+        private final int[] buffer;
+        private final int start;
+        private final int end;
+        private final int depthLimit;
+        private final int threshold;
+        private final int partitionThreshold;
+        private final int parallelism;
+
+        SortTask(int[] array, int[] buffer, int start, int end, int depthLimit, int threshold,
+                 int partitionThreshold, int parallelism) {
+            this.array = array;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.depthLimit = depthLimit;
+            this.threshold = threshold;
+            this.partitionThreshold = partitionThreshold;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected void compute() {
+            int length = end - start + 1;
+            if (length <= threshold) {
+                if (length > 1) {
+                    introSort(array, start, end, depthLimit);
+                }
+                return;
+            }
+            if (depthLimit == 0) {
+                HeapSort.sort(array, start, end);
+                return;
+            }
+            int pivotIndex = choosePivot(array, start, end);
+            int leftEnd;
+            int rightStart;
+            if (length >= partitionThreshold) {
+                int blockSize = ParallelPartition.blockSize(length, parallelism, threshold);
+                ThreeWayQuickSort.PivotIndexes pivot = ParallelPartition.partition(array, start, end,
+                        array[pivotIndex], buffer, blockSize);
+                leftEnd = pivot.start - 1;
+                rightStart = pivot.end + 1;
+            } else {
+                pivotIndex = partition(array, start, end, pivotIndex);
+                leftEnd = pivotIndex - 1;
+                rightStart = pivotIndex + 1;
+            }
+            invokeAll(new SortTask(array, buffer, start, leftEnd, depthLimit - 1,
+                            threshold, partitionThreshold, parallelism),
+                    new SortTask(array, buffer, rightStart, end, depthLimit - 1,
+                            threshold, partitionThreshold, parallelism));
+        }
+    }
+
+    /**
+     * See {@link QuickSort#introSort(int[], int, int, int)}, every swap being applied to the payloads too.
+     */
+    private static void introSort(int[] keys, int[][] payloads, int start, int end, int depthLimit) {
+        while (end - start + 1 > INSERTION_SORT_THRESHOLD) {
+            if (depthLimit == 0) {
+                heapSort(keys, payloads, start, end);
+                return;
+            }
+            depthLimit--;
+            int pivotIndex = partition(keys, payloads, start, end, choosePivot(keys, start, end));
+            // Recurse on the smaller partition, loop on the larger one.
+            if (pivotIndex - start < end - pivotIndex) {
+                introSort(keys, payloads, start, pivotIndex - 1, depthLimit);
+                start = pivotIndex + 1;
+            } else {
+                introSort(keys, payloads, pivotIndex + 1, end, depthLimit);
+                end = pivotIndex - 1;
+            }
+        }
+        // Insertion sort by adjacent swaps, so the payloads follow.
+        for (int i = start + 1; i <= end; i++) {
+            for (int j = i; j > start && keys[j - 1] > keys[j]; j--) {
+                swap(keys, payloads, j - 1, j);
+            }
+        }
+    }
+
+    /**
+     * See {@link QuickSort#partition(int[], int, int, int)}, every swap being applied to the payloads too.
+     */
+    private static int partition(int[] keys, int[][] payloads, int start, int end, int pivotIndex) {
+        swap(keys, payloads, pivotIndex, end);
+        int pivotValue = keys[end];
+        int nextSmallElementIndex = start;
+        for (int i = start; i < end; i++) {
+            if (keys[i] < pivotValue) {
+                swap(keys, payloads, i, nextSmallElementIndex);
+                nextSmallElementIndex++;
+            }
+        }
+        swap(keys, payloads, nextSmallElementIndex, end);
+        return nextSmallElementIndex;
+    }
+
+    /**
+     * Heap sort of the range start to end (both included), see {@link HeapSort#sort(int[])}, every swap being applied
+     * to the payloads too.
+     */
+    private static void heapSort(int[] keys, int[][] payloads, int start, int end) {
+        int length = end - start + 1;
+        for (int i = (length - 1) / 2; i >= 0; i--) {
+            siftDown(keys, payloads, start, length, i);
+        }
+        for (int i = length - 1; i > 0; i--) {
+            swap(keys, payloads, start, start + i);
+            siftDown(keys, payloads, start, i, 0);
+        }
+    }
+
+    private static void siftDown(int[] keys, int[][] payloads, int start, int length, int index) {
+        while (true) {
+            int max = index;
+            int leftChild = 2 * index + 1;
+            int rightChild = leftChild + 1;
+            if (leftChild < length && keys[start + leftChild] > keys[start + max]) {
+                max = leftChild;
+            }
+            if (rightChild < length && keys[start + rightChild] > keys[start + max]) {
+                max = rightChild;
+            }
+            if (max == index) {
+                return;
+            }
+            swap(keys, payloads, start + max, start + index);
+            index = max;
+        }
+    }
+
+    /**
+     * Swap the elements at index i & j of the keys and of every payload.
+     */
+    private static void swap(int[] keys, int[][] payloads, int i, int j) {
+        Utils.swap(keys, i, j);
+        for (int[] payload : payloads) {
+            Utils.swap(payload, i, j);
+        }
+    }
 }
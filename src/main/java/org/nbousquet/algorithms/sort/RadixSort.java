@@ -0,0 +1,354 @@
+package org.nbousquet.algorithms.sort;
+
+import java.util.Arrays;
+
+public class RadixSort {
+
+    /**
+     * Number of bits of a digit. Each pass sort the keys on one digit, so ints need 4 passes and longs 8.
+     */
+    private static final int DIGIT_BITS = 8;
+    /**
+     * Number of different values of a digit.
+     */
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+    /**
+     * Size under which the in place variant sort buckets with an insertion sort rather than recursing on the next
+     * digit: 256 counters to clear and scan are not worth it for a handful of elements.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * Sort the provided array in ascending order using a least significant digit radix sort.
+     * <p>
+     * Keys are not compared to each other. Instead, the array is sorted digit by digit, from the least significant to
+     * the most significant one, with a counting sort: a first pass count how many keys have each digit value, which
+     * gives where each digit value starts in the output, then keys are moved at their place. As each pass is stable,
+     * the ordering of previous digits is kept among keys with the same digit value.
+     * <p>
+     * Complexity is O(N * number of digits), so O(N) for a fixed key size. All digit counts are computed in a single
+     * read of the array, and the passes where all keys share the same digit (typically the high digits of small
+     * values) are skipped.
+     * <p>
+     * Keys are signed: the sign bit is flipped when extracting digits, so negative values come before positive ones.
+     * <p>
+     * A buffer the size of the array is allocated. See {@link RadixSort#sort(int[], int[])} to provide it and reuse it
+     * across calls, or {@link RadixSort#sortInPlace(int[])} for a variant with no buffer at all.
+     *
+     * @param array array to sort
+     */
+    public static void sort(int[] array) {
+        if (array == null) {
+            return;
+        }
+        sort(array, new int[array.length]);
+    }
+
+    /**
+     * Same as {@link RadixSort#sort(int[])} but using the provided scratch buffer instead of allocating one.
+     *
+     * @param array  array to sort
+     * @param buffer scratch buffer, at least the size of the array. Its content is overwritten.
+     * @throws IllegalArgumentException the buffer is too small for the array.
+     */
+    public static void sort(int[] array, int[] buffer) {
+        if (array == null) {
+            return;
+        }
+        if (buffer.length < array.length) {
+            throw new IllegalArgumentException("Buffer of size " + buffer.length + " is too small to sort "
+                    + array.length + " elements");
+        }
+        if (array.length < 2) {
+            return;
+        }
+        int digits = Integer.SIZE / DIGIT_BITS;
+        int[][] counts = new int[digits][RADIX];
+        for (int key : array) {
+            int unsignedKey = key ^ Integer.MIN_VALUE;
+            for (int digit = 0; digit < digits; digit++) {
+                counts[digit][(unsignedKey >>> (digit * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+
+        int[] source = array;
+        int[] destination = buffer;
+        for (int digit = 0; digit < digits; digit++) {
+            int shift = digit * DIGIT_BITS;
+            int[] count = counts[digit];
+            // All keys share that digit, this pass would not move anything.
+            if (count[((source[0] ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK] == array.length) {
+                continue;
+            }
+            // Turn counts into the index where each digit value starts.
+            int next = 0;
+            for (int value = 0; value < RADIX; value++) {
+                int valueCount = count[value];
+                count[value] = next;
+                next += valueCount;
+            }
+            for (int i = 0; i < array.length; i++) {
+                int key = source[i];
+                destination[count[((key ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = key;
+            }
+            int[] swap = source;
+            source = destination;
+            destination = swap;
+        }
+        // After an odd number of passes, the sorted keys are in the buffer.
+        if (source != array) {
+            System.arraycopy(source, 0, array, 0, array.length);
+        }
+    }
+
+    /**
+     * Sort the provided array in ascending order using a least significant digit radix sort.
+     * See {@link RadixSort#sort(int[])}, longs just need 8 passes instead of 4.
+     *
+     * @param array array to sort
+     */
+    public static void sort(long[] array) {
+        if (array == null) {
+            return;
+        }
+        sort(array, new long[array.length]);
+    }
+
+    /**
+     * Same as {@link RadixSort#sort(long[])} but using the provided scratch buffer instead of allocating one.
+     *
+     * @param array  array to sort
+     * @param buffer scratch buffer, at least the size of the array. Its content is overwritten.
+     * @throws IllegalArgumentException the buffer is too small for the array.
+     */
+    public static void sort(long[] array, long[] buffer) {
+        if (array == null) {
+            return;
+        }
+        if (buffer.length < array.length) {
+            throw new IllegalArgumentException("Buffer of size " + buffer.length + " is too small to sort "
+                    + array.length + " elements");
+        }
+        if (array.length < 2) {
+            return;
+        }
+        int digits = Long.SIZE / DIGIT_BITS;
+        int[][] counts = new int[digits][RADIX];
+        for (long key : array) {
+            long unsignedKey = key ^ Long.MIN_VALUE;
+            for (int digit = 0; digit < digits; digit++) {
+                counts[digit][(int) (unsignedKey >>> (digit * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+
+        long[] source = array;
+        long[] destination = buffer;
+        for (int digit = 0; digit < digits; digit++) {
+            int shift = digit * DIGIT_BITS;
+            int[] count = counts[digit];
+            // All keys share that digit, this pass would not move anything.
+            if (count[(int) ((source[0] ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK] == array.length) {
+                continue;
+            }
+            // Turn counts into the index where each digit value starts.
+            int next = 0;
+            for (int value = 0; value < RADIX; value++) {
+                int valueCount = count[value];
+                count[value] = next;
+                next += valueCount;
+            }
+            for (int i = 0; i < array.length; i++) {
+                long key = source[i];
+                destination[count[(int) ((key ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = key;
+            }
+            long[] swap = source;
+            source = destination;
+            destination = swap;
+        }
+        // After an odd number of passes, the sorted keys are in the buffer.
+        if (source != array) {
+            System.arraycopy(source, 0, array, 0, array.length);
+        }
+    }
+
+    /**
+     * Sort the provided array in ascending order using an in place most significant digit radix sort, also known as
+     * American flag sort.
+     * <p>
+     * Keys are first distributed in buckets according to their most significant digit. Once the size of each bucket
+     * is counted, keys are permuted in place: each misplaced key is swapped directly into the next free slot of its
+     * bucket, until the key brought back belongs to the current bucket. Each bucket is then sorted recursively on the
+     * next digit. Small buckets are finished with an insertion sort.
+     * <p>
+     * Complexity is O(N * number of digits) like the LSD variant, but only a few counters per digit are needed instead
+     * of a buffer the size of the array. The sort is not stable, which does not matter for primitive keys.
+     *
+     * @param array array to sort
+     */
+    public static void sortInPlace(int[] array) {
+        if (array == null) {
+            return;
+        }
+        int digits = Integer.SIZE / DIGIT_BITS;
+        // One set of counters per digit, a bucket being fully processed before recursion reuse the next level.
+        sortInPlace(array, 0, array.length, digits - 1, new int[digits][RADIX], new int[digits][RADIX]);
+    }
+
+    /**
+     * Recursive step of {@link RadixSort#sortInPlace(int[])} on the range start (included) to end (excluded).
+     *
+     * @param digit     digit to sort on, the most significant being Integer.SIZE / DIGIT_BITS - 1
+     * @param bucketEnd per digit counters, holding the end of each bucket
+     * @param next      per digit counters, holding the next free slot of each bucket
+     */
+    private static void sortInPlace(int[] array, int start, int end, int digit, int[][] bucketEnd, int[][] next) {
+        if (end - start < INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, start, end);
+            return;
+        }
+        int shift = digit * DIGIT_BITS;
+        int[] ends = bucketEnd[digit];
+        int[] nexts = next[digit];
+        Arrays.fill(ends, 0);
+        for (int i = start; i < end; i++) {
+            ends[((array[i] ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+        }
+        // All keys share that digit, go directly to the next one.
+        if (ends[((array[start] ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK] == end - start) {
+            if (digit > 0) {
+                sortInPlace(array, start, end, digit - 1, bucketEnd, next);
+            }
+            return;
+        }
+        int bucketStart = start;
+        for (int value = 0; value < RADIX; value++) {
+            nexts[value] = bucketStart;
+            bucketStart += ends[value];
+            ends[value] = bucketStart;
+        }
+        // Move each key into its bucket, following the cycles of the permutation.
+        for (int value = 0; value < RADIX; value++) {
+            while (nexts[value] < ends[value]) {
+                int key = array[nexts[value]];
+                int keyValue = ((key ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK;
+                while (keyValue != value) {
+                    int displaced = array[nexts[keyValue]];
+                    array[nexts[keyValue]++] = key;
+                    key = displaced;
+                    keyValue = ((key ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK;
+                }
+                array[nexts[value]++] = key;
+            }
+        }
+        if (digit > 0) {
+            bucketStart = start;
+            for (int value = 0; value < RADIX; value++) {
+                int bucketStop = ends[value];
+                if (bucketStop - bucketStart > 1) {
+                    sortInPlace(array, bucketStart, bucketStop, digit - 1, bucketEnd, next);
+                }
+                bucketStart = bucketStop;
+            }
+        }
+    }
+
+    /**
+     * Sort the provided array in ascending order using an in place most significant digit radix sort.
+     * See {@link RadixSort#sortInPlace(int[])}, longs just have 8 digits instead of 4.
+     *
+     * @param array array to sort
+     */
+    public static void sortInPlace(long[] array) {
+        if (array == null) {
+            return;
+        }
+        int digits = Long.SIZE / DIGIT_BITS;
+        sortInPlace(array, 0, array.length, digits - 1, new int[digits][RADIX], new int[digits][RADIX]);
+    }
+
+    /**
+     * Recursive step of {@link RadixSort#sortInPlace(long[])} on the range start (included) to end (excluded).
+     * See {@link RadixSort#sortInPlace(int[], int, int, int, int[][], int[][])}.
+     */
+    private static void sortInPlace(long[] array, int start, int end, int digit, int[][] bucketEnd, int[][] next) {
+        if (end - start < INSERTION_SORT_THRESHOLD) {
+            insertionSort(array, start, end);
+            return;
+        }
+        int shift = digit * DIGIT_BITS;
+        int[] ends = bucketEnd[digit];
+        int[] nexts = next[digit];
+        Arrays.fill(ends, 0);
+        for (int i = start; i < end; i++) {
+            ends[(int) ((array[i] ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+        }
+        // All keys share that digit, go directly to the next one.
+        if (ends[(int) ((array[start] ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK] == end - start) {
+            if (digit > 0) {
+                sortInPlace(array, start, end, digit - 1, bucketEnd, next);
+            }
+            return;
+        }
+        int bucketStart = start;
+        for (int value = 0; value < RADIX; value++) {
+            nexts[value] = bucketStart;
+            bucketStart += ends[value];
+            ends[value] = bucketStart;
+        }
+        // Move each key into its bucket, following the cycles of the permutation.
+        for (int value = 0; value < RADIX; value++) {
+            while (nexts[value] < ends[value]) {
+                long key = array[nexts[value]];
+                int keyValue = (int) ((key ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK;
+                while (keyValue != value) {
+                    long displaced = array[nexts[keyValue]];
+                    array[nexts[keyValue]++] = key;
+                    key = displaced;
+                    keyValue = (int) ((key ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK;
+                }
+                array[nexts[value]++] = key;
+            }
+        }
+        if (digit > 0) {
+            bucketStart = start;
+            for (int value = 0; value < RADIX; value++) {
+                int bucketStop = ends[value];
+                if (bucketStop - bucketStart > 1) {
+                    sortInPlace(array, bucketStart, bucketStop, digit - 1, bucketEnd, next);
+                }
+                bucketStart = bucketStop;
+            }
+        }
+    }
+
+    /**
+     * Insertion sort of the range start (included) to end (excluded), for the small buckets.
+     */
+    private static void insertionSort(int[] array, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            int value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+
+    /**
+     * Insertion sort of the range start (included) to end (excluded), for the small buckets.
+     */
+    private static void insertionSort(long[] array, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            long value = array[i];
+            int j = i;
+            while (j > start && array[j - 1] > value) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = value;
+        }
+    }
+}
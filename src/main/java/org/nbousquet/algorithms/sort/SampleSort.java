@@ -0,0 +1,276 @@
+package org.nbousquet.algorithms.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parallel sample sort, for arrays large enough to keep tens of cores busy.
+ * <p>
+ * A parallel quick sort only has 2 tasks after its first partition, 4 after the second..., so most cores wait for
+ * the first levels. A sample sort splits the array in up to {@link SampleSort#MAX_BUCKETS} buckets in a single
+ * distribution step done by all the threads, then sorts the buckets independently:
+ * <ol>
+ * <li>Splitters are picked from a sorted random sample of the array, so that buckets get about the same number of
+ * elements whatever the distribution of the values.</li>
+ * <li>The array is split in blocks, one task per block counts how many of its elements go in each bucket.</li>
+ * <li>With these counts, each block knows where its elements go in the buffer, like in {@link ParallelPartition}, and
+ * copies them there.</li>
+ * <li>One task per bucket copies the bucket back into the array and sorts it with
+ * {@link QuickSort#introSort(int[])}.</li>
+ * </ol>
+ * The bucket of an element is found without branches, by going down a binary search tree of the splitters stored
+ * level by level in an array. When the sample has duplicated splitters, a heavy value, each splitter also gets a
+ * bucket of the elements equal to it, which is sorted by construction.
+ * <p>
+ * Memory is bounded: a buffer the size of the array, which can be provided, and the counts of each bucket for each
+ * block, about 4 blocks per thread. Buckets are computed twice, when counting and when copying, rather than stored
+ * for each element.
+ */
+public class SampleSort {
+
+    /**
+     * Size under which the sample sort is not worth it: an array smaller than twice that size is sorted sequentially,
+     * and the buckets are about that size or larger.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+    /**
+     * Largest number of buckets, not counting the buckets of the elements equal to a splitter. The splitter tree then
+     * fits in 4KB, and the counts of a block in 8KB.
+     */
+    static final int MAX_BUCKETS = 1024;
+    /**
+     * Number of sampled elements per bucket. The more, the closer the buckets are to the same size.
+     */
+    static final int OVERSAMPLING = 16;
+
+    /**
+     * Sort the provided array in ascending order using a parallel sample sort on the common fork/join pool.
+     * <p>
+     * See {@link SampleSort#parallelSort(int[], ForkJoinPool, int)}.
+     *
+     * @param array array to sort
+     */
+    public static void parallelSort(int[] array) {
+        parallelSort(array, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Sort the provided array in ascending order using a parallel sample sort, see {@link SampleSort}.
+     * <p>
+     * A buffer the size of the array is allocated, see {@link SampleSort#parallelSort(int[], int[], ForkJoinPool, int)}
+     * to provide it and reuse it across calls.
+     *
+     * @param array     array to sort
+     * @param pool      pool running the sort tasks
+     * @param threshold size under which the work is done sequentially, the expected size of the buckets. Must be at
+     *                  least 1.
+     * @throws IllegalArgumentException threshold is lower than 1.
+     */
+    public static void parallelSort(int[] array, ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1: " + threshold);
+        }
+        if (array == null || array.length < 2) {
+            return;
+        }
+        int[] buffer = array.length / threshold >= 2 ? new int[array.length] : null;
+        sort(array, buffer, pool, threshold);
+    }
+
+    /**
+     * Same as {@link SampleSort#parallelSort(int[], ForkJoinPool, int)} but using the provided scratch buffer instead
+     * of allocating one.
+     *
+     * @param array     array to sort
+     * @param buffer    scratch buffer, at least the size of the array. Its content is overwritten.
+     * @param pool      pool running the sort tasks
+     * @param threshold size under which the work is done sequentially, the expected size of the buckets. Must be at
+     *                  least 1.
+     * @throws IllegalArgumentException threshold is lower than 1 or the buffer is too small for the array.
+     */
+    public static void parallelSort(int[] array, int[] buffer, ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1: " + threshold);
+        }
+        if (array == null) {
+            return;
+        }
+        if (buffer.length < array.length) {
+            throw new IllegalArgumentException("Buffer of size " + buffer.length + " is too small to sort "
+                    + array.length + " elements");
+        }
+        if (array.length < 2) {
+            return;
+        }
+        sort(array, buffer, pool, threshold);
+    }
+
+    private static void sort(int[] array, int[] buffer, ForkJoinPool pool, int threshold) {
+        int length = array.length;
+        if (length / threshold < 2) {
+            QuickSort.introSort(array);
+            return;
+        }
+        int buckets = Math.min(MAX_BUCKETS, Integer.highestOneBit(length / threshold));
+        int blockSize = ParallelPartition.blockSize(length, pool.getParallelism(), threshold);
+        pool.invoke(ForkJoinTask.adapt(() -> distributeAndSort(array, buffer, new Classifier(array, buckets),
+                blockSize)));
+    }
+
+    /**
+     * Distribute the elements of the array in their bucket then sort each bucket, in parallel. Must be called from
+     * within a fork/join pool.
+     *
+     * @param array      array to sort
+     * @param buffer     scratch buffer, at least the size of the array
+     * @param classifier buckets of the elements
+     * @param blockSize  number of elements distributed by each task
+     */
+    private static void distributeAndSort(int[] array, int[] buffer, Classifier classifier, int blockSize) {
+        int length = array.length;
+        int blocks = (int) (((long) length + blockSize - 1) / blockSize);
+        int buckets = classifier.buckets();
+        int[][] counts = new int[blocks][buckets];
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(Math.max(blocks, buckets));
+        for (int block = 0; block < blocks; block++) {
+            int[] count = counts[block];
+            int blockStart = block * blockSize;
+            int blockEnd = Math.min(length, blockStart + blockSize);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                for (int i = blockStart; i < blockEnd; i++) {
+                    count[classifier.bucket(array[i])]++;
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        // Turn counts into the index where each block writes the elements of each bucket: the elements of a bucket
+        // from block i are written after the ones of blocks 0 to i-1, all of them after the previous buckets.
+        int[] bucketStarts = new int[buckets + 1];
+        int next = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            bucketStarts[bucket] = next;
+            for (int block = 0; block < blocks; block++) {
+                int count = counts[block][bucket];
+                counts[block][bucket] = next;
+                next += count;
+            }
+        }
+        bucketStarts[buckets] = length;
+
+        tasks.clear();
+        for (int block = 0; block < blocks; block++) {
+            int[] nextIndex = counts[block];
+            int blockStart = block * blockSize;
+            int blockEnd = Math.min(length, blockStart + blockSize);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                for (int i = blockStart; i < blockEnd; i++) {
+                    int value = array[i];
+                    buffer[nextIndex[classifier.bucket(value)]++] = value;
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        tasks.clear();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int bucketStart = bucketStarts[bucket];
+            int bucketLength = bucketStarts[bucket + 1] - bucketStart;
+            if (bucketLength == 0) {
+                continue;
+            }
+            boolean sorted = classifier.isEqualBucket(bucket);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                System.arraycopy(buffer, bucketStart, array, bucketStart, bucketLength);
+                if (!sorted) {
+                    QuickSort.introSort(array, bucketStart, bucketStart + bucketLength - 1);
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Splitters of the buckets, picked from a random sample of the array.
+     * <p>
+     * The splitters s0 &lt;= s1 &lt;= ... are stored as a complete binary search tree in an array: the root at index
+     * 1 and the children of node i at 2i and 2i + 1. The bucket of a value is the number of splitters lower than it,
+     * found by going down the tree, right if the value is greater than the node and left otherwise. Each level is a
+     * comparison turned into 0 or 1, so there is no branch to mispredict.
+     * <p>
+     * If the same splitter is picked twice, that value makes up a large share of the array. Its elements would all
+     * go in the same bucket, too large to be sorted in a balanced way, so the value then gets its own bucket. Bucket
+     * b then becomes 2 buckets: 2b for the values between s(b-1) and s(b), and 2b + 1 for the values equal to s(b).
+     */
+    private static class Classifier {
+        private final int[] tree;
+        private final int[] splitters;
+        private final int levels;
+        private final boolean equalBuckets;
+
+        /**
+         * @param array   array to sort
+         * @param buckets number of buckets, not counting the buckets of values equal to a splitter. A power of 2.
+         */
+        Classifier(int[] array, int buckets) {
+            int[] sample = new int[OVERSAMPLING * buckets - 1];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = array[random.nextInt(array.length)];
+            }
+            QuickSort.introSort(sample);
+
+            // One more slot for the equality test of the values greater than every splitter: a copy of the largest
+            // splitter, that such a value can't be equal to.
+            splitters = new int[buckets];
+            boolean duplicates = false;
+            for (int i = 0; i < buckets - 1; i++) {
+                splitters[i] = sample[(i + 1) * OVERSAMPLING - 1];
+                duplicates |= i > 0 && splitters[i] == splitters[i - 1];
+            }
+            splitters[buckets - 1] = splitters[buckets - 2];
+            equalBuckets = duplicates;
+            levels = Integer.numberOfTrailingZeros(buckets);
+            tree = new int[buckets];
+            buildTree(1, 0);
+        }
+
+        /**
+         * Fill the subtree rooted at the provided node with the splitters from the provided index, in order.
+         *
+         * @return index of the next splitter to put in the tree
+         */
+        private int buildTree(int node, int splitter) {
+            if (node >= tree.length) {
+                return splitter;
+            }
+            splitter = buildTree(2 * node, splitter);
+            tree[node] = splitters[splitter++];
+            return buildTree(2 * node + 1, splitter);
+        }
+
+        int buckets() {
+            return equalBuckets ? 2 * tree.length : tree.length;
+        }
+
+        boolean isEqualBucket(int bucket) {
+            return equalBuckets && (bucket & 1) == 1;
+        }
+
+        int bucket(int value) {
+            int node = 1;
+            for (int level = 0; level < levels; level++) {
+                node = 2 * node + (value > tree[node] ? 1 : 0);
+            }
+            int bucket = node - tree.length;
+            if (equalBuckets) {
+                bucket = 2 * bucket + (value == splitters[bucket] ? 1 : 0);
+            }
+            return bucket;
+        }
+    }
+}
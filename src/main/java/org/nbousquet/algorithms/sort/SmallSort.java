@@ -0,0 +1,902 @@
+package org.nbousquet.algorithms.sort;
+
+/**
+ * Sort kernel for tiny ranges, used standalone or as the base case of the divide & conquer sorts.
+ * <p>
+ * Up to 16 elements, the range is sorted with a sorting network: a fixed sequence of compare-exchange operations
+ * between pairs of positions, that sorts any input. The networks used are the smallest known ones (at most one
+ * comparator above the optimum for 11 to 13 elements). Elements are loaded in local variables so the JIT can keep them
+ * in registers, and each compare-exchange is a min and a max, which compile to conditional moves: no branch is
+ * mispredicted whatever the data. The networks are unrolled by hand, one method per size, as a table driven loop is
+ * slower than a plain insertion sort on such small ranges.
+ * <p>
+ * Above 16 elements, a binary insertion sort is used: each element is inserted in the sorted beginning of the range,
+ * its place being found with a binary search, greater elements being shifted with a single array copy.
+ */
+public class SmallSort {
+
+    /**
+     * Largest range sorted with a sorting network.
+     */
+    public static final int MAX_NETWORK_SIZE = 16;
+
+    /**
+     * Number of comparators of the network of each size, index being the number of elements.
+     */
+    private static final int[] NETWORK_COMPARATORS = {0, 0, 1, 3, 5, 9, 12, 16, 19, 25, 29, 36, 40, 46, 51, 56, 60};
+
+    /**
+     * Sort the provided array in ascending order. Meant for tiny arrays, see {@link SmallSort}.
+     *
+     * @param array array to sort
+     */
+    public static void sort(int[] array) {
+        if (array == null) {
+            return;
+        }
+        sort(array, 0, array.length - 1);
+    }
+
+    /**
+     * Sort the provided array but within the index range (start & end included).
+     *
+     * @param array array to sort
+     * @param start start of range (included)
+     * @param end   end of range (included)
+     */
+    public static void sort(int[] array, int start, int end) {
+        sort(array, start, end, start + 1);
+    }
+
+    /**
+     * Sort the provided array within the index range (start & end included) knowing it is already sorted up to
+     * firstUnsorted (excluded). The sorted prefix is only used by the binary insertion sort, networks sort everything.
+     *
+     * @param array         array to sort
+     * @param start         start of range (included)
+     * @param end           end of range (included)
+     * @param firstUnsorted first index of the range that may be out of order
+     */
+    static void sort(int[] array, int start, int end, int firstUnsorted) {
+        switch (end - start + 1) {
+            case 0:
+            case 1:
+                // An empty range or with a single element is already sorted.
+                return;
+            case 2:
+                sort2(array, start);
+                return;
+            case 3:
+                sort3(array, start);
+                return;
+            case 4:
+                sort4(array, start);
+                return;
+            case 5:
+                sort5(array, start);
+                return;
+            case 6:
+                sort6(array, start);
+                return;
+            case 7:
+                sort7(array, start);
+                return;
+            case 8:
+                sort8(array, start);
+                return;
+            case 9:
+                sort9(array, start);
+                return;
+            case 10:
+                sort10(array, start);
+                return;
+            case 11:
+                sort11(array, start);
+                return;
+            case 12:
+                sort12(array, start);
+                return;
+            case 13:
+                sort13(array, start);
+                return;
+            case 14:
+                sort14(array, start);
+                return;
+            case 15:
+                sort15(array, start);
+                return;
+            case 16:
+                sort16(array, start);
+                return;
+            default:
+                binaryInsertionSort(array, start, end, Math.max(firstUnsorted, start + 1));
+        }
+    }
+
+    /**
+     * Return the number of compare-exchange operations of the network sorting the provided number of elements, the
+     * same whatever the data.
+     *
+     * @param length number of elements, at most MAX_NETWORK_SIZE
+     * @return number of comparators of the network
+     */
+    static int comparators(int length) {
+        return NETWORK_COMPARATORS[length];
+    }
+
+    /**
+     * Sort the range start to end (both included) knowing it is already sorted up to firstUnsorted (excluded).
+     * Each element is inserted in the sorted part, its place being found with a binary search.
+     */
+    private static void binaryInsertionSort(int[] array, int start, int end, int firstUnsorted) {
+        for (int i = firstUnsorted; i <= end; i++) {
+            int value = array[i];
+            // Insert after equal elements to keep the sort stable.
+            int from = start;
+            int to = i;
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (array[mid] <= value) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            System.arraycopy(array, from, array, from + 1, i - from);
+            array[from] = value;
+        }
+    }
+
+    // 2 elements, 1 comparator.
+    private static void sort2(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+    }
+
+    // 3 elements, 3 comparators.
+    private static void sort3(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+    }
+
+    // 4 elements, 5 comparators.
+    private static void sort4(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+    }
+
+    // 5 elements, 9 comparators.
+    private static void sort5(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int t;
+        t = Math.min(v0, v3); v3 = Math.max(v0, v3); v0 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+    }
+
+    // 6 elements, 12 comparators.
+    private static void sort6(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int t;
+        t = Math.min(v0, v5); v5 = Math.max(v0, v5); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v0, v3); v3 = Math.max(v0, v3); v0 = t;
+        t = Math.min(v2, v5); v5 = Math.max(v2, v5); v2 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+    }
+
+    // 7 elements, 16 comparators.
+    private static void sort7(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int t;
+        t = Math.min(v0, v6); v6 = Math.max(v0, v6); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v5); v5 = Math.max(v2, v5); v2 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+    }
+
+    // 8 elements, 19 comparators.
+    private static void sort8(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v0, v4); v4 = Math.max(v0, v4); v0 = t;
+        t = Math.min(v1, v5); v5 = Math.max(v1, v5); v1 = t;
+        t = Math.min(v2, v6); v6 = Math.max(v2, v6); v2 = t;
+        t = Math.min(v3, v7); v7 = Math.max(v3, v7); v3 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+    }
+
+    // 9 elements, 25 comparators.
+    private static void sort9(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int v8 = array[start + 8];
+        int t;
+        t = Math.min(v0, v3); v3 = Math.max(v0, v3); v0 = t;
+        t = Math.min(v1, v7); v7 = Math.max(v1, v7); v1 = t;
+        t = Math.min(v2, v5); v5 = Math.max(v2, v5); v2 = t;
+        t = Math.min(v4, v8); v8 = Math.max(v4, v8); v4 = t;
+        t = Math.min(v0, v7); v7 = Math.max(v0, v7); v0 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v8); v8 = Math.max(v3, v8); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v7, v8); v8 = Math.max(v7, v8); v7 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+        array[start + 8] = v8;
+    }
+
+    // 10 elements, 29 comparators.
+    private static void sort10(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int v8 = array[start + 8];
+        int v9 = array[start + 9];
+        int t;
+        t = Math.min(v0, v8); v8 = Math.max(v0, v8); v0 = t;
+        t = Math.min(v1, v9); v9 = Math.max(v1, v9); v1 = t;
+        t = Math.min(v2, v7); v7 = Math.max(v2, v7); v2 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v5, v8); v8 = Math.max(v5, v8); v5 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v0, v3); v3 = Math.max(v0, v3); v0 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v6, v9); v9 = Math.max(v6, v9); v6 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        t = Math.min(v1, v5); v5 = Math.max(v1, v5); v1 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v8); v8 = Math.max(v4, v8); v4 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v7, v8); v8 = Math.max(v7, v8); v7 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+        array[start + 8] = v8;
+        array[start + 9] = v9;
+    }
+
+    // 11 elements, 36 comparators.
+    private static void sort11(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int v8 = array[start + 8];
+        int v9 = array[start + 9];
+        int v10 = array[start + 10];
+        int t;
+        t = Math.min(v4, v8); v8 = Math.max(v4, v8); v4 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v0, v5); v5 = Math.max(v0, v5); v0 = t;
+        t = Math.min(v1, v7); v7 = Math.max(v1, v7); v1 = t;
+        t = Math.min(v2, v9); v9 = Math.max(v2, v9); v2 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v4, v10); v10 = Math.max(v4, v10); v4 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v8, v10); v10 = Math.max(v8, v10); v8 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v2, v6); v6 = Math.max(v2, v6); v2 = t;
+        t = Math.min(v5, v8); v8 = Math.max(v5, v8); v5 = t;
+        t = Math.min(v7, v10); v10 = Math.max(v7, v10); v7 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v8); v8 = Math.max(v7, v8); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+        array[start + 8] = v8;
+        array[start + 9] = v9;
+        array[start + 10] = v10;
+    }
+
+    // 12 elements, 40 comparators.
+    private static void sort12(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int v8 = array[start + 8];
+        int v9 = array[start + 9];
+        int v10 = array[start + 10];
+        int v11 = array[start + 11];
+        int t;
+        t = Math.min(v4, v8); v8 = Math.max(v4, v8); v4 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v11); v11 = Math.max(v7, v11); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v0, v5); v5 = Math.max(v0, v5); v0 = t;
+        t = Math.min(v1, v7); v7 = Math.max(v1, v7); v1 = t;
+        t = Math.min(v2, v9); v9 = Math.max(v2, v9); v2 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v11); v11 = Math.max(v10, v11); v10 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v4, v10); v10 = Math.max(v4, v10); v4 = t;
+        t = Math.min(v5, v11); v11 = Math.max(v5, v11); v5 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v8, v10); v10 = Math.max(v8, v10); v8 = t;
+        t = Math.min(v9, v11); v11 = Math.max(v9, v11); v9 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v2, v6); v6 = Math.max(v2, v6); v2 = t;
+        t = Math.min(v5, v8); v8 = Math.max(v5, v8); v5 = t;
+        t = Math.min(v7, v10); v10 = Math.max(v7, v10); v7 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v8); v8 = Math.max(v7, v8); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+        array[start + 8] = v8;
+        array[start + 9] = v9;
+        array[start + 10] = v10;
+        array[start + 11] = v11;
+    }
+
+    // 13 elements, 46 comparators.
+    private static void sort13(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int v8 = array[start + 8];
+        int v9 = array[start + 9];
+        int v10 = array[start + 10];
+        int v11 = array[start + 11];
+        int v12 = array[start + 12];
+        int t;
+        t = Math.min(v1, v12); v12 = Math.max(v1, v12); v1 = t;
+        t = Math.min(v4, v8); v8 = Math.max(v4, v8); v4 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v11); v11 = Math.max(v7, v11); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v0, v5); v5 = Math.max(v0, v5); v0 = t;
+        t = Math.min(v1, v7); v7 = Math.max(v1, v7); v1 = t;
+        t = Math.min(v2, v9); v9 = Math.max(v2, v9); v2 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v11, v12); v12 = Math.max(v11, v12); v11 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v11); v11 = Math.max(v10, v11); v10 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v4, v10); v10 = Math.max(v4, v10); v4 = t;
+        t = Math.min(v5, v11); v11 = Math.max(v5, v11); v5 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v12); v12 = Math.max(v3, v12); v3 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v8, v10); v10 = Math.max(v8, v10); v8 = t;
+        t = Math.min(v9, v11); v11 = Math.max(v9, v11); v9 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v2, v6); v6 = Math.max(v2, v6); v2 = t;
+        t = Math.min(v5, v8); v8 = Math.max(v5, v8); v5 = t;
+        t = Math.min(v7, v10); v10 = Math.max(v7, v10); v7 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v9, v12); v12 = Math.max(v9, v12); v9 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v12); v12 = Math.max(v10, v12); v10 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v8); v8 = Math.max(v7, v8); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v11, v12); v12 = Math.max(v11, v12); v11 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+        array[start + 8] = v8;
+        array[start + 9] = v9;
+        array[start + 10] = v10;
+        array[start + 11] = v11;
+        array[start + 12] = v12;
+    }
+
+    // 14 elements, 51 comparators.
+    private static void sort14(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int v8 = array[start + 8];
+        int v9 = array[start + 9];
+        int v10 = array[start + 10];
+        int v11 = array[start + 11];
+        int v12 = array[start + 12];
+        int v13 = array[start + 13];
+        int t;
+        t = Math.min(v0, v13); v13 = Math.max(v0, v13); v0 = t;
+        t = Math.min(v1, v12); v12 = Math.max(v1, v12); v1 = t;
+        t = Math.min(v4, v8); v8 = Math.max(v4, v8); v4 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v11); v11 = Math.max(v7, v11); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v0, v5); v5 = Math.max(v0, v5); v0 = t;
+        t = Math.min(v1, v7); v7 = Math.max(v1, v7); v1 = t;
+        t = Math.min(v2, v9); v9 = Math.max(v2, v9); v2 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v6, v13); v13 = Math.max(v6, v13); v6 = t;
+        t = Math.min(v11, v12); v12 = Math.max(v11, v12); v11 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v11); v11 = Math.max(v10, v11); v10 = t;
+        t = Math.min(v12, v13); v13 = Math.max(v12, v13); v12 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v4, v10); v10 = Math.max(v4, v10); v4 = t;
+        t = Math.min(v5, v11); v11 = Math.max(v5, v11); v5 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v12); v12 = Math.max(v3, v12); v3 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v8, v10); v10 = Math.max(v8, v10); v8 = t;
+        t = Math.min(v9, v11); v11 = Math.max(v9, v11); v9 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v2, v6); v6 = Math.max(v2, v6); v2 = t;
+        t = Math.min(v5, v8); v8 = Math.max(v5, v8); v5 = t;
+        t = Math.min(v7, v10); v10 = Math.max(v7, v10); v7 = t;
+        t = Math.min(v9, v13); v13 = Math.max(v9, v13); v9 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v9, v12); v12 = Math.max(v9, v12); v9 = t;
+        t = Math.min(v11, v13); v13 = Math.max(v11, v13); v11 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v12); v12 = Math.max(v10, v12); v10 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v8); v8 = Math.max(v7, v8); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v11, v12); v12 = Math.max(v11, v12); v11 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+        array[start + 8] = v8;
+        array[start + 9] = v9;
+        array[start + 10] = v10;
+        array[start + 11] = v11;
+        array[start + 12] = v12;
+        array[start + 13] = v13;
+    }
+
+    // 15 elements, 56 comparators.
+    private static void sort15(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int v8 = array[start + 8];
+        int v9 = array[start + 9];
+        int v10 = array[start + 10];
+        int v11 = array[start + 11];
+        int v12 = array[start + 12];
+        int v13 = array[start + 13];
+        int v14 = array[start + 14];
+        int t;
+        t = Math.min(v0, v13); v13 = Math.max(v0, v13); v0 = t;
+        t = Math.min(v1, v12); v12 = Math.max(v1, v12); v1 = t;
+        t = Math.min(v3, v14); v14 = Math.max(v3, v14); v3 = t;
+        t = Math.min(v4, v8); v8 = Math.max(v4, v8); v4 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v11); v11 = Math.max(v7, v11); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v0, v5); v5 = Math.max(v0, v5); v0 = t;
+        t = Math.min(v1, v7); v7 = Math.max(v1, v7); v1 = t;
+        t = Math.min(v2, v9); v9 = Math.max(v2, v9); v2 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v6, v13); v13 = Math.max(v6, v13); v6 = t;
+        t = Math.min(v8, v14); v14 = Math.max(v8, v14); v8 = t;
+        t = Math.min(v11, v12); v12 = Math.max(v11, v12); v11 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v11); v11 = Math.max(v10, v11); v10 = t;
+        t = Math.min(v12, v13); v13 = Math.max(v12, v13); v12 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v4, v10); v10 = Math.max(v4, v10); v4 = t;
+        t = Math.min(v5, v11); v11 = Math.max(v5, v11); v5 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        t = Math.min(v12, v14); v14 = Math.max(v12, v14); v12 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v12); v12 = Math.max(v3, v12); v3 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v8, v10); v10 = Math.max(v8, v10); v8 = t;
+        t = Math.min(v9, v11); v11 = Math.max(v9, v11); v9 = t;
+        t = Math.min(v13, v14); v14 = Math.max(v13, v14); v13 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v2, v6); v6 = Math.max(v2, v6); v2 = t;
+        t = Math.min(v5, v8); v8 = Math.max(v5, v8); v5 = t;
+        t = Math.min(v7, v10); v10 = Math.max(v7, v10); v7 = t;
+        t = Math.min(v9, v13); v13 = Math.max(v9, v13); v9 = t;
+        t = Math.min(v11, v14); v14 = Math.max(v11, v14); v11 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v9, v12); v12 = Math.max(v9, v12); v9 = t;
+        t = Math.min(v11, v13); v13 = Math.max(v11, v13); v11 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v12); v12 = Math.max(v10, v12); v10 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v8); v8 = Math.max(v7, v8); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v11, v12); v12 = Math.max(v11, v12); v11 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+        array[start + 8] = v8;
+        array[start + 9] = v9;
+        array[start + 10] = v10;
+        array[start + 11] = v11;
+        array[start + 12] = v12;
+        array[start + 13] = v13;
+        array[start + 14] = v14;
+    }
+
+    // 16 elements, 60 comparators.
+    private static void sort16(int[] array, int start) {
+        int v0 = array[start];
+        int v1 = array[start + 1];
+        int v2 = array[start + 2];
+        int v3 = array[start + 3];
+        int v4 = array[start + 4];
+        int v5 = array[start + 5];
+        int v6 = array[start + 6];
+        int v7 = array[start + 7];
+        int v8 = array[start + 8];
+        int v9 = array[start + 9];
+        int v10 = array[start + 10];
+        int v11 = array[start + 11];
+        int v12 = array[start + 12];
+        int v13 = array[start + 13];
+        int v14 = array[start + 14];
+        int v15 = array[start + 15];
+        int t;
+        t = Math.min(v0, v13); v13 = Math.max(v0, v13); v0 = t;
+        t = Math.min(v1, v12); v12 = Math.max(v1, v12); v1 = t;
+        t = Math.min(v2, v15); v15 = Math.max(v2, v15); v2 = t;
+        t = Math.min(v3, v14); v14 = Math.max(v3, v14); v3 = t;
+        t = Math.min(v4, v8); v8 = Math.max(v4, v8); v4 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v11); v11 = Math.max(v7, v11); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v0, v5); v5 = Math.max(v0, v5); v0 = t;
+        t = Math.min(v1, v7); v7 = Math.max(v1, v7); v1 = t;
+        t = Math.min(v2, v9); v9 = Math.max(v2, v9); v2 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v6, v13); v13 = Math.max(v6, v13); v6 = t;
+        t = Math.min(v8, v14); v14 = Math.max(v8, v14); v8 = t;
+        t = Math.min(v10, v15); v15 = Math.max(v10, v15); v10 = t;
+        t = Math.min(v11, v12); v12 = Math.max(v11, v12); v11 = t;
+        t = Math.min(v0, v1); v1 = Math.max(v0, v1); v0 = t;
+        t = Math.min(v2, v3); v3 = Math.max(v2, v3); v2 = t;
+        t = Math.min(v4, v5); v5 = Math.max(v4, v5); v4 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v11); v11 = Math.max(v10, v11); v10 = t;
+        t = Math.min(v12, v13); v13 = Math.max(v12, v13); v12 = t;
+        t = Math.min(v14, v15); v15 = Math.max(v14, v15); v14 = t;
+        t = Math.min(v0, v2); v2 = Math.max(v0, v2); v0 = t;
+        t = Math.min(v1, v3); v3 = Math.max(v1, v3); v1 = t;
+        t = Math.min(v4, v10); v10 = Math.max(v4, v10); v4 = t;
+        t = Math.min(v5, v11); v11 = Math.max(v5, v11); v5 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        t = Math.min(v12, v14); v14 = Math.max(v12, v14); v12 = t;
+        t = Math.min(v13, v15); v15 = Math.max(v13, v15); v13 = t;
+        t = Math.min(v1, v2); v2 = Math.max(v1, v2); v1 = t;
+        t = Math.min(v3, v12); v12 = Math.max(v3, v12); v3 = t;
+        t = Math.min(v4, v6); v6 = Math.max(v4, v6); v4 = t;
+        t = Math.min(v5, v7); v7 = Math.max(v5, v7); v5 = t;
+        t = Math.min(v8, v10); v10 = Math.max(v8, v10); v8 = t;
+        t = Math.min(v9, v11); v11 = Math.max(v9, v11); v9 = t;
+        t = Math.min(v13, v14); v14 = Math.max(v13, v14); v13 = t;
+        t = Math.min(v1, v4); v4 = Math.max(v1, v4); v1 = t;
+        t = Math.min(v2, v6); v6 = Math.max(v2, v6); v2 = t;
+        t = Math.min(v5, v8); v8 = Math.max(v5, v8); v5 = t;
+        t = Math.min(v7, v10); v10 = Math.max(v7, v10); v7 = t;
+        t = Math.min(v9, v13); v13 = Math.max(v9, v13); v9 = t;
+        t = Math.min(v11, v14); v14 = Math.max(v11, v14); v11 = t;
+        t = Math.min(v2, v4); v4 = Math.max(v2, v4); v2 = t;
+        t = Math.min(v3, v6); v6 = Math.max(v3, v6); v3 = t;
+        t = Math.min(v9, v12); v12 = Math.max(v9, v12); v9 = t;
+        t = Math.min(v11, v13); v13 = Math.max(v11, v13); v11 = t;
+        t = Math.min(v3, v5); v5 = Math.max(v3, v5); v3 = t;
+        t = Math.min(v6, v8); v8 = Math.max(v6, v8); v6 = t;
+        t = Math.min(v7, v9); v9 = Math.max(v7, v9); v7 = t;
+        t = Math.min(v10, v12); v12 = Math.max(v10, v12); v10 = t;
+        t = Math.min(v3, v4); v4 = Math.max(v3, v4); v3 = t;
+        t = Math.min(v5, v6); v6 = Math.max(v5, v6); v5 = t;
+        t = Math.min(v7, v8); v8 = Math.max(v7, v8); v7 = t;
+        t = Math.min(v9, v10); v10 = Math.max(v9, v10); v9 = t;
+        t = Math.min(v11, v12); v12 = Math.max(v11, v12); v11 = t;
+        t = Math.min(v6, v7); v7 = Math.max(v6, v7); v6 = t;
+        t = Math.min(v8, v9); v9 = Math.max(v8, v9); v8 = t;
+        array[start] = v0;
+        array[start + 1] = v1;
+        array[start + 2] = v2;
+        array[start + 3] = v3;
+        array[start + 4] = v4;
+        array[start + 5] = v5;
+        array[start + 6] = v6;
+        array[start + 7] = v7;
+        array[start + 8] = v8;
+        array[start + 9] = v9;
+        array[start + 10] = v10;
+        array[start + 11] = v11;
+        array[start + 12] = v12;
+        array[start + 13] = v13;
+        array[start + 14] = v14;
+        array[start + 15] = v15;
+    }
+}
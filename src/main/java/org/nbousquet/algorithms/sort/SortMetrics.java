@@ -0,0 +1,67 @@
+package org.nbousquet.algorithms.sort;
+
+import java.util.Arrays;
+
+/**
+ * Metrics of one sort, collected by {@link InstrumentedSort}, to understand why a sort is slow: too many comparisons,
+ * excessive swaps, degenerate partitions...
+ */
+public class SortMetrics {
+    /**
+     * Number of buckets of the partition balance histogram.
+     */
+    public static final int BALANCE_BUCKETS = 10;
+
+    /* Algorithm that sorted the array */
+    public InstrumentedSort.Algorithm algorithm;
+    /* Number of elements sorted */
+    public int length;
+    /* Number of comparisons between 2 elements of the array */
+    public long comparisons;
+    /* Number of swaps of 2 elements, the equivalent of Utils.swap calls */
+    public long swaps;
+    /* Number of writes in the array, swaps included (2 writes each) */
+    public long writes;
+    /* Deepest nesting of the recursive calls, the first call being at depth 1 */
+    public int maxRecursionDepth;
+    /*
+     * Histogram of the balance of the partitions: the smaller side of each partition divided by both sides, from 0
+     * (degenerate partition, all elements on the same side) to 0.5 (perfect split), cut in BALANCE_BUCKETS buckets.
+     */
+    public final long[] partitionBalance = new long[BALANCE_BUCKETS];
+    /* Number of runs found by the run detection of the fusion sort, the fewer the more sorted the input was */
+    public long runs;
+    /* Number of elements of the fusion sort merges left in place by galloping rather than merged */
+    public long gallopSkipped;
+    /* Wall time of the sort, instrumentation included, in nanoseconds */
+    public long nanos;
+
+    /**
+     * Record a partition in the balance histogram.
+     *
+     * @param left  number of elements on the left of the pivot
+     * @param right number of elements on the right of the pivot
+     */
+    void partitioned(int left, int right) {
+        if (left + right == 0) {
+            return;
+        }
+        double balance = (double) Math.min(left, right) / (left + right);
+        partitionBalance[Math.min(BALANCE_BUCKETS - 1, (int) (balance * 2 * BALANCE_BUCKETS))]++;
+    }
+
+    /**
+     * @return total number of partitions recorded in the balance histogram.
+     */
+    public long partitions() {
+        return Arrays.stream(partitionBalance).sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s of %d elements in %d ns: %d comparisons, %d swaps, %d writes, max depth %d, "
+                        + "partition balance %s, %d runs, %d skipped by galloping", algorithm, length, nanos,
+                comparisons, swaps, writes, maxRecursionDepth, Arrays.toString(partitionBalance), runs, gallopSkipped);
+    }
+    // We don't put getter/setters as this is a simple report. We use that class as a "struct"
+}
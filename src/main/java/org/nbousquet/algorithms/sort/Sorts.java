@@ -0,0 +1,202 @@
+package org.nbousquet.algorithms.sort;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Sort facade choosing the algorithm from the shape of the input, so callers don't have to know whether their data is
+ * presorted, full of duplicates or within a small range of values.
+ * <p>
+ * The input is first probed in a single linear pass giving its minimum, maximum and number of ascending & descending
+ * steps, then if needed a small evenly spaced sample gives an estimate of the duplicate ratio. The probe costs about
+ * one read per element, small against the O(Nlog(N)) sort. The algorithm is chosen in that order:
+ * <ol>
+ * <li>Tiny array: {@link SmallSort}.</li>
+ * <li>Single run, the array being already sorted or reversed: {@link FusionSort}, in O(N).</li>
+ * <li>Range of values not larger than the array: counting sort, O(N) without any comparison.</li>
+ * <li>Few long runs, ascending or descending: {@link FusionSort}, that merges the natural runs.</li>
+ * <li>Many duplicates in the sample: {@link ThreeWayQuickSort}, that puts all the elements equal to the pivot at their
+ * final place at once.</li>
+ * <li>Otherwise: {@link QuickSort#introSort(int[], QuickSort.PartitionStrategy)} with block partitioning.</li>
+ * </ol>
+ */
+public class Sorts {
+
+    /**
+     * Largest range of values sorted with a counting sort, so the counts fit in 4MB.
+     */
+    static final int MAX_COUNTING_RANGE = 1 << 20;
+    /**
+     * Minimum average length of the runs for the array to be considered presorted.
+     */
+    static final int MIN_AVERAGE_RUN_LENGTH = 64;
+    /**
+     * Largest sample used to estimate the duplicate ratio.
+     */
+    static final int MAX_SAMPLE_SIZE = 1024;
+    /**
+     * Ratio of the sample equal to another sampled element from which the array is sorted with a 3 way quick sort.
+     */
+    static final double DUPLICATE_RATIO_THRESHOLD = 0.25;
+
+    /**
+     * Algorithms the facade dispatch to.
+     */
+    public enum Algorithm {
+        SMALL_SORT,
+        COUNTING_SORT,
+        FUSION_SORT,
+        THREE_WAY_QUICK_SORT,
+        INTRO_SORT
+    }
+
+    /**
+     * Result of the probe of an array and the algorithm chosen from it.
+     */
+    public static class Decision {
+        /* Algorithm the array was sorted with */
+        public Algorithm algorithm;
+        /* Number of elements of the array */
+        public int length;
+        /* Smallest and largest values of the array */
+        public int min;
+        public int max;
+        /* Number of runs, non descending or strictly descending as the fusion sort finds them, whichever is fewer */
+        public int runs;
+        /* Ratio of the sample equal to another sampled element, NaN if the sample was not needed */
+        public double duplicateRatio = Double.NaN;
+
+        /**
+         * @return number of distinct values the array may hold
+         */
+        public long range() {
+            return (long) max - min + 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s for %d elements, range %d, %d runs, duplicate ratio %.2f", algorithm, length,
+                    range(), runs, duplicateRatio);
+        }
+        // We don't put getter/setters as this is a simple report. We use that class as a "struct"
+    }
+
+    /**
+     * Sort the provided array in ascending order, with the algorithm best suited to its content.
+     *
+     * @param array array to sort
+     */
+    public static void sort(int[] array) {
+        sort(array, null);
+    }
+
+    /**
+     * Sort the provided array in ascending order, with the algorithm best suited to its content, reporting the
+     * decision to the listener.
+     *
+     * @param array    array to sort
+     * @param listener called with the decision before sorting, may be null
+     */
+    public static void sort(int[] array, Consumer<Decision> listener) {
+        if (array == null || array.length == 0) {
+            return;
+        }
+        Decision decision = probe(array);
+        if (listener != null) {
+            listener.accept(decision);
+        }
+        switch (decision.algorithm) {
+            case SMALL_SORT:
+                SmallSort.sort(array);
+                break;
+            case COUNTING_SORT:
+                countingSort(array, decision.min, decision.max);
+                break;
+            case FUSION_SORT:
+                FusionSort.sort(array);
+                break;
+            case THREE_WAY_QUICK_SORT:
+                ThreeWayQuickSort.sort(array);
+                break;
+            default:
+                QuickSort.introSort(array, QuickSort.PartitionStrategy.BLOCK);
+        }
+    }
+
+    /**
+     * Probe the array and choose the algorithm to sort it, see {@link Sorts}.
+     *
+     * @param array array to probe, not empty
+     * @return decision for this array
+     */
+    static Decision probe(int[] array) {
+        Decision decision = new Decision();
+        decision.length = array.length;
+        int min = array[0];
+        int max = array[0];
+        int descents = 0;
+        for (int i = 1; i < array.length; i++) {
+            int value = array[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            // Counted without branch, the steps of a random array going down at random.
+            descents += array[i - 1] > value ? 1 : 0;
+        }
+        decision.min = min;
+        decision.max = max;
+        // A run ends at each step against its direction: a descent for a non descending run, an ascent or an equal
+        // step for a descending one, as the fusion sort only reverses strictly descending runs to stay stable.
+        decision.runs = Math.min(descents, array.length - 1 - descents) + 1;
+
+        if (array.length <= SmallSort.MAX_NETWORK_SIZE) {
+            decision.algorithm = Algorithm.SMALL_SORT;
+        } else if (decision.runs == 1) {
+            // Already sorted or strictly descending, the fusion sort only checks it or reverses it.
+            decision.algorithm = Algorithm.FUSION_SORT;
+        } else if (decision.range() <= Math.min(array.length, MAX_COUNTING_RANGE)) {
+            decision.algorithm = Algorithm.COUNTING_SORT;
+        } else if (decision.runs <= array.length / MIN_AVERAGE_RUN_LENGTH) {
+            decision.algorithm = Algorithm.FUSION_SORT;
+        } else {
+            decision.duplicateRatio = duplicateRatio(array);
+            decision.algorithm = decision.duplicateRatio >= DUPLICATE_RATIO_THRESHOLD
+                    ? Algorithm.THREE_WAY_QUICK_SORT : Algorithm.INTRO_SORT;
+        }
+        return decision;
+    }
+
+    /**
+     * Estimate the ratio of duplicates from an evenly spaced sample: the sample is sorted and each element equal to its
+     * predecessor is a duplicate. The sample is 1/16 of the array, at most MAX_SAMPLE_SIZE, to stay cheap on small
+     * arrays.
+     */
+    private static double duplicateRatio(int[] array) {
+        int sampleSize = Math.max(2, Math.min(MAX_SAMPLE_SIZE, array.length >> 4));
+        int[] sample = new int[sampleSize];
+        for (int i = 0; i < sampleSize; i++) {
+            sample[i] = array[(int) ((long) array.length * i / sampleSize)];
+        }
+        QuickSort.introSort(sample);
+        int duplicates = 0;
+        for (int i = 1; i < sampleSize; i++) {
+            duplicates += sample[i] == sample[i - 1] ? 1 : 0;
+        }
+        return (double) duplicates / sampleSize;
+    }
+
+    /**
+     * Sort the provided array in ascending order using a counting sort: occurrences of each value between min and max
+     * are counted, then the array is rewritten value by value. Complexity is O(N + max - min).
+     */
+    private static void countingSort(int[] array, int min, int max) {
+        int[] counts = new int[max - min + 1];
+        for (int value : array) {
+            counts[value - min]++;
+        }
+        int next = 0;
+        for (int i = 0; i < counts.length; i++) {
+            Arrays.fill(array, next, next + counts[i], min + i);
+            next += counts[i];
+        }
+    }
+}
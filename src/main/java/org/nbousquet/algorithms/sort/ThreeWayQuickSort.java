@@ -2,10 +2,18 @@ package org.nbousquet.algorithms.sort;
 
 import org.nbousquet.algorithms.common.Utils;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class ThreeWayQuickSort {
 
+    /**
+     * Size under which the parallel sort stop splitting the work and sort sequentially.
+     * Below that, the cost of creating and scheduling tasks is higher than the work itself.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+
     /**
      * Sort the provided array in ascending order using randomized 3 way quick sort.
      * <p>
@@ -31,6 +39,52 @@ public class ThreeWayQuickSort {
         sort(array, 0, array.length - 1);
     }
 
+    /**
+     * Sort the provided array in ascending order using a parallel 3 way quick sort on the common fork/join pool.
+     * <p>
+     * See {@link ThreeWayQuickSort#parallelSort(int[], ForkJoinPool, int)}.
+     *
+     * @param array array to sort
+     */
+    public static void parallelSort(int[] array) {
+        parallelSort(array, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Sort the provided array in ascending order using a parallel 3 way quick sort.
+     * <p>
+     * After a partition, the lower and greater parts are independent, so they are sorted as 2 fork/join tasks.
+     * Ranges smaller than the threshold are sorted sequentially.
+     * <p>
+     * The first partitions of a large array would keep a single thread busy for long, so large ranges are partitioned
+     * by blocks in parallel, see {@link ParallelPartition}. It needs a buffer the size of the array, only allocated for
+     * arrays large enough.
+     *
+     * @param array     array to sort
+     * @param pool      pool running the sort tasks
+     * @param threshold size of range under which the work is done sequentially. Must be at least 1.
+     * @throws IllegalArgumentException threshold is lower than 1.
+     */
+    public static void parallelSort(int[] array, ForkJoinPool pool, int threshold) {
+        parallelSort(array, pool, threshold, ParallelPartition.DEFAULT_PARALLEL_PARTITION_THRESHOLD);
+    }
+
+    /**
+     * See {@link ThreeWayQuickSort#parallelSort(int[], ForkJoinPool, int)}, with a tunable size from which partitions
+     * are done in parallel.
+     */
+    static void parallelSort(int[] array, ForkJoinPool pool, int threshold, int partitionThreshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1: " + threshold);
+        }
+        if (array == null || array.length < 2) {
+            return;
+        }
+        int[] buffer = array.length >= partitionThreshold ? new int[array.length] : null;
+        pool.invoke(new SortTask(array, buffer, 0, array.length - 1, threshold, partitionThreshold,
+                pool.getParallelism()));
+    }
+
     /**
      * See {@link ThreeWayQuickSort#sort(int[])}. For our divide & conquer strategy we specify in what range we do perform the
      * sorting.
@@ -40,8 +94,9 @@ public class ThreeWayQuickSort {
      * @param end   end of the range to sort, included.
      */
     private static void sort(int[] array, int start, int end) {
-        // An empty partition or with a single element is already sorted.
-        if (end <= start) {
+        // Tiny partitions are cheaper to sort with a sorting network than to partition further.
+        if (end - start < SmallSort.MAX_NETWORK_SIZE) {
+            SmallSort.sort(array, start, end);
             return;
         }
         PivotIndexes pivotIndex = partition(array, start, end);
@@ -68,10 +123,25 @@ public class ThreeWayQuickSort {
      * @return range of the pivot of the partition
      */
     private static PivotIndexes partition(int[] array, int start, int end) {
-        // We choose a random pivot and put it at the end of the range.
+        // We choose a random pivot.
         // This is to avoid the issue where a wrong pivot would make for bad performance O(N^2).
         int randomPivotIndex = ThreadLocalRandom.current().nextInt(start, end + 1);
-        Utils.swap(array, randomPivotIndex, end);
+        return partition(array, start, end, randomPivotIndex);
+    }
+
+    /**
+     * Partition the provided array around the provided pivot.
+     * See {@link ThreeWayQuickSort#partition(int[], int, int)}.
+     *
+     * @param array      array to partition withing start (included) and end (included)
+     * @param start      begining of the range to partition
+     * @param end        end of the range to partition
+     * @param pivotIndex index of the pivot, within the range
+     * @return range of the pivot of the partition
+     */
+    static PivotIndexes partition(int[] array, int start, int end, int pivotIndex) {
+        // The pivot is put at the end of the range.
+        Utils.swap(array, pivotIndex, end);
         int pivotValue = array[end];
         // Found out all elements smaller and the pivot and put them at the begining.
         int nextSmallElementIndex = start;
@@ -99,5 +169,50 @@ public class ThreeWayQuickSort {
         return pivot;
     }
 
+    /**
+     * Fork/join task sorting the range start to end (both included) of the array.
+     */
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] array;
+        private final int[] buffer;
+        private final int start;
+        private final int end;
+        private final int threshold;
+        private final int partitionThreshold;
+        private final int parallelism;
+
+        SortTask(int[] array, int[] buffer, int start, int end, int threshold, int partitionThreshold,
+                 int parallelism) {
+            this.array = array;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+            this.partitionThreshold = partitionThreshold;
+            this.parallelism = parallelism;
+        }
 
+        @Override
+        protected void compute() {
+            int length = end - start + 1;
+            if (length <= threshold) {
+                sort(array, start, end);
+                return;
+            }
+            PivotIndexes pivot;
+            if (length >= partitionThreshold) {
+                int pivotValue = array[ThreadLocalRandom.current().nextInt(start, end + 1)];
+                int blockSize = ParallelPartition.blockSize(length, parallelism, threshold);
+                pivot = ParallelPartition.partition(array, start, end, pivotValue, buffer, blockSize);
+            } else {
+                pivot = partition(array, start, end);
+            }
+            invokeAll(new SortTask(array, buffer, start, pivot.start - 1, threshold, partitionThreshold,
+                            parallelism),
+                    new SortTask(array, buffer, pivot.end + 1, end, threshold, partitionThreshold,
+                            parallelism));
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package org.nbousquet.algorithms.sort;
+
+import org.nbousquet.algorithms.heap.IntHeap;
+
+/**
+ * Keep the k largest values of a stream of values, without having to hold the whole stream in memory.
+ * <p>
+ * The values are kept in a "min heap" of k elements, see {@link IntHeap}: the root is the smallest of the k largest
+ * values seen so far. A new value is only kept if it is greater than the root, in which case it replaces the root and
+ * the heap is corrected with a sift-down. So adding a value is O(log(k)), and O(1) for most values once the heap
+ * holds large values.
+ */
+public class TopK {
+
+    /**
+     * Heap of the values kept, never growing beyond k values.
+     */
+    private final IntHeap heap;
+    /**
+     * Number of largest values to keep.
+     */
+    private final int k;
+
+    /**
+     * Create an empty top k.
+     *
+     * @param k number of largest values to keep
+     * @throws IllegalArgumentException k is negative.
+     */
+    public TopK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + k);
+        }
+        this.k = k;
+        heap = new IntHeap(k, IntHeap.DEFAULT_ARITY);
+    }
+
+    /**
+     * Offer a value, kept if it is among the k largest seen so far.
+     *
+     * @param value value to add
+     */
+    public void add(int value) {
+        if (heap.size() < k) {
+            heap.offer(value);
+        } else if (k > 0 && value > heap.peek()) {
+            heap.replaceTop(value);
+        }
+    }
+
+    /**
+     * Return the number of values kept, k or less if fewer values were added.
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Return the values kept, from the largest to the smallest. The top k is left untouched.
+     *
+     * @return new array of the values kept, in descending order
+     */
+    public int[] toSortedArray() {
+        int[] sorted = heap.toArray();
+        // Heap sort on a min heap: the root, the smallest, goes at the end.
+        for (int i = sorted.length - 1; i > 0; i--) {
+            int min = sorted[0];
+            sorted[0] = sorted[i];
+            sorted[i] = min;
+            IntHeap.siftDown(sorted, 0, i, 0, heap.arity());
+        }
+        return sorted;
+    }
+}
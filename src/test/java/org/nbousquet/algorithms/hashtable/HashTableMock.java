@@ -2,8 +2,23 @@ package org.nbousquet.algorithms.hashtable;
 
 public class HashTableMock<K, V> extends HashTable<K, V> {
 
+    public HashTableMock() {
+    }
+
+    public HashTableMock(ResizeStrategy resizeStrategy) {
+        super(resizeStrategy);
+    }
+
+    public HashTableMock(ResizeStrategy resizeStrategy, HashStrategy hashStrategy) {
+        super(resizeStrategy, hashStrategy);
+    }
+
     protected Data<K, V> getData() {
         return data;
     }
 
+    protected Data<K, V> getPreviousData() {
+        return previousData;
+    }
+
 }
@@ -0,0 +1,178 @@
+package org.nbousquet.algorithms.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestConcurrentHashTable {
+
+    private static final int THREADS = 4;
+
+    @Test
+    public void testNewEmptyHashTable() {
+        ConcurrentHashTable<Integer, Integer> map = new ConcurrentHashTable<>();
+        assertEquals(0, map.size(), "New hashtable shall be empty");
+        assertEquals(ConcurrentHashTable.INITIAL_CAPACITY, map.capacity());
+        assertNull(map.get(3));
+        assertNull(map.remove(3));
+    }
+
+    @Test
+    public void testNullKey() {
+        ConcurrentHashTable<Integer, Integer> map = new ConcurrentHashTable<>();
+        assertThrows(NullPointerException.class, () -> map.put(null, 1));
+        assertThrows(NullPointerException.class, () -> map.get(null));
+        assertThrows(NullPointerException.class, () -> map.remove(null));
+    }
+
+    @Test
+    public void testExpectedSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentHashTable<>(-1));
+        ConcurrentHashTable<Integer, Integer> map = new ConcurrentHashTable<>(1000);
+        int capacity = map.capacity();
+        assertEquals(0, capacity & (capacity - 1), "Capacity shall be a power of 2");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        assertEquals(capacity, map.capacity(), "Expected size shall fit without resize");
+    }
+
+    @Test
+    public void testSameAsHashMap() {
+        for (HashTable.HashStrategy hashStrategy : HashTable.HashStrategy.values()) {
+            ConcurrentHashTable<Integer, Integer> map = new ConcurrentHashTable<>(0, hashStrategy);
+            Map<Integer, Integer> expected = new HashMap<>();
+            Random random = new Random(42);
+            for (int i = 0; i < 100_000; i++) {
+                int key = random.nextInt(10_000) - 5_000;
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), map.remove(key), "Removed value of key " + key);
+                } else {
+                    expected.put(key, i);
+                    map.put(key, i);
+                }
+            }
+            assertEquals(expected.size(), map.size());
+            for (int key = -5_000; key < 5_000; key++) {
+                assertEquals(expected.get(key), map.get(key), "Value of key " + key);
+            }
+        }
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        // "Aa" and "BB" have the same hash code, so do their concatenations.
+        ConcurrentHashTable<String, Integer> map = new ConcurrentHashTable<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int bit = 0; bit < 8; bit++) {
+                key.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            keys.add(key.toString());
+            map.put(key.toString(), i);
+        }
+        assertEquals(256, map.size());
+        for (int i = 0; i < 256; i += 2) {
+            assertEquals(i, map.remove(keys.get(i)));
+        }
+        for (int i = 0; i < 256; i++) {
+            assertEquals(i % 2 == 0 ? null : i, map.get(keys.get(i)));
+        }
+    }
+
+    @Test
+    public void testConcurrentPutsWithReaders() throws Exception {
+        int keysPerThread = 50_000;
+        // Smallest table, so the writers go through many cooperative resizes.
+        ConcurrentHashTable<Integer, Integer> map = new ConcurrentHashTable<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2 * THREADS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int first = t * keysPerThread;
+                writers.add(executor.submit(() -> {
+                    for (int key = first; key < first + keysPerThread; key++) {
+                        map.put(key, -key);
+                    }
+                }));
+            }
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                readers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    while (writing.get()) {
+                        int key = random.nextInt(THREADS * keysPerThread);
+                        Integer value = map.get(key);
+                        if (value != null && value != -key) {
+                            throw new AssertionError("Key " + key + " read with value " + value);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(THREADS * keysPerThread, map.size());
+        assertTrue(map.capacity() * ConcurrentHashTable.MAX_LOAD_FACTOR >= map.size(),
+                "Resizes shall keep the load factor under its max");
+        for (int key = 0; key < THREADS * keysPerThread; key++) {
+            assertEquals(-key, map.get(key), "Value of key " + key);
+        }
+    }
+
+    @Test
+    public void testConcurrentPutsAndRemoves() throws Exception {
+        int keysPerThread = 20_000;
+        ConcurrentHashTable<Integer, Integer> map = new ConcurrentHashTable<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int first = t * keysPerThread;
+                tasks.add(executor.submit(() -> {
+                    for (int key = first; key < first + keysPerThread; key++) {
+                        map.put(key, key);
+                    }
+                    // Keep the even keys only.
+                    for (int key = first + 1; key < first + keysPerThread; key += 2) {
+                        if (map.remove(key) != key) {
+                            throw new AssertionError("Key " + key + " not found for removal");
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(THREADS * keysPerThread / 2, map.size());
+        for (int key = 0; key < THREADS * keysPerThread; key++) {
+            assertEquals(key % 2 == 0 ? key : null, map.get(key), "Value of key " + key);
+        }
+    }
+}
@@ -3,6 +3,12 @@ package org.nbousquet.algorithms.hashtable;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TestHashTable {
@@ -212,5 +218,237 @@ public class TestHashTable {
         }
     }
 
+    @Test
+    public void testIncrementalResize() {
+        HashTableMock<String, Integer> map = new HashTableMock<>(HashTable.ResizeStrategy.INCREMENTAL);
+        int resizes = 0;
+        for (int i = 0; i < 10000; i++) {
+            int capacity = map.getData().array.length;
+            map.put("" + i, i);
+            if (map.getData().array.length != capacity) {
+                resizes++;
+                assertNotNull(map.getPreviousData(), "Previous array shall be kept while its entries are moved");
+                assertEquals(capacity, map.getPreviousData().array.length);
+                assertTrue(map.getPreviousData().size > 0, "Resizing put shall not move every entry");
+            }
+            assertEquals(i + 1, map.size(), "Size shall count the entries of both arrays");
+        }
+        assertTrue(resizes > 5, "Map shall have grown several times");
+
+        // Lookups, overwrites and removals hit both arrays during a move.
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, map.get("" + i), "Entry shall be found whatever its array for index " + i);
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            map.put("" + i, -i);
+        }
+        for (int i = 0; i < 10000; i += 4) {
+            assertEquals(-i, map.remove("" + i));
+        }
+        assertEquals(7500, map.size());
+        for (int i = 0; i < 10000; i++) {
+            Integer expected = i % 4 == 0 ? null : i % 2 == 0 ? -i : i;
+            assertEquals(expected, map.get("" + i), "Entry after overwrites and removals for index " + i);
+        }
+        assertNull(map.getPreviousData(), "Move shall be over after enough operations");
+    }
+
+    @Test
+    public void testIncrementalResizeDuringMove() {
+        HashTableMock<String, Integer> map = new HashTableMock<>(HashTable.ResizeStrategy.INCREMENTAL);
+        int i = 0;
+        while (map.getPreviousData() == null) {
+            map.put("" + i, i);
+            i++;
+        }
+        // Lowering the max load factor of the new array makes the next put resize again before the move is over.
+        int capacity = map.getData().array.length;
+        map.getData().maxLoadFactor = 0.01f;
+        map.put("" + i, i);
+        i++;
+        assertEquals(2 * capacity, map.getData().array.length, "Put shall have started another resize");
+        assertEquals(capacity, map.getPreviousData().array.length, "Previous move shall have been finished first");
+        assertEquals(i, map.size(), "Size shall count the entries of both arrays");
+        for (int j = 0; j < i; j++) {
+            assertEquals(j, map.get("" + j), "Entry shall survive both resizes for index " + j);
+        }
+    }
+
+    @Test
+    public void testNegativeHashCodes() {
+        HashTableMock<Integer, Integer> map = new HashTableMock<>();
+        for (int i = -1; i > -1000; i--) {
+            map.put(i, i);
+        }
+        map.put(Integer.MIN_VALUE, 0);
+        assertEquals(1000, map.size());
+        for (int i = -1; i > -1000; i--) {
+            assertEquals(i, map.get(i), "Negative hash code shall be supported for index " + i);
+        }
+        assertEquals(0, map.get(Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void testPowerOfTwoCapacity() {
+        HashTableMock<Integer, Integer> map = new HashTableMock<>();
+        for (int i = 0; i < 10000; i++) {
+            map.put(i, i);
+            assertEquals(1, Integer.bitCount(map.getData().array.length), "Capacity shall be a power of 2");
+        }
+    }
+
+    /**
+     * Strings made of the blocks "Aa" and "BB", that have the same hash code: 2^blocks different strings.
+     */
+    private static List<String> collidingStrings(int blocks) {
+        List<String> keys = new ArrayList<>();
+        for (int bits = 0; bits < 1 << blocks; bits++) {
+            StringBuilder key = new StringBuilder();
+            for (int block = 0; block < blocks; block++) {
+                key.append((bits >>> block & 1) == 0 ? "Aa" : "BB");
+            }
+            keys.add(key.toString());
+        }
+        return keys;
+    }
+
+    @Test
+    public void testCollidingKeysAreTreeified() {
+        HashTableMock<String, Integer> map = new HashTableMock<>();
+        List<String> keys = collidingStrings(12);
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), i);
+        }
+        assertEquals(keys.size(), map.size());
+        HashTable.Entry<String, Integer> cell = null;
+        for (HashTable.Entry<String, Integer> entry : map.getData().array) {
+            if (entry != null) {
+                assertNull(cell, "Colliding keys shall all be in the same cell");
+                cell = entry;
+            }
+        }
+        assertTrue(cell instanceof HashTable.TreeEntry, "Long cell shall be turned into a tree");
+        int height = HashTable.height((HashTable.TreeEntry<String, Integer>) cell);
+        assertTrue(height <= 1.44 * 12 + 2, "Tree shall stay balanced, height " + height);
+
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, map.get(keys.get(i)), "Key shall be found in the tree for index " + i);
+        }
+        for (int i = 0; i < keys.size(); i += 2) {
+            assertEquals(i, map.remove(keys.get(i)));
+            assertNull(map.remove(keys.get(i)));
+        }
+        assertEquals(keys.size() / 2, map.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i % 2 == 0 ? null : i, map.get(keys.get(i)), "Entry after removals for index " + i);
+        }
+    }
+
+    /**
+     * Key of constant hash code, not Comparable.
+     */
+    private static class CollidingKey {
+        private final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    @Test
+    public void testCollidingKeysNotComparable() {
+        // Integer 0 has the same hash code as the colliding keys, but another class.
+        HashTableMock<Object, Integer> map = new HashTableMock<>(HashTable.ResizeStrategy.INCREMENTAL);
+        Map<Object, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(100);
+            Object key = id == 0 ? Integer.valueOf(0) : id % 2 == 0 ? new CollidingKey(id) : "" + id;
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), map.remove(key), "Removal of key " + id);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Object, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * Key of constant hash code, Comparable to another type than itself.
+     */
+    private static class ForeignComparableKey implements Comparable<Integer> {
+        private final int id;
+
+        ForeignComparableKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Integer other) {
+            return Integer.compare(id, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ForeignComparableKey && ((ForeignComparableKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+    @Test
+    public void testCollidingKeysComparableToAnotherType() {
+        HashTableMock<ForeignComparableKey, Integer> map = new HashTableMock<>();
+        for (int id = 0; id < 100; id++) {
+            map.put(new ForeignComparableKey(id), id);
+        }
+        assertEquals(100, map.size());
+        for (int id = 0; id < 100; id += 2) {
+            assertEquals(id, map.remove(new ForeignComparableKey(id)));
+        }
+        for (int id = 0; id < 100; id++) {
+            assertEquals(id % 2 == 0 ? null : id, map.get(new ForeignComparableKey(id)));
+        }
+    }
 
+    @Test
+    public void testSeededHashing() {
+        HashTableMock<Integer, Integer> first = new HashTableMock<>(HashTable.ResizeStrategy.ALL_AT_ONCE,
+                HashTable.HashStrategy.SEEDED);
+        HashTableMock<Integer, Integer> second = new HashTableMock<>(HashTable.ResizeStrategy.ALL_AT_ONCE,
+                HashTable.HashStrategy.SEEDED);
+        for (int i = 0; i < 10; i++) {
+            first.put(i, i);
+            second.put(i, i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, first.get(i));
+            assertEquals(i, second.get(i));
+        }
+        // With different seeds, the keys are spread differently, but for a 2^-40 chance.
+        boolean sameCells = true;
+        for (int cell = 0; cell < HashTable.INITIAL_CAPACITY; cell++) {
+            HashTable.Entry<Integer, Integer> firstCell = first.getData().array[cell];
+            HashTable.Entry<Integer, Integer> secondCell = second.getData().array[cell];
+            sameCells &= firstCell == null ? secondCell == null : secondCell != null && firstCell.key.equals(secondCell.key);
+        }
+        assertFalse(sameCells, "Seeded maps shall spread keys differently");
+    }
 }
@@ -0,0 +1,109 @@
+package org.nbousquet.algorithms.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLongLongHashTable {
+
+    @Test
+    public void testNewEmptyHashTable() {
+        LongLongHashTable map = new LongLongHashTable();
+        assertEquals(0, map.size(), "New hashtable shall be empty");
+        assertEquals(LongLongHashTable.INITIAL_CAPACITY, map.capacity());
+        assertEquals(-1, map.get(3, -1), "Missing key shall give the default value");
+        assertFalse(map.containsKey(3));
+        assertFalse(map.remove(3));
+    }
+
+    @Test
+    public void testPutGetOverwriteRemove() {
+        LongLongHashTable map = new LongLongHashTable();
+        map.put(1L << 40, 10);
+        map.put(2L << 40, 20);
+        map.put(1L << 40, 11);
+        assertEquals(2, map.size(), "Overwrite shall not add an entry");
+        assertEquals(11, map.get(1L << 40, -1));
+        assertEquals(20, map.get(2L << 40, -1));
+        assertTrue(map.remove(1L << 40));
+        assertFalse(map.containsKey(1L << 40));
+        assertEquals(-1, map.get(1L << 40, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testFreeKey() {
+        LongLongHashTable map = new LongLongHashTable();
+        assertFalse(map.containsKey(0));
+        map.put(0, 0);
+        assertTrue(map.containsKey(0), "Key 0 with value 0 shall be present");
+        assertEquals(0, map.get(0, -1));
+        map.put(0, 7);
+        assertEquals(7, map.get(0, -1));
+        assertEquals(1, map.size());
+        assertTrue(map.remove(0));
+        assertFalse(map.remove(0));
+        assertEquals(-1, map.get(0, -1));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testGrowth() {
+        LongLongHashTable map = new LongLongHashTable();
+        for (int i = 1; i <= 100_000; i++) {
+            map.put((long) i << 32, -i);
+            assertTrue(map.size() <= map.capacity() * LongLongHashTable.MAX_LOAD_FACTOR,
+                    "Load factor shall stay below the max one");
+        }
+        for (int i = 1; i <= 100_000; i++) {
+            assertEquals(-i, map.get((long) i << 32, 1), "After growth data shall still be present for key " + i);
+        }
+    }
+
+    @Test
+    public void testExpectedSize() {
+        LongLongHashTable map = new LongLongHashTable(1000);
+        int capacity = map.capacity();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i + 1, i);
+        }
+        assertEquals(capacity, map.capacity(), "Expected size shall fit without growing");
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new LongLongHashTable(-1));
+        assertThrows(IllegalArgumentException.class, () -> new LongLongHashTable(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LongLongHashTable(10, 1));
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        // Few distinct keys in a small table: long clusters, many removals shifting entries back.
+        Random random = new Random(42);
+        LongLongHashTable map = new LongLongHashTable(0, 0.9f);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = (random.nextInt(200) - 100) * 0x1_0000_0001L;
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                assertEquals(expected.remove(key) != null, map.remove(key), "Removal of key " + key);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long i = -100; i < 100; i++) {
+            long key = i * 0x1_0000_0001L;
+            assertEquals(expected.containsKey(key), map.containsKey(key), "Presence of key " + key);
+            assertEquals((long) expected.getOrDefault(key, -1L), map.get(key, -1), "Value of key " + key);
+        }
+    }
+}
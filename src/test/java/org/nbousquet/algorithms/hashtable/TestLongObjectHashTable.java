@@ -0,0 +1,116 @@
+package org.nbousquet.algorithms.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLongObjectHashTable {
+
+    @Test
+    public void testNewEmptyHashTable() {
+        LongObjectHashTable<String> map = new LongObjectHashTable<>();
+        assertEquals(0, map.size(), "New hashtable shall be empty");
+        assertEquals(LongObjectHashTable.INITIAL_CAPACITY, map.capacity());
+        assertNull(map.get(3));
+        assertFalse(map.containsKey(3));
+        assertNull(map.remove(3));
+    }
+
+    @Test
+    public void testPutGetOverwriteRemove() {
+        LongObjectHashTable<String> map = new LongObjectHashTable<>();
+        map.put(Long.MAX_VALUE, "max");
+        map.put(Long.MIN_VALUE, "min");
+        map.put(Long.MAX_VALUE, "MAX");
+        assertEquals(2, map.size(), "Overwrite shall not add an entry");
+        assertEquals("MAX", map.get(Long.MAX_VALUE));
+        assertEquals("min", map.get(Long.MIN_VALUE));
+        assertEquals("MAX", map.remove(Long.MAX_VALUE));
+        assertFalse(map.containsKey(Long.MAX_VALUE));
+        assertNull(map.get(Long.MAX_VALUE));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testNullValue() {
+        LongObjectHashTable<String> map = new LongObjectHashTable<>();
+        map.put(5, null);
+        assertTrue(map.containsKey(5), "Key with a null value shall be present");
+        assertNull(map.get(5));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testFreeKey() {
+        LongObjectHashTable<String> map = new LongObjectHashTable<>();
+        map.put(0, "zero");
+        assertTrue(map.containsKey(0));
+        assertEquals("zero", map.get(0));
+        assertEquals(1, map.size());
+        assertEquals("zero", map.remove(0));
+        assertNull(map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testGrowth() {
+        LongObjectHashTable<String> map = new LongObjectHashTable<>();
+        for (int i = 1; i <= 100_000; i++) {
+            map.put(i, "" + i);
+            assertTrue(map.size() <= map.capacity() * LongObjectHashTable.MAX_LOAD_FACTOR,
+                    "Load factor shall stay below the max one");
+        }
+        for (int i = 1; i <= 100_000; i++) {
+            assertEquals("" + i, map.get(i), "After growth data shall still be present for key " + i);
+        }
+    }
+
+    @Test
+    public void testExpectedSize() {
+        LongObjectHashTable<String> map = new LongObjectHashTable<>(1000, 0.5f);
+        int capacity = map.capacity();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i + 1, "" + i);
+        }
+        assertEquals(capacity, map.capacity(), "Expected size shall fit without growing");
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectHashTable<String>(-1));
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectHashTable<String>(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectHashTable<String>(10, Float.NaN));
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        // Few distinct keys in a small table: long clusters, many removals shifting entries back.
+        Random random = new Random(42);
+        LongObjectHashTable<Integer> map = new LongObjectHashTable<>(0, 0.9f);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = (random.nextInt(200) - 100) * 0x1_0000_0001L;
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.remove(key), map.remove(key), "Removal of key " + key);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long i = -100; i < 100; i++) {
+            long key = i * 0x1_0000_0001L;
+            assertEquals(expected.containsKey(key), map.containsKey(key), "Presence of key " + key);
+            assertEquals(expected.get(key), map.get(key), "Value of key " + key);
+        }
+    }
+}
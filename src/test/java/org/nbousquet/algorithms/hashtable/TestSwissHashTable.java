@@ -0,0 +1,155 @@
+package org.nbousquet.algorithms.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSwissHashTable {
+
+    @Test
+    public void testNewEmptyHashTable() {
+        SwissHashTable<Integer, Integer> map = new SwissHashTable<>();
+        assertEquals(0, map.size(), "New hashtable shall be empty");
+        assertEquals(SwissHashTable.INITIAL_CAPACITY, map.capacity());
+        assertNull(map.get(3));
+        assertNull(map.remove(3));
+    }
+
+    @Test
+    public void testNullKey() {
+        SwissHashTable<Integer, Integer> map = new SwissHashTable<>();
+        assertThrows(NullPointerException.class, () -> map.put(null, 1));
+        assertThrows(NullPointerException.class, () -> map.get(null));
+        assertThrows(NullPointerException.class, () -> map.remove(null));
+    }
+
+    @Test
+    public void testPutGetOverwriteRemove() {
+        SwissHashTable<String, Integer> map = new SwissHashTable<>();
+        map.put("one", 1);
+        map.put("two", 2);
+        map.put("one", 11);
+        map.put("none", null);
+        assertEquals(3, map.size(), "Overwrite shall not add an entry");
+        assertEquals(11, map.get("one"));
+        assertEquals(2, map.get("two"));
+        assertNull(map.get("none"));
+        assertEquals(11, map.remove("one"));
+        assertNull(map.get("one"));
+        assertNull(map.remove("one"));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testControlBytesMatch() {
+        // Group of 8 slots, slot 0 in the lowest byte.
+        long group = 0x80_FE_05_80_05_12_7F_00L;
+        assertEquals(0x00_00_80_00_80_00_00_00L, SwissHashTable.match(group, 0x05));
+        assertEquals(0x00_00_00_00_00_00_80_00L, SwissHashTable.match(group, 0x7F));
+        assertEquals(0L, SwissHashTable.match(group, 0x33));
+        assertEquals(0x80_00_00_80_00_00_00_00L, SwissHashTable.matchEmpty(group));
+        assertEquals(0x80_80_00_80_00_00_00_00L, SwissHashTable.matchEmptyOrDeleted(group));
+    }
+
+    @Test
+    public void testExpectedSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SwissHashTable<>(-1));
+        SwissHashTable<Integer, Integer> map = new SwissHashTable<>(1000);
+        int capacity = map.capacity();
+        assertEquals(0, capacity & (capacity - 1), "Capacity shall be a power of 2");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        assertEquals(capacity, map.capacity(), "Expected size shall fit without rehash");
+    }
+
+    @Test
+    public void testMaxCapacity() {
+        assertEquals(SwissHashTable.MAX_CAPACITY, SwissHashTable.capacityFor(Integer.MAX_VALUE));
+        assertTrue(2 * SwissHashTable.capacityFor(Integer.MAX_VALUE) > 0, "Slots array length shall not overflow");
+        assertEquals(-1 >>> 7, SwissHashTable.MAX_CAPACITY / SwissHashTable.GROUP_SIZE - 1,
+                "Every group shall be the home of some hashes");
+    }
+
+    @Test
+    public void testLoadFactor() {
+        SwissHashTable<Integer, Integer> map = new SwissHashTable<>();
+        for (int i = 0; i < 100_000; i++) {
+            map.put(i, i);
+            assertTrue(map.size() <= map.capacity() * SwissHashTable.MAX_LOAD_FACTOR,
+                    "Load factor shall stay under its max");
+        }
+        // 100 000 entries fit in 128K slots at 7/8, not at 3/4.
+        assertEquals(1 << 17, map.capacity());
+    }
+
+    @Test
+    public void testSameAsHashMap() {
+        for (HashTable.HashStrategy hashStrategy : HashTable.HashStrategy.values()) {
+            SwissHashTable<Integer, Integer> map = new SwissHashTable<>(0, hashStrategy);
+            Map<Integer, Integer> expected = new HashMap<>();
+            Random random = new Random(42);
+            for (int i = 0; i < 200_000; i++) {
+                int key = random.nextInt(10_000) - 5_000;
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), map.remove(key), "Removed value of key " + key);
+                } else {
+                    expected.put(key, i);
+                    map.put(key, i);
+                }
+            }
+            assertEquals(expected.size(), map.size());
+            for (int key = -5_000; key < 5_000; key++) {
+                assertEquals(expected.get(key), map.get(key), "Value of key " + key);
+            }
+        }
+    }
+
+    @Test
+    public void testChurnKeepsCapacity() {
+        // Always new keys, at most 100 at once: deleted slots are dropped by rehashes at the same capacity.
+        SwissHashTable<Integer, Integer> map = new SwissHashTable<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            map.put(i, i);
+            if (i >= 100) {
+                assertEquals(i - 100, map.remove(i - 100));
+            }
+        }
+        assertEquals(100, map.size());
+        assertEquals(256, map.capacity());
+        for (int i = 1_000_000 - 100; i < 1_000_000; i++) {
+            assertEquals(i, map.get(i));
+        }
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        // "Aa" and "BB" have the same hash code, so do their concatenations: a single probe sequence for all.
+        SwissHashTable<String, Integer> map = new SwissHashTable<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int bit = 0; bit < 8; bit++) {
+                key.append((i >> bit & 1) == 0 ? "Aa" : "BB");
+            }
+            keys.add(key.toString());
+            map.put(key.toString(), i);
+        }
+        assertEquals(256, map.size());
+        for (int i = 0; i < 256; i += 2) {
+            assertEquals(i, map.remove(keys.get(i)));
+        }
+        for (int i = 0; i < 256; i++) {
+            assertEquals(i % 2 == 0 ? null : i, map.get(keys.get(i)));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.nbousquet.algorithms.heap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIntHeap {
+
+    @Test
+    public void testNewHeapIsEmpty() {
+        IntHeap heap = new IntHeap();
+        assertTrue(heap.isEmpty(), "New heap shall be empty");
+        assertEquals(0, heap.size(), "New heap shall be empty");
+        assertEquals(IntHeap.DEFAULT_ARITY, heap.arity(), "Default arity shall be used");
+        assertThrows(NoSuchElementException.class, heap::peek);
+        assertThrows(NoSuchElementException.class, heap::poll);
+        assertThrows(NoSuchElementException.class, () -> heap.replaceTop(1));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new IntHeap(-1, 4));
+        assertThrows(IllegalArgumentException.class, () -> new IntHeap(16, 1));
+        assertThrows(IllegalArgumentException.class, () -> new IntHeap(16, 3));
+        assertThrows(IllegalArgumentException.class, () -> new IntHeap(16, IntHeap.MAX_ARITY * 2));
+        assertThrows(IllegalArgumentException.class, () -> new IntHeap().pollN(new int[2], 3));
+    }
+
+    @Test
+    public void testOfferPollInAscendingOrder() {
+        for (int arity = 2; arity <= IntHeap.MAX_ARITY; arity *= 2) {
+            // A capacity of 0 forces the heap to grow.
+            IntHeap heap = new IntHeap(0, arity);
+            int[] values = new Random(arity).ints(1000, -100, 100).toArray();
+            for (int value : values) {
+                heap.offer(value);
+            }
+            assertEquals(values.length, heap.size(), "All offered values shall be in the heap");
+            int[] expected = values.clone();
+            Arrays.sort(expected);
+            for (int value : expected) {
+                assertEquals(value, heap.peek(), "Peek shall return the smallest value, arity " + arity);
+                assertEquals(value, heap.poll(), "Poll shall return the smallest value, arity " + arity);
+            }
+            assertTrue(heap.isEmpty(), "All values shall be polled");
+        }
+    }
+
+    @Test
+    public void testOfferAllAndPollN() {
+        Random random = new Random(14);
+        IntHeap heap = new IntHeap(4, 8);
+        int[] few = random.ints(10).toArray();
+        int[] many = random.ints(1000).toArray();
+        int[] more = random.ints(100).toArray();
+        // Rebuilt with Floyd's construction, then sifted up one by one.
+        heap.offerAll(few);
+        heap.offerAll(many);
+        heap.offerAll(more);
+
+        int[] expected = new int[few.length + many.length + more.length];
+        System.arraycopy(few, 0, expected, 0, few.length);
+        System.arraycopy(many, 0, expected, few.length, many.length);
+        System.arraycopy(more, 0, expected, few.length + many.length, more.length);
+        Arrays.sort(expected);
+
+        int[] polled = new int[expected.length + 10];
+        assertEquals(100, heap.pollN(polled, 100), "The requested count shall be polled");
+        assertArrayEquals(Arrays.copyOf(expected, 100), Arrays.copyOf(polled, 100), "Smallest values first");
+        assertEquals(expected.length - 100, heap.pollN(polled, polled.length), "Only the remaining values are polled");
+        assertArrayEquals(Arrays.copyOfRange(expected, 100, expected.length),
+                Arrays.copyOf(polled, expected.length - 100), "Remaining values in ascending order");
+        assertTrue(heap.isEmpty(), "All values shall be polled");
+    }
+
+    @Test
+    public void testReplaceTop() {
+        IntHeap heap = new IntHeap();
+        heap.offerAll(new int[]{5, 3, 8, 1});
+        assertEquals(1, heap.replaceTop(6), "Smallest value shall be replaced");
+        assertEquals(4, heap.size(), "Size shall be unchanged");
+        int[] polled = new int[4];
+        heap.pollN(polled, 4);
+        assertArrayEquals(new int[]{3, 5, 6, 8}, polled, "Replacing value shall be in the heap");
+    }
+
+    @Test
+    public void testClearKeepsHeapUsable() {
+        IntHeap heap = new IntHeap();
+        heap.offerAll(new int[]{4, 2, 9});
+        heap.clear();
+        assertTrue(heap.isEmpty(), "Cleared heap shall be empty");
+        heap.offer(7);
+        assertArrayEquals(new int[]{7}, heap.toArray(), "Cleared heap shall accept new values");
+    }
+
+    @Test
+    public void testHeapifyRange() {
+        int[] array = new int[]{9, 8, 5, 1, 4, 3, 2, 0};
+        IntHeap.heapify(array, 2, 5, 4);
+        assertEquals(1, array[2], "Smallest value of the range shall be the root");
+        assertEquals(9, array[0], "Outside of the range shall be left untouched");
+        assertEquals(8, array[1], "Outside of the range shall be left untouched");
+        assertEquals(0, array[7], "Outside of the range shall be left untouched");
+        for (int i = 1; i < 5; i++) {
+            assertTrue(array[2 + (i - 1) / 4] <= array[2 + i], "Each node shall be smaller than its children");
+        }
+    }
+
+    @Test
+    public void testSiftDownLeafOfHugeHeap() {
+        // The children of these leaves would be past Integer.MAX_VALUE. The start offset maps the leaf of the heap
+        // on a single element array.
+        int[][] cases = {{64, 34_000_000, 33_600_000}, {8, 300_000_000, 290_000_000},
+                {2, Integer.MAX_VALUE, (1 << 30) + 5}};
+        for (int[] c : cases) {
+            int[] array = new int[]{7};
+            IntHeap.siftDown(array, -c[2], c[1], c[2], c[0]);
+            assertEquals(7, array[0], "Leaf shall be left in place, arity " + c[0]);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.nbousquet.algorithms.heap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestLongHeap {
+
+    @Test
+    public void testNewHeapIsEmpty() {
+        LongHeap heap = new LongHeap();
+        assertTrue(heap.isEmpty(), "New heap shall be empty");
+        assertThrows(NoSuchElementException.class, heap::peek);
+        assertThrows(NoSuchElementException.class, heap::poll);
+        assertThrows(IllegalArgumentException.class, () -> new LongHeap(16, 6));
+    }
+
+    @Test
+    public void testOfferAllPollInAscendingOrder() {
+        for (int arity = 2; arity <= LongHeap.MAX_ARITY; arity *= 2) {
+            LongHeap heap = new LongHeap(0, arity);
+            long[] values = new Random(arity).longs(1000).toArray();
+            heap.offerAll(Arrays.copyOf(values, 10));
+            heap.offerAll(Arrays.copyOfRange(values, 10, values.length));
+            long[] expected = values.clone();
+            Arrays.sort(expected);
+            assertEquals(expected[0], heap.replaceTop(Long.MAX_VALUE), "Smallest value shall be replaced");
+            long[] polled = new long[values.length];
+            assertEquals(values.length, heap.pollN(polled, polled.length), "All values shall be polled");
+            expected[0] = Long.MAX_VALUE;
+            Arrays.sort(expected);
+            assertArrayEquals(expected, polled, "Values shall be polled in ascending order, arity " + arity);
+        }
+    }
+
+    @Test
+    public void testOfferPoll() {
+        LongHeap heap = new LongHeap();
+        heap.offer(Long.MIN_VALUE);
+        heap.offer(3L << 40);
+        heap.offer(-2);
+        assertEquals(Long.MIN_VALUE, heap.poll(), "Smallest value shall be polled first");
+        assertEquals(-2, heap.poll(), "Smallest value shall be polled first");
+        assertEquals(3L << 40, heap.poll(), "Smallest value shall be polled first");
+        assertTrue(heap.isEmpty(), "All values shall be polled");
+    }
+
+    @Test
+    public void testSiftDownLeafOfHugeHeap() {
+        // The children of these leaves would be past Integer.MAX_VALUE. The start offset maps the leaf of the heap
+        // on a single element array.
+        int[][] cases = {{64, 34_000_000, 33_600_000}, {8, 300_000_000, 290_000_000},
+                {2, Integer.MAX_VALUE, (1 << 30) + 5}};
+        for (int[] c : cases) {
+            long[] array = new long[]{7L << 40};
+            LongHeap.siftDown(array, -c[2], c[1], c[2], c[0]);
+            assertEquals(7L << 40, array[0], "Leaf shall be left in place, arity " + c[0]);
+        }
+    }
+}
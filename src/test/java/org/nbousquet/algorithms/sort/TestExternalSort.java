@@ -0,0 +1,140 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestExternalSort {
+
+    @TempDir
+    Path directory;
+
+    private Path write(String name, int[] values, ByteOrder byteOrder) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES).order(byteOrder);
+        buffer.asIntBuffer().put(values);
+        return Files.write(directory.resolve(name), buffer.array());
+    }
+
+    private int[] read(Path file, ByteOrder byteOrder) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(byteOrder);
+        int[] values = new int[buffer.remaining() / Integer.BYTES];
+        buffer.asIntBuffer().get(values);
+        return values;
+    }
+
+    private Path temporaryDirectory() throws IOException {
+        return Files.createDirectories(directory.resolve("tmp"));
+    }
+
+    @Test
+    public void testSortWithSeveralMergePasses() throws IOException {
+        int[] values = ThreadLocalRandom.current().ints(100_000).toArray();
+        Path input = write("input.bin", values, ByteOrder.BIG_ENDIAN);
+        Path output = directory.resolve("output.bin");
+
+        // Minimal budget: 16KB chunks, so 25 runs merged 3 by 3.
+        ExternalSort sort = new ExternalSort(ExternalSort.MIN_MEMORY_BUDGET, temporaryDirectory(),
+                ByteOrder.BIG_ENDIAN, new ForkJoinPool(1));
+        ExternalSort.Report report = sort.sort(input, output);
+
+        Arrays.sort(values);
+        assertArrayEquals(values, read(output, ByteOrder.BIG_ENDIAN));
+        assertEquals(100_000, report.elements);
+        assertEquals(25, report.runs);
+        assertTrue(report.mergePasses > 1, "Runs cannot be merged in a single pass");
+        assertEquals(0, Files.list(temporaryDirectory()).count(), "Temporary runs shall be deleted");
+    }
+
+    @Test
+    public void testSortInSingleMergePass() throws IOException {
+        int[] values = ThreadLocalRandom.current().ints(50_000, -100, 100).toArray();
+        Path input = write("input.bin", values, ByteOrder.LITTLE_ENDIAN);
+        Path output = directory.resolve("output.bin");
+
+        ExternalSort sort = new ExternalSort(64 * 1024, temporaryDirectory(), ByteOrder.LITTLE_ENDIAN,
+                new ForkJoinPool(4));
+        ExternalSort.Report report = sort.sort(input, output);
+
+        Arrays.sort(values);
+        assertArrayEquals(values, read(output, ByteOrder.LITTLE_ENDIAN));
+        assertEquals(1, report.mergePasses);
+    }
+
+    @Test
+    public void testSortEmptyFile() throws IOException {
+        Path input = write("input.bin", new int[0], ByteOrder.BIG_ENDIAN);
+        Path output = directory.resolve("output.bin");
+        new ExternalSort(ExternalSort.MIN_MEMORY_BUDGET, temporaryDirectory()).sort(input, output);
+        assertEquals(0, Files.size(output));
+    }
+
+    @Test
+    public void testSortWithMoreThreadsThanBudget() throws IOException {
+        int[] values = ThreadLocalRandom.current().ints(10_000).toArray();
+        Path input = write("input.bin", values, ByteOrder.BIG_ENDIAN);
+        Path output = directory.resolve("output.bin");
+        // 2 bytes of budget per thread: chunks are clamped to a merge buffer, 40KB of input make 10 runs.
+        ForkJoinPool pool = new ForkJoinPool(8192);
+        try {
+            ExternalSort sort = new ExternalSort(ExternalSort.MIN_MEMORY_BUDGET, temporaryDirectory(),
+                    ByteOrder.BIG_ENDIAN, pool);
+            ExternalSort.Report report = sort.sort(input, output);
+            assertEquals(10, report.runs);
+        } finally {
+            pool.shutdown();
+        }
+        Arrays.sort(values);
+        assertArrayEquals(values, read(output, ByteOrder.BIG_ENDIAN));
+    }
+
+    @Test
+    public void testInterruptedSort() throws IOException {
+        Path input = write("input.bin", ThreadLocalRandom.current().ints(10_000).toArray(), ByteOrder.BIG_ENDIAN);
+        // Single thread pool kept busy, so the chunks are still pending when the sort waits for them.
+        ForkJoinPool pool = new ForkJoinPool(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            ExternalSort sort = new ExternalSort(ExternalSort.MIN_MEMORY_BUDGET, temporaryDirectory(),
+                    ByteOrder.BIG_ENDIAN, pool);
+            Thread.currentThread().interrupt();
+            assertThrows(InterruptedIOException.class, () -> sort.sort(input, directory.resolve("output.bin")));
+            assertTrue(Thread.interrupted(), "Interrupt flag shall be restored");
+            assertEquals(0, Files.list(temporaryDirectory()).count(), "Temporary runs shall be deleted");
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() throws IOException {
+        Path input = Files.write(directory.resolve("input.bin"), new byte[7]);
+        ExternalSort sort = new ExternalSort(ExternalSort.MIN_MEMORY_BUDGET, temporaryDirectory());
+        assertThrows(IllegalArgumentException.class, () -> sort.sort(input, directory.resolve("output.bin")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExternalSort(ExternalSort.MIN_MEMORY_BUDGET - 1, directory));
+    }
+
+}
@@ -1,9 +1,15 @@
 package org.nbousquet.algorithms.sort;
 
 import org.junit.jupiter.api.Test;
-import org.nbousquet.algorithms.common.InsertionSort;
 import org.nbousquet.algorithms.test.InPlaceSortTester;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class TestFusionSort {
 
     @Test
@@ -11,4 +17,58 @@ public class TestFusionSort {
         InPlaceSortTester.assertInPlaceSort(FusionSort::sort);
     }
 
+    @Test
+    public void testFusionSortWithReusedBuffer() {
+        int[] buffer = new int[5000];
+        InPlaceSortTester.assertInPlaceSort(array -> FusionSort.sort(array, buffer));
+    }
+
+    @Test
+    public void testFusionSortBufferTooSmall() {
+        assertThrows(IllegalArgumentException.class, () -> FusionSort.sort(new int[10], new int[4]));
+    }
+
+    @Test
+    public void testFusionSortNaturalRuns() {
+        for (int runLength : new int[]{1, 5, 31, 32, 100, 5000}) {
+            // Alternate ascending and descending runs, with some noise in between.
+            int[] actual = new int[10000];
+            for (int i = 0; i < actual.length; i++) {
+                int offset = i % runLength;
+                boolean ascending = (i / runLength) % 2 == 0;
+                actual[i] = ascending ? offset : runLength - offset;
+                if (i % 997 == 0) {
+                    actual[i] = ThreadLocalRandom.current().nextInt(runLength + 1);
+                }
+            }
+            int[] expected = actual.clone();
+            Arrays.sort(expected);
+            FusionSort.sort(actual);
+            assertArrayEquals(expected, actual, "Runs of length " + runLength);
+        }
+    }
+
+    @Test
+    public void testParallelFusionSort() {
+        InPlaceSortTester.assertInPlaceSort(FusionSort::parallelSort);
+    }
+
+    @Test
+    public void testParallelFusionSortSmallThreshold() {
+        // A tiny threshold force the parallel sort and merge paths even on the small test arrays.
+        InPlaceSortTester.assertInPlaceSort(array -> FusionSort.parallelSort(array, ForkJoinPool.commonPool(), 1));
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            InPlaceSortTester.assertInPlaceSort(array -> FusionSort.parallelSort(array, pool, 7));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelFusionSortInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FusionSort.parallelSort(new int[]{2, 1}, ForkJoinPool.commonPool(), 0));
+    }
+
 }
@@ -3,6 +3,8 @@ package org.nbousquet.algorithms.sort;
 import org.junit.jupiter.api.Test;
 import org.nbousquet.algorithms.test.InPlaceSortTester;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
 public class TestHeapSort {
 
     @Test
@@ -10,4 +12,11 @@ public class TestHeapSort {
         InPlaceSortTester.assertInPlaceSort(HeapSort::sort);
     }
 
+    @Test
+    public void testHeapSortRange() {
+        int[] actual = new int[]{9, 8, 5, 1, 4, 3, 2, 0};
+        HeapSort.sort(actual, 2, 6);
+        assertArrayEquals(new int[]{9, 8, 1, 2, 3, 4, 5, 0}, actual, "Only the range shall be sorted");
+    }
+
 }
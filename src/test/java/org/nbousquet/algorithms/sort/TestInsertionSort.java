@@ -1,9 +1,10 @@
 package org.nbousquet.algorithms.sort;
 
 import org.junit.jupiter.api.Test;
-import org.nbousquet.algorithms.common.InsertionSort;
 import org.nbousquet.algorithms.test.InPlaceSortTester;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
 public class TestInsertionSort {
 
     @Test
@@ -11,4 +12,11 @@ public class TestInsertionSort {
         InPlaceSortTester.assertInPlaceSort(InsertionSort::sort);
     }
 
+    @Test
+    public void testInsertionSortRange() {
+        int[] actual = new int[]{9, 8, 5, 1, 4, 3, 2, 0};
+        InsertionSort.sort(actual, 2, 6);
+        assertArrayEquals(new int[]{9, 8, 1, 2, 3, 4, 5, 0}, actual, "Only the range shall be sorted");
+    }
+
 }
@@ -0,0 +1,110 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+import org.nbousquet.algorithms.test.InPlaceSortTester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestInstrumentedSort {
+
+    @Test
+    public void testEveryAlgorithmSorts() {
+        for (InstrumentedSort.Algorithm algorithm : InstrumentedSort.Algorithm.values()) {
+            InPlaceSortTester.assertInPlaceSort(array -> InstrumentedSort.sort(algorithm, array, null));
+        }
+    }
+
+    @Test
+    public void testListenerReceivesMetrics() {
+        int[] array = new Random(17).ints(1000).toArray();
+        List<SortMetrics> reported = new ArrayList<>();
+        SortMetrics metrics = InstrumentedSort.sort(InstrumentedSort.Algorithm.HEAP_SORT, array, reported::add);
+        assertEquals(List.of(metrics), reported, "Listener shall be called once with the metrics");
+        assertEquals(InstrumentedSort.Algorithm.HEAP_SORT, metrics.algorithm, "Algorithm shall be reported");
+        assertEquals(1000, metrics.length, "Length shall be reported");
+        assertTrue(metrics.comparisons > 0, "Comparisons shall be counted");
+        assertTrue(metrics.writes >= 2 * metrics.swaps, "Each swap shall count 2 writes");
+        assertEquals(1, metrics.maxRecursionDepth, "Heap sort shall not recurse");
+        assertTrue(metrics.nanos > 0, "Wall time shall be measured");
+    }
+
+    @Test
+    public void testBubbleSortReversedCounts() {
+        int n = 100;
+        SortMetrics metrics = InstrumentedSort.sort(InstrumentedSort.Algorithm.BUBBLE_SORT, reversed(n), null);
+        assertEquals(n * (n - 1) / 2, metrics.comparisons, "Every pair shall be compared once");
+        assertEquals(n * (n - 1) / 2, metrics.swaps, "Every pair shall be swapped once");
+        assertEquals(n * (n - 1), metrics.writes, "Each swap shall write 2 elements");
+    }
+
+    @Test
+    public void testInsertionSortCounts() {
+        int n = 100;
+        SortMetrics sorted = InstrumentedSort.sort(InstrumentedSort.Algorithm.INSERTION_SORT,
+                IntStream.range(0, n).toArray(), null);
+        assertEquals(n - 1, sorted.comparisons, "Sorted input shall cost one comparison per element");
+        assertEquals(0, sorted.swaps, "Insertion sort shall shift rather than swap");
+
+        SortMetrics reversed = InstrumentedSort.sort(InstrumentedSort.Algorithm.INSERTION_SORT, reversed(n), null);
+        assertEquals(n * (n - 1) / 2, reversed.comparisons, "Every element shall be compared to all the previous ones");
+        assertEquals(n * (n - 1) / 2 + n - 1, reversed.writes, "Every shift and insertion shall be a write");
+    }
+
+    @Test
+    public void testPartitionMetrics() {
+        int n = 100_000;
+        SortMetrics metrics = InstrumentedSort.sort(InstrumentedSort.Algorithm.INTRO_SORT,
+                new Random(42).ints(n).toArray(), null);
+        assertTrue(metrics.partitions() > 0, "Partitions shall be recorded");
+        assertTrue(metrics.maxRecursionDepth > 1, "Recursion shall be tracked");
+        assertTrue(metrics.maxRecursionDepth <= 2 * QuickSort.log2(n) + 1, "Depth shall be bounded by the depth limit");
+        long balanced = Arrays.stream(metrics.partitionBalance, SortMetrics.BALANCE_BUCKETS / 2,
+                SortMetrics.BALANCE_BUCKETS).sum();
+        assertTrue(balanced > metrics.partitions() / 2, "Median pivots shall mostly split evenly: " + metrics);
+
+        SortMetrics threeWay = InstrumentedSort.sort(InstrumentedSort.Algorithm.THREE_WAY_QUICK_SORT,
+                new Random(42).ints(n).toArray(), null);
+        assertTrue(threeWay.partitions() > 0, "Partitions shall be recorded");
+    }
+
+    @Test
+    public void testQuickSortDuplicatesAreDegenerate() {
+        // Lomuto puts every element equal to the pivot on the same side: all equal values give degenerate partitions.
+        int n = 200;
+        SortMetrics metrics = InstrumentedSort.sort(InstrumentedSort.Algorithm.QUICK_SORT, new int[n], null);
+        assertEquals(n - 1, metrics.partitionBalance[0], "Every partition shall be degenerate: " + metrics);
+        assertEquals(n - 1, metrics.partitions(), "One partition per element but the last");
+        assertEquals(n, metrics.maxRecursionDepth, "Recursion shall go as deep as the array");
+    }
+
+    @Test
+    public void testFusionSortRunMetrics() {
+        int n = 2000;
+        SortMetrics sorted = InstrumentedSort.sort(InstrumentedSort.Algorithm.FUSION_SORT,
+                IntStream.range(0, n).toArray(), null);
+        assertEquals(1, sorted.runs, "Sorted input shall be a single run");
+        assertEquals(n - 1, sorted.comparisons, "Sorted input shall cost one comparison per element");
+        assertEquals(0, sorted.writes, "Sorted input shall not be written");
+
+        SortMetrics reversed = InstrumentedSort.sort(InstrumentedSort.Algorithm.FUSION_SORT, reversed(n), null);
+        assertEquals(1, reversed.runs, "Strictly descending input shall be a single run");
+        assertEquals(n / 2, reversed.swaps, "Descending run shall be reversed in place");
+
+        // 0..999 then 500..1499: 501 elements of each run are already in place.
+        int[] overlapping = IntStream.concat(IntStream.range(0, 1000), IntStream.range(500, 1500)).toArray();
+        SortMetrics merged = InstrumentedSort.sort(InstrumentedSort.Algorithm.FUSION_SORT, overlapping, null);
+        assertEquals(2, merged.runs, "Two natural runs shall be found");
+        assertEquals(1002, merged.gallopSkipped, "Galloping shall skip the elements already in place");
+        assertEquals(998, merged.writes, "Only the overlapping elements shall be merged");
+    }
+
+    private static int[] reversed(int n) {
+        return IntStream.range(0, n).map(i -> n - i).toArray();
+    }
+}
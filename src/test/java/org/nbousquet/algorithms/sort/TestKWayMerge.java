@@ -0,0 +1,78 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestKWayMerge {
+
+    @Test
+    public void testMergeNoRun() {
+        KWayMerge merge = new KWayMerge();
+        assertFalse(merge.hasNext(), "Merge of no run shall be empty");
+        assertThrows(NoSuchElementException.class, merge::nextInt);
+        assertArrayEquals(new int[0], KWayMerge.merge(), "Merge of no run shall be empty");
+    }
+
+    @Test
+    public void testMergeEveryRunCount() {
+        Random random = new Random(15);
+        // Odd counts exercise incomplete trees, empty runs lose every match from the start.
+        for (int k = 1; k <= 40; k++) {
+            int[][] runs = new int[k][];
+            for (int i = 0; i < k; i++) {
+                runs[i] = random.ints(random.nextInt(20), -50, 50).sorted().toArray();
+            }
+            int[] expected = Arrays.stream(runs).flatMapToInt(Arrays::stream).sorted().toArray();
+            assertArrayEquals(expected, KWayMerge.merge(runs), "Merge of " + k + " runs shall be sorted");
+        }
+    }
+
+    @Test
+    public void testMergeThousandsOfRuns() {
+        Random random = new Random(42);
+        int[][] runs = new int[5000][];
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = random.ints(random.nextInt(10)).sorted().toArray();
+        }
+        int[] expected = Arrays.stream(runs).flatMapToInt(Arrays::stream).sorted().toArray();
+        assertArrayEquals(expected, KWayMerge.merge(runs), "Merge of thousands of runs shall be sorted");
+    }
+
+    @Test
+    public void testPullMixedSources() {
+        IntBuffer buffer = IntBuffer.wrap(new int[]{99, 2, 5, 8, 99});
+        buffer.position(1).limit(4);
+        PrimitiveIterator.OfInt iterator = IntStream.of(Integer.MIN_VALUE, 3, Integer.MAX_VALUE).iterator();
+        KWayMerge merge = new KWayMerge(List.of(KWayMerge.of(buffer), iterator, KWayMerge.of(new int[]{1, 3, 9})));
+
+        int[] expected = new int[]{Integer.MIN_VALUE, 1, 2, 3, 3, 5, 8, 9, Integer.MAX_VALUE};
+        for (int value : expected) {
+            assertTrue(merge.hasNext(), "Merge shall not be exhausted");
+            assertEquals(value, merge.nextInt(), "Merged ints shall be pulled in ascending order");
+        }
+        assertFalse(merge.hasNext(), "Merge shall be exhausted");
+        assertEquals(1, buffer.position(), "Buffer position shall be left untouched");
+    }
+
+    @Test
+    public void testDrainTo() {
+        KWayMerge merge = KWayMerge.of(new int[]{1, 4, 7}, new int[]{2, 5}, new int[]{3, 6});
+        int[] destination = new int[10];
+        assertEquals(4, merge.drainTo(destination, 1, 4), "Requested length shall be drained");
+        assertEquals(3, merge.drainTo(destination, 5, 5), "Only the remaining ints shall be drained");
+        assertEquals(0, merge.drainTo(destination, 0, 10), "Exhausted merge shall drain nothing");
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 0, 0}, destination, "Drained ints shall be sorted");
+        assertThrows(IllegalArgumentException.class, () -> merge.drainTo(destination, 8, 3));
+        assertThrows(IllegalArgumentException.class, () -> merge.drainTo(destination, -1, 3));
+    }
+
+}
@@ -0,0 +1,139 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestObjectSort {
+
+    /**
+     * Element sorted by its key, the index remembering its original position to check stability.
+     */
+    private static class Item {
+        final long key;
+        final int index;
+
+        Item(long key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        @Override
+        public String toString() {
+            return key + "@" + index;
+        }
+    }
+
+    private static final Comparator<Item> BY_KEY = Comparator.comparingLong(item -> item.key);
+
+    @Test
+    public void testMergeSort() {
+        assertSorts(array -> ObjectSort.mergeSort(array, BY_KEY), true);
+        assertSorts(array -> ObjectSort.mergeSortByLongKey(array, item -> item.key), true);
+        assertSortsIntKeys(array -> ObjectSort.mergeSortByIntKey(array, item -> (int) item.key), true);
+    }
+
+    @Test
+    public void testQuickSort() {
+        assertSorts(array -> ObjectSort.quickSort(array, BY_KEY), false);
+        assertSorts(array -> ObjectSort.quickSortByLongKey(array, item -> item.key), false);
+        assertSortsIntKeys(array -> ObjectSort.quickSortByIntKey(array, item -> (int) item.key), false);
+    }
+
+    @Test
+    public void testSortLists() {
+        Random random = new Random(18);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(Integer.toString(random.nextInt(500)));
+        }
+        List<String> arrayList = new ArrayList<>(expected);
+        List<String> linkedList = new LinkedList<>(expected);
+        expected.sort(Comparator.naturalOrder());
+
+        ObjectSort.mergeSort(arrayList, Comparator.naturalOrder());
+        assertEquals(expected, arrayList, "Array list shall be sorted");
+        ObjectSort.quickSort(linkedList, Comparator.naturalOrder());
+        assertEquals(expected, linkedList, "Linked list shall be sorted");
+
+        List<String> byLength = new LinkedList<>(expected);
+        ObjectSort.mergeSortByIntKey(byLength, String::length);
+        expected.sort(Comparator.comparingInt(String::length));
+        assertEquals(expected, byLength, "Stable sort by length shall keep the natural order of equal lengths");
+
+        List<String> byHash = new ArrayList<>(expected);
+        ObjectSort.quickSortByLongKey(byHash, String::hashCode);
+        expected.sort(Comparator.comparingInt(String::hashCode));
+        assertEquals(expected, byHash, "List shall be sorted by the long key");
+    }
+
+    @Test
+    public void testNullArguments() {
+        ObjectSort.mergeSort((Item[]) null, BY_KEY);
+        ObjectSort.quickSort((List<Item>) null, BY_KEY);
+        ObjectSort.mergeSortByIntKey((Item[]) null, item -> 0);
+        ObjectSort.quickSortByLongKey((List<Item>) null, item -> 0);
+        assertThrows(NullPointerException.class, () -> ObjectSort.mergeSort(new Item[0], null));
+        assertThrows(NullPointerException.class, () -> ObjectSort.quickSortByIntKey(new Item[0], null));
+    }
+
+    private static void assertSorts(Consumer<Item[]> sort, boolean stable) {
+        Random random = new Random(42);
+        // Few distinct keys exercise stability and the 3 way partition, extreme keys the long comparisons.
+        long[] bounds = {2, 10, 1000, Long.MAX_VALUE};
+        for (int size : new int[]{0, 1, 2, 5, 24, 25, 100, 1000, 100_000}) {
+            for (long bound : bounds) {
+                Item[] array = new Item[size];
+                for (int i = 0; i < size; i++) {
+                    long key = bound == Long.MAX_VALUE ? random.nextLong() : random.nextInt((int) bound);
+                    array[i] = new Item(key, i);
+                }
+                assertSorted(sort, stable, array);
+            }
+        }
+        // Presorted and reversed inputs.
+        Item[] ascending = new Item[10_000];
+        Item[] descending = new Item[10_000];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[i] = new Item(i, i);
+            descending[i] = new Item(-i, i);
+        }
+        assertSorted(sort, stable, ascending);
+        assertSorted(sort, stable, descending);
+    }
+
+    private static void assertSortsIntKeys(Consumer<Item[]> sort, boolean stable) {
+        Random random = new Random(7);
+        Item[] array = new Item[50_000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = new Item(i % 3 == 0 ? random.nextInt() : random.nextInt(100) - 50, i);
+        }
+        assertSorted(sort, stable, array);
+    }
+
+    private static void assertSorted(Consumer<Item[]> sort, boolean stable, Item[] actual) {
+        Item[] expected = actual.clone();
+        // Arrays.sort on objects is stable.
+        Arrays.sort(expected, BY_KEY);
+        sort.accept(actual);
+        for (int i = 0; i < actual.length; i++) {
+            assertEquals(expected[i].key, actual[i].key, "Keys shall be sorted at " + i);
+        }
+        if (stable) {
+            assertArrayEquals(expected, actual, "Equal keys shall keep their order");
+        } else {
+            Item[] elements = actual.clone();
+            Arrays.sort(elements, Comparator.comparingInt(item -> item.index));
+            Arrays.sort(expected, Comparator.comparingInt(item -> item.index));
+            assertArrayEquals(expected, elements, "Every element shall be kept");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+import org.nbousquet.algorithms.test.InPlaceSortTester;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestOffHeapSort {
+
+    @Test
+    public void testSortHeapIntBuffer() {
+        InPlaceSortTester.assertInPlaceSort(array -> OffHeapSort.sort(array == null ? null : IntBuffer.wrap(array)));
+    }
+
+    @Test
+    public void testRadixSortHeapIntBuffer() {
+        IntBuffer scratch = IntBuffer.allocate(10_000);
+        InPlaceSortTester.assertInPlaceSort(
+                array -> OffHeapSort.radixSort(array == null ? null : IntBuffer.wrap(array), scratch));
+    }
+
+    @Test
+    public void testSortDirectByteBuffer() {
+        for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            int[] values = ThreadLocalRandom.current().ints(100_000).toArray();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(values.length * Integer.BYTES).order(byteOrder);
+            buffer.asIntBuffer().put(values);
+            ByteBuffer radixBuffer = ByteBuffer.allocateDirect(buffer.capacity()).order(byteOrder);
+            radixBuffer.put(buffer.duplicate()).clear();
+
+            OffHeapSort.sort(buffer);
+            OffHeapSort.radixSort(radixBuffer, ByteBuffer.allocateDirect(buffer.capacity()).asIntBuffer());
+
+            Arrays.sort(values);
+            int[] actual = new int[values.length];
+            buffer.asIntBuffer().get(actual);
+            assertArrayEquals(values, actual, "Introspective sort in " + byteOrder);
+            radixBuffer.asIntBuffer().get(actual);
+            assertArrayEquals(values, actual, "Radix sort in " + byteOrder);
+        }
+    }
+
+    @Test
+    public void testOnlyRemainingElementsAreSorted() {
+        IntBuffer buffer = IntBuffer.wrap(new int[]{9, 8, 5, 1, 4, 3, 2, 0});
+        buffer.position(2).limit(7);
+        OffHeapSort.sort(buffer);
+        assertArrayEquals(new int[]{9, 8, 1, 2, 3, 4, 5, 0}, buffer.array());
+        assertEquals(2, buffer.position(), "Position shall be unchanged");
+        assertEquals(7, buffer.limit(), "Limit shall be unchanged");
+
+        buffer = IntBuffer.wrap(new int[]{9, 8, 5, 1, 4, 3, 2, 0});
+        buffer.position(2).limit(7);
+        OffHeapSort.radixSort(buffer, IntBuffer.allocate(5));
+        assertArrayEquals(new int[]{9, 8, 1, 2, 3, 4, 5, 0}, buffer.array());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> OffHeapSort.sort(ByteBuffer.allocate(7)));
+        assertThrows(IllegalArgumentException.class,
+                () -> OffHeapSort.radixSort(IntBuffer.allocate(10), IntBuffer.allocate(9)));
+        // Large enough capacity, but puts are bounded by the limit.
+        assertThrows(IllegalArgumentException.class,
+                () -> OffHeapSort.radixSort(IntBuffer.allocate(10), IntBuffer.allocate(20).limit(9)));
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class TestPrimitiveSort {
+
+    private static final int[] SIZES = new int[]{0, 1, 2, 3, 10, 63, 64, 255, 256, 1000, 100000};
+
+    @Test
+    public void testNullArrays() {
+        PrimitiveSort.sort((long[]) null);
+        PrimitiveSort.sort((double[]) null);
+        PrimitiveSort.sort((float[]) null);
+        PrimitiveSort.sort((short[]) null);
+        PrimitiveSort.sort((char[]) null);
+        PrimitiveSort.sort((byte[]) null);
+    }
+
+    @Test
+    public void testLong() {
+        SplittableRandom random = new SplittableRandom();
+        for (int size : SIZES) {
+            long[] actual = random.longs(size).toArray();
+            long[] expected = actual.clone();
+            Arrays.sort(expected);
+            PrimitiveSort.sort(actual);
+            assertArrayEquals(expected, actual, "Random longs of size " + size);
+
+            long[] fewDistinct = random.longs(size, -3, 3).toArray();
+            expected = fewDistinct.clone();
+            Arrays.sort(expected);
+            PrimitiveSort.sort(fewDistinct);
+            assertArrayEquals(expected, fewDistinct, "Few distinct longs of size " + size);
+        }
+    }
+
+    @Test
+    public void testDouble() {
+        SplittableRandom random = new SplittableRandom();
+        double[] specialValues = new double[]{Double.NaN, -0.0d, 0.0d, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE, Double.longBitsToDouble(0x7ff8000000000001L)};
+        for (int size : SIZES) {
+            double[] actual = new double[size];
+            for (int i = 0; i < size; i++) {
+                actual[i] = random.nextInt(4) == 0 ? specialValues[random.nextInt(specialValues.length)]
+                        : random.nextDouble(-10, 10);
+            }
+            double[] expected = actual.clone();
+            Arrays.sort(expected);
+            PrimitiveSort.sort(actual);
+            assertArrayEquals(expected, actual, "Doubles of size " + size);
+        }
+    }
+
+    @Test
+    public void testDoubleOnlySpecialValues() {
+        double[] actual = new double[]{Double.NaN, 0.0d, -0.0d, Double.NaN, 0.0d, -0.0d};
+        PrimitiveSort.sort(actual);
+        assertArrayEquals(new double[]{-0.0d, -0.0d, 0.0d, 0.0d, Double.NaN, Double.NaN}, actual);
+    }
+
+    @Test
+    public void testFloat() {
+        SplittableRandom random = new SplittableRandom();
+        float[] specialValues = new float[]{Float.NaN, -0.0f, 0.0f, Float.NEGATIVE_INFINITY,
+                Float.POSITIVE_INFINITY, Float.MIN_VALUE, -Float.MAX_VALUE};
+        for (int size : SIZES) {
+            float[] actual = new float[size];
+            for (int i = 0; i < size; i++) {
+                actual[i] = random.nextInt(4) == 0 ? specialValues[random.nextInt(specialValues.length)]
+                        : (float) random.nextDouble(-10, 10);
+            }
+            float[] expected = actual.clone();
+            Arrays.sort(expected);
+            PrimitiveSort.sort(actual);
+            assertArrayEquals(expected, actual, "Floats of size " + size);
+        }
+    }
+
+    @Test
+    public void testSmallDomainTypes() {
+        SplittableRandom random = new SplittableRandom();
+        for (int size : SIZES) {
+            short[] shorts = new short[size];
+            char[] chars = new char[size];
+            byte[] bytes = new byte[size];
+            for (int i = 0; i < size; i++) {
+                int value = random.nextInt();
+                shorts[i] = (short) value;
+                chars[i] = (char) value;
+                bytes[i] = (byte) value;
+            }
+            short[] expectedShorts = shorts.clone();
+            char[] expectedChars = chars.clone();
+            byte[] expectedBytes = bytes.clone();
+            Arrays.sort(expectedShorts);
+            Arrays.sort(expectedChars);
+            Arrays.sort(expectedBytes);
+            PrimitiveSort.sort(shorts);
+            PrimitiveSort.sort(chars);
+            PrimitiveSort.sort(bytes);
+            assertArrayEquals(expectedShorts, shorts, "Shorts of size " + size);
+            assertArrayEquals(expectedChars, chars, "Chars of size " + size);
+            assertArrayEquals(expectedBytes, bytes, "Bytes of size " + size);
+        }
+    }
+
+}
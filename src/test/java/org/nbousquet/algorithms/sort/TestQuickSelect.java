@@ -0,0 +1,107 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestQuickSelect {
+
+    @Test
+    public void testSelect() {
+        for (int size : new int[]{1, 2, 5, 17, 100, 10_000}) {
+            int[] array = ThreadLocalRandom.current().ints(size, 0, size / 2 + 1).toArray();
+            int[] sorted = array.clone();
+            Arrays.sort(sorted);
+            for (int k : new int[]{0, size / 2, size - 1}) {
+                int[] actual = array.clone();
+                assertEquals(sorted[k], QuickSelect.select(actual, k), "Rank " + k + " of size " + size);
+                for (int i = 0; i < size; i++) {
+                    assertTrue(i >= k || actual[i] <= actual[k], "Elements before k shall be lower or equal");
+                    assertTrue(i <= k || actual[i] >= actual[k], "Elements after k shall be greater or equal");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSelectAdversarialInputs() {
+        int size = 1_000_000;
+        int[] allEqual = new int[size];
+        int[] sorted = new int[size];
+        int[] organPipe = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+            organPipe[i] = Math.min(i, size - i);
+        }
+        assertEquals(0, QuickSelect.select(allEqual, size / 2));
+        assertEquals(size / 2, QuickSelect.select(sorted, size / 2));
+        int[] expected = organPipe.clone();
+        Arrays.sort(expected);
+        assertEquals(expected[size / 3], QuickSelect.select(organPipe, size / 3));
+    }
+
+    @Test
+    public void testSelectInvalidRank() {
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.select(new int[3], 3));
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.select(new int[3], -1));
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.select(new int[0], 0));
+    }
+
+    @Test
+    public void testPartialSort() {
+        int[] array = ThreadLocalRandom.current().ints(10_000, 0, 1000).toArray();
+        int[] sorted = array.clone();
+        Arrays.sort(sorted);
+        for (int k : new int[]{0, 1, 10, 1000, 10_000}) {
+            int[] actual = array.clone();
+            QuickSelect.partialSort(actual, k);
+            assertArrayEquals(Arrays.copyOf(sorted, k), Arrays.copyOf(actual, k), "First " + k + " elements");
+        }
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.partialSort(new int[3], 4));
+    }
+
+    @Test
+    public void testTopK() {
+        int[] array = ThreadLocalRandom.current().ints(10_000).toArray();
+        int[] copy = array.clone();
+        int[] sorted = array.clone();
+        Arrays.sort(sorted);
+        for (int k : new int[]{0, 1, 10, 1000, 10_000}) {
+            int[] expected = new int[k];
+            for (int i = 0; i < k; i++) {
+                expected[i] = sorted[sorted.length - 1 - i];
+            }
+            assertArrayEquals(expected, QuickSelect.topK(array, k), "Top " + k);
+        }
+        assertArrayEquals(copy, array, "Array shall be left untouched");
+        assertThrows(IllegalArgumentException.class, () -> QuickSelect.topK(new int[3], 4));
+    }
+
+    @Test
+    public void testStreamingTopK() {
+        TopK topK = new TopK(3);
+        assertArrayEquals(new int[]{}, topK.toSortedArray());
+        topK.add(5);
+        topK.add(1);
+        assertEquals(2, topK.size());
+        assertArrayEquals(new int[]{5, 1}, topK.toSortedArray());
+        topK.add(7);
+        topK.add(3);
+        topK.add(7);
+        topK.add(-2);
+        assertEquals(3, topK.size());
+        assertArrayEquals(new int[]{7, 7, 5}, topK.toSortedArray());
+
+        TopK empty = new TopK(0);
+        empty.add(3);
+        assertEquals(0, empty.size());
+        assertThrows(IllegalArgumentException.class, () -> new TopK(-1));
+    }
+
+}
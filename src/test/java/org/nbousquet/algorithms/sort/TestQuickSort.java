@@ -3,6 +3,16 @@ package org.nbousquet.algorithms.sort;
 import org.junit.jupiter.api.Test;
 import org.nbousquet.algorithms.test.InPlaceSortTester;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class TestQuickSort {
 
     @Test
@@ -10,4 +20,151 @@ public class TestQuickSort {
         InPlaceSortTester.assertInPlaceSort(QuickSort::sort);
     }
 
+    @Test
+    public void testIntroSort() {
+        InPlaceSortTester.assertInPlaceSort(QuickSort::introSort);
+    }
+
+    @Test
+    public void testIntroSortBlockPartition() {
+        InPlaceSortTester.assertInPlaceSort(array -> QuickSort.introSort(array, QuickSort.PartitionStrategy.BLOCK));
+        for (int size : new int[]{1000, 100_000}) {
+            for (int bound : new int[]{2, 100, Integer.MAX_VALUE}) {
+                int[] actual = ThreadLocalRandom.current().ints(size, 0, bound).toArray();
+                int[] expected = actual.clone();
+                Arrays.sort(expected);
+                QuickSort.introSort(actual, QuickSort.PartitionStrategy.BLOCK);
+                assertArrayEquals(expected, actual, "Size " + size + " with values under " + bound);
+            }
+        }
+    }
+
+    @Test
+    public void testBlockPartition() {
+        int[] leftOffsets = new int[QuickSort.PARTITION_BLOCK_SIZE];
+        int[] rightOffsets = new int[QuickSort.PARTITION_BLOCK_SIZE];
+        for (int size : new int[]{1, 2, 255, 256, 257, 1000, 10_000}) {
+            int[] array = ThreadLocalRandom.current().ints(size, 0, size / 4 + 1).toArray();
+            int pivotIndex = ThreadLocalRandom.current().nextInt(size);
+            int pivotValue = array[pivotIndex];
+            int[] expected = array.clone();
+            Arrays.sort(expected);
+
+            int result = QuickSort.blockPartition(array, 0, size - 1, pivotIndex, leftOffsets, rightOffsets);
+            assertEquals(pivotValue, array[result], "Pivot shall be at the returned index");
+            for (int i = 0; i < size; i++) {
+                assertTrue(i >= result || array[i] < pivotValue, "Lower elements before the pivot");
+                assertTrue(i <= result || array[i] >= pivotValue, "Greater or equal elements after the pivot");
+            }
+            int[] sorted = array.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(expected, sorted, "Partition shall be a permutation");
+        }
+    }
+
+    @Test
+    public void testIntroSortAdversarialInputs() {
+        int size = 1_000_000;
+        int[] allEqual = new int[size];
+        int[] sorted = new int[size];
+        int[] reversed = new int[size];
+        int[] organPipe = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+            reversed[i] = size - i;
+            organPipe[i] = Math.min(i, size - i);
+        }
+        // All equal elements make every partition as unbalanced as possible: heap sort fallback must kick in.
+        for (int[] actual : new int[][]{allEqual, sorted, reversed, organPipe}) {
+            int[] expected = actual.clone();
+            Arrays.sort(expected);
+            int[] blockActual = actual.clone();
+            QuickSort.introSort(actual);
+            assertArrayEquals(expected, actual);
+            QuickSort.introSort(blockActual, QuickSort.PartitionStrategy.BLOCK);
+            assertArrayEquals(expected, blockActual);
+        }
+    }
+
+    @Test
+    public void testParallelQuickSort() {
+        InPlaceSortTester.assertInPlaceSort(QuickSort::parallelSort);
+    }
+
+    @Test
+    public void testParallelQuickSortSmallThresholds() {
+        // Tiny thresholds force parallel tasks and block partitions even on the small test arrays.
+        InPlaceSortTester.assertInPlaceSort(array -> QuickSort.parallelSort(array, ForkJoinPool.commonPool(), 1, 2));
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            InPlaceSortTester.assertInPlaceSort(array -> QuickSort.parallelSort(array, pool, 7, 64));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelQuickSortDuplicateHeavy() {
+        int[] actual = new int[200_000];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = ThreadLocalRandom.current().nextInt(4);
+        }
+        int[] expected = actual.clone();
+        Arrays.sort(expected);
+        QuickSort.parallelSort(actual, ForkJoinPool.commonPool(), 1000, 10_000);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testParallelQuickSortInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class,
+                () -> QuickSort.parallelSort(new int[]{2, 1}, ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    public void testSortWithPayloads() {
+        InPlaceSortTester.assertInPlaceSort(keys -> QuickSort.sort(keys, new int[0][]));
+        for (int size : new int[]{0, 1, 2, 10, 1000, 100_000}) {
+            int[] keys = new int[size];
+            int[] rows = new int[size];
+            int[] squares = new int[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = ThreadLocalRandom.current().nextInt(size / 3 + 1);
+                rows[i] = i;
+                squares[i] = keys[i] * keys[i];
+            }
+            int[] originalKeys = keys.clone();
+            QuickSort.sort(keys, rows, squares);
+            for (int i = 0; i < size; i++) {
+                assertTrue(i == 0 || keys[i - 1] <= keys[i], "Keys shall be sorted");
+                assertEquals(originalKeys[rows[i]], keys[i], "Rows shall follow the keys");
+                assertEquals(keys[i] * keys[i], squares[i], "Every payload shall follow the keys");
+            }
+            int[] sortedRows = rows.clone();
+            Arrays.sort(sortedRows);
+            for (int i = 0; i < size; i++) {
+                assertEquals(i, sortedRows[i], "Rows shall be a permutation");
+            }
+        }
+    }
+
+    @Test
+    public void testSortWithPayloadOfWrongSize() {
+        assertThrows(IllegalArgumentException.class, () -> QuickSort.sort(new int[3], new int[3], new int[2]));
+    }
+
+    @Test
+    public void testSortIndices() {
+        assertNull(QuickSort.sortIndices(null));
+        int[] keys = new int[]{30, 10, 20, 0};
+        assertArrayEquals(new int[]{3, 1, 2, 0}, QuickSort.sortIndices(keys));
+        assertArrayEquals(new int[]{30, 10, 20, 0}, keys, "Keys shall be left untouched");
+
+        int[] randomKeys = ThreadLocalRandom.current().ints(10_000).toArray();
+        int[] permutation = QuickSort.sortIndices(randomKeys);
+        for (int i = 1; i < permutation.length; i++) {
+            assertTrue(randomKeys[permutation[i - 1]] <= randomKeys[permutation[i]]);
+        }
+    }
+
 }
@@ -0,0 +1,95 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+import org.nbousquet.algorithms.test.InPlaceSortTester;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestRadixSort {
+
+    @Test
+    public void testRadixSort() {
+        InPlaceSortTester.assertInPlaceSort(RadixSort::sort);
+    }
+
+    @Test
+    public void testRadixSortWithReusedBuffer() {
+        int[] buffer = new int[10000];
+        InPlaceSortTester.assertInPlaceSort(array -> RadixSort.sort(array, buffer));
+    }
+
+    @Test
+    public void testRadixSortBufferTooSmall() {
+        assertThrows(IllegalArgumentException.class, () -> RadixSort.sort(new int[10], new int[9]));
+        assertThrows(IllegalArgumentException.class, () -> RadixSort.sort(new long[10], new long[9]));
+    }
+
+    @Test
+    public void testRadixSortInPlace() {
+        InPlaceSortTester.assertInPlaceSort(RadixSort::sortInPlace);
+    }
+
+    @Test
+    public void testSignedIntKeys() {
+        int[] actual = ThreadLocalRandom.current().ints(10000).toArray();
+        actual[0] = Integer.MIN_VALUE;
+        actual[1] = Integer.MAX_VALUE;
+        actual[2] = 0;
+        actual[3] = -1;
+        int[] expected = actual.clone();
+        Arrays.sort(expected);
+
+        int[] inPlace = actual.clone();
+        RadixSort.sort(actual);
+        assertArrayEquals(expected, actual, "LSD radix sort");
+        RadixSort.sortInPlace(inPlace);
+        assertArrayEquals(expected, inPlace, "In place radix sort");
+    }
+
+    @Test
+    public void testSignedLongKeys() {
+        for (int size : new int[]{0, 1, 2, 31, 10000}) {
+            long[] actual = ThreadLocalRandom.current().longs(size).toArray();
+            if (size > 2) {
+                actual[0] = Long.MIN_VALUE;
+                actual[1] = Long.MAX_VALUE;
+                actual[2] = -1;
+            }
+            long[] expected = actual.clone();
+            Arrays.sort(expected);
+
+            long[] inPlace = actual.clone();
+            RadixSort.sort(actual);
+            assertArrayEquals(expected, actual, "LSD radix sort of size " + size);
+            RadixSort.sortInPlace(inPlace);
+            assertArrayEquals(expected, inPlace, "In place radix sort of size " + size);
+        }
+    }
+
+    @Test
+    public void testSharedDigitsAreSkipped() {
+        // Only the second digit differs, the other passes are skipped.
+        long[] actual = new long[1000];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = 0x7000_0000_0000_0000L | ((long) ((i * 31) % 256) << 8);
+        }
+        long[] expected = actual.clone();
+        Arrays.sort(expected);
+        long[] inPlace = actual.clone();
+        RadixSort.sort(actual);
+        assertArrayEquals(expected, actual);
+        RadixSort.sortInPlace(inPlace);
+        assertArrayEquals(expected, inPlace);
+    }
+
+    @Test
+    public void testNullLongArray() {
+        RadixSort.sort((long[]) null);
+        RadixSort.sortInPlace((long[]) null);
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+import org.nbousquet.algorithms.test.InPlaceSortTester;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestSampleSort {
+
+    @Test
+    public void testParallelSampleSort() {
+        InPlaceSortTester.assertInPlaceSort(SampleSort::parallelSort);
+    }
+
+    @Test
+    public void testParallelSampleSortSmallThresholds() {
+        // Tiny thresholds force the distribution in buckets even on the small test arrays.
+        InPlaceSortTester.assertInPlaceSort(array -> SampleSort.parallelSort(array, ForkJoinPool.commonPool(), 1));
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            InPlaceSortTester.assertInPlaceSort(array -> SampleSort.parallelSort(array, pool, 7));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelSampleSortWithReusedBuffer() {
+        int[] buffer = new int[10000];
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            InPlaceSortTester.assertInPlaceSort(array -> SampleSort.parallelSort(array, buffer, pool, 3));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelSampleSortDistributions() {
+        int size = 300_000;
+        // A heavy value among distinct ones, and the extreme values.
+        int[] skewed = ThreadLocalRandom.current().ints(size).toArray();
+        for (int i = 0; i < size; i += 3) {
+            skewed[i] = 42;
+        }
+        skewed[1] = Integer.MIN_VALUE;
+        skewed[2] = Integer.MAX_VALUE;
+        int[][] inputs = {
+                ThreadLocalRandom.current().ints(size).toArray(),
+                ThreadLocalRandom.current().ints(size, 0, 4).toArray(),
+                ThreadLocalRandom.current().ints(size, 0, 2000).toArray(),
+                new int[size],
+                ThreadLocalRandom.current().ints(size).sorted().toArray(),
+                skewed
+        };
+        for (int[] actual : inputs) {
+            int[] expected = actual.clone();
+            Arrays.sort(expected);
+            SampleSort.parallelSort(actual, ForkJoinPool.commonPool(), 1000);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testParallelSampleSortInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SampleSort.parallelSort(new int[]{2, 1}, ForkJoinPool.commonPool(), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> SampleSort.parallelSort(new int[10], new int[9], ForkJoinPool.commonPool(), 1));
+    }
+}
@@ -0,0 +1,44 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+import org.nbousquet.algorithms.test.InPlaceSortTester;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class TestSmallSort {
+
+    @Test
+    public void testSmallSort() {
+        InPlaceSortTester.assertInPlaceSort(SmallSort::sort);
+    }
+
+    @Test
+    public void testSmallSortEverySize() {
+        Random random = new Random(13);
+        for (int size = 0; size <= 2 * SmallSort.MAX_NETWORK_SIZE; size++) {
+            for (int round = 0; round < 100; round++) {
+                int[] actual = random.ints(size, -size, size + 1).toArray();
+                int[] expected = actual.clone();
+                Arrays.sort(expected);
+                SmallSort.sort(actual);
+                assertArrayEquals(expected, actual, "Array of " + size + " elements shall be sorted");
+            }
+        }
+    }
+
+    @Test
+    public void testSmallSortRange() {
+        Random random = new Random(42);
+        for (int size = 0; size <= 2 * SmallSort.MAX_NETWORK_SIZE; size++) {
+            int[] actual = random.ints(size + 6).toArray();
+            int[] expected = actual.clone();
+            Arrays.sort(expected, 3, size + 3);
+            SmallSort.sort(actual, 3, size + 2);
+            assertArrayEquals(expected, actual, "Only the range of " + size + " elements shall be sorted");
+        }
+    }
+
+}
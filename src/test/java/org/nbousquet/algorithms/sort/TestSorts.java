@@ -0,0 +1,93 @@
+package org.nbousquet.algorithms.sort;
+
+import org.junit.jupiter.api.Test;
+import org.nbousquet.algorithms.test.InPlaceSortTester;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSorts {
+
+    @Test
+    public void testSorts() {
+        InPlaceSortTester.assertInPlaceSort(Sorts::sort);
+    }
+
+    @Test
+    public void testTinyArrayUsesSmallSort() {
+        assertSortedWith(Sorts.Algorithm.SMALL_SORT, new int[]{5, -3, Integer.MAX_VALUE, 0, Integer.MIN_VALUE});
+    }
+
+    @Test
+    public void testSmallRangeUsesCountingSort() {
+        Random random = new Random(16);
+        assertSortedWith(Sorts.Algorithm.COUNTING_SORT, random.ints(10_000, -500, 500).toArray());
+        // Sawtooth of a small range: counting beats merging the runs.
+        assertSortedWith(Sorts.Algorithm.COUNTING_SORT, IntStream.range(0, 100_000).map(i -> i % 1000).toArray());
+        // Descending with equal neighbours: not a single run for the fusion sort, which only reverses strict descents.
+        assertSortedWith(Sorts.Algorithm.COUNTING_SORT, IntStream.range(0, 1000).map(i -> 500 - i / 2).toArray());
+    }
+
+    @Test
+    public void testPresortedUsesFusionSort() {
+        Random random = new Random(42);
+        int[] ascending = random.ints(10_000).sorted().toArray();
+        assertSortedWith(Sorts.Algorithm.FUSION_SORT, ascending.clone());
+
+        int[] descending = IntStream.range(0, ascending.length).map(i -> ascending[ascending.length - 1 - i]).toArray();
+        assertSortedWith(Sorts.Algorithm.FUSION_SORT, descending);
+        // A single run is only checked, even within a small range.
+        assertSortedWith(Sorts.Algorithm.FUSION_SORT, new int[1000]);
+        assertSortedWith(Sorts.Algorithm.FUSION_SORT, IntStream.range(0, 1000).toArray());
+        assertEquals(500, Sorts.probe(IntStream.range(0, 1000).map(i -> -(i / 2)).toArray()).runs,
+                "Equal neighbours shall end descending runs");
+
+        // Concatenated sorted batches.
+        int[] batches = random.ints(10_000).toArray();
+        for (int i = 0; i < batches.length; i += 1000) {
+            Arrays.sort(batches, i, i + 1000);
+        }
+        assertSortedWith(Sorts.Algorithm.FUSION_SORT, batches);
+    }
+
+    @Test
+    public void testDuplicatesUseThreeWayQuickSort() {
+        Random random = new Random(7);
+        int[] values = random.ints(20).toArray();
+        int[] array = random.ints(10_000, 0, values.length).map(i -> values[i]).toArray();
+        assertSortedWith(Sorts.Algorithm.THREE_WAY_QUICK_SORT, array);
+    }
+
+    @Test
+    public void testRandomUsesIntroSort() {
+        assertSortedWith(Sorts.Algorithm.INTRO_SORT, new Random(3).ints(10_000).toArray());
+    }
+
+    @Test
+    public void testListenerIsOptional() {
+        int[] actual = new Random(5).ints(1000).toArray();
+        int[] expected = actual.clone();
+        Arrays.sort(expected);
+        Sorts.sort(actual, null);
+        assertArrayEquals(expected, actual, "Array shall be sorted without listener");
+    }
+
+    private static void assertSortedWith(Sorts.Algorithm algorithm, int[] actual) {
+        int[] expected = actual.clone();
+        Arrays.sort(expected);
+        List<Sorts.Decision> decisions = new ArrayList<>();
+        Sorts.sort(actual, decisions::add);
+        assertEquals(1, decisions.size(), "Listener shall be called once");
+        assertEquals(algorithm, decisions.get(0).algorithm, "Unexpected algorithm for " + decisions.get(0));
+        assertEquals(actual.length, decisions.get(0).length, "Length shall be reported");
+        assertEquals(expected[0], decisions.get(0).min, "Min shall be reported");
+        assertEquals(expected[expected.length - 1], decisions.get(0).max, "Max shall be reported");
+        assertArrayEquals(expected, actual, "Array shall be sorted with " + algorithm);
+    }
+
+}
@@ -3,6 +3,13 @@ package org.nbousquet.algorithms.sort;
 import org.junit.jupiter.api.Test;
 import org.nbousquet.algorithms.test.InPlaceSortTester;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class TestThreeWayQuickSort {
 
     @Test
@@ -10,4 +17,39 @@ public class TestThreeWayQuickSort {
         InPlaceSortTester.assertInPlaceSort(ThreeWayQuickSort::sort);
     }
 
+    @Test
+    public void testParallelThreeWayQuickSort() {
+        InPlaceSortTester.assertInPlaceSort(ThreeWayQuickSort::parallelSort);
+    }
+
+    @Test
+    public void testParallelThreeWayQuickSortSmallThresholds() {
+        // Tiny thresholds force parallel tasks and block partitions even on the small test arrays.
+        InPlaceSortTester.assertInPlaceSort(array -> ThreeWayQuickSort.parallelSort(array, ForkJoinPool.commonPool(), 1, 2));
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            InPlaceSortTester.assertInPlaceSort(array -> ThreeWayQuickSort.parallelSort(array, pool, 7, 64));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelThreeWayQuickSortDuplicateHeavy() {
+        int[] actual = new int[200_000];
+        for (int i = 0; i < actual.length; i++) {
+            actual[i] = ThreadLocalRandom.current().nextInt(4);
+        }
+        int[] expected = actual.clone();
+        Arrays.sort(expected);
+        ThreeWayQuickSort.parallelSort(actual, ForkJoinPool.commonPool(), 1000, 10_000);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void testParallelThreeWayQuickSortInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ThreeWayQuickSort.parallelSort(new int[]{2, 1}, ForkJoinPool.commonPool(), 0));
+    }
+
 }
@@ -0,0 +1,483 @@
+package org.nbousquet.algorithms.vector;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+import org.nbousquet.algorithms.common.Utils;
+import org.nbousquet.algorithms.heap.IntHeap;
+import org.nbousquet.algorithms.sort.SmallSort;
+
+import java.util.stream.IntStream;
+
+/**
+ * Sorting kernels on vectors of ints, with the incubating Java Vector API. Only loaded by {@link VectorSort} once the
+ * API is known to be available.
+ * <p>
+ * Three building blocks, each processing a whole vector of ints without any branch on the values:
+ * <ul>
+ * <li>Partitioning by compress-store: the comparison of a vector with the pivot gives a mask, used to pick a
+ * permutation that packs the lower ints at the beginning of the vector and the others at the end. The permuted vector
+ * is stored twice, at the write position of each side, so both sides get their ints with 2 stores and no branch.
+ * The API of JDK 17 has no compress operation, so the permutations are precomputed for every mask.</li>
+ * <li>Bitonic sort in registers: a bitonic sorting network across the lanes of a vector, each stage being a
+ * permutation bringing each lane in front of its partner, a min, a max and a blend.</li>
+ * <li>Merging of 2 sorted vectors with a bitonic merge: one vector is reversed, so that with the other they form a
+ * bitonic sequence, then half-cleaners sort it. Merging 2 sorted arrays is then a loop loading the next vector from
+ * the array whose next int is the smallest and merging it with the upper half of the previous merge.</li>
+ * </ul>
+ * Vectors are at most 8 ints, as the permutation table of the partition has one entry per mask: 256 for 8 lanes.
+ * Wider vectors of the CPU are not used.
+ */
+class VectorKernels {
+
+    /**
+     * Shape of the vectors: the preferred one of the CPU, down to 8 ints.
+     */
+    static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED.length() > 8
+            ? IntVector.SPECIES_256 : IntVector.SPECIES_PREFERRED;
+    /**
+     * Number of ints per vector.
+     */
+    static final int LANES = SPECIES.length();
+    /**
+     * Fewest lanes worth vectorizing: below that the scalar sorts are used.
+     */
+    static final int MIN_LANES = 4;
+    /**
+     * Size of the blocks sorted in registers, the initial runs of the merge sort.
+     */
+    static final int BLOCK_SIZE = 2 * LANES;
+    /**
+     * Size from which the pivot is the ninther rather than the median of 3 elements.
+     */
+    private static final int NINTHER_THRESHOLD = 128;
+    /**
+     * Arity of the heap sort finishing the ranges partitioned too deep, see the HeapSort of the algorithms project.
+     */
+    private static final int HEAP_ARITY = 8;
+
+    private static final IntVector MAX = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+    private static final IntVector ZERO = IntVector.zero(SPECIES);
+    /**
+     * Bit of each lane in a mask, 1 for lane 0, 2 for lane 1, 4 for lane 2... {@link VectorMask#toLong()} is not
+     * compiled to a vector instruction in JDK 17, a blend of these bits and an or of the lanes is.
+     */
+    private static final IntVector LANE_BITS = IntVector.fromArray(SPECIES,
+            IntStream.range(0, LANES).map(lane -> 1 << lane).toArray(), 0);
+    /**
+     * For each mask of the lanes lower than the pivot, the permutation packing these lanes first, in order, then the
+     * other lanes.
+     */
+    private static final VectorShuffle<Integer>[] COMPRESS = compressShuffles();
+    private static final VectorShuffle<Integer> REVERSE = VectorShuffle.fromOp(SPECIES, i -> LANES - 1 - i);
+    /**
+     * Permutations bringing each lane in front of its partner at distance 1, 2 and 4, the last one being only used
+     * with 8 lanes.
+     */
+    private static final VectorShuffle<Integer> EXCHANGE_1 = exchange(1);
+    private static final VectorShuffle<Integer> EXCHANGE_2 = exchange(2);
+    private static final VectorShuffle<Integer> EXCHANGE_4 = exchange(4);
+    /**
+     * Lanes keeping the max of their pair at each stage of the bitonic sorting network, named after the size of the
+     * sorted blocks and the distance of the partners.
+     */
+    private static final VectorMask<Integer> SORT_2_1 = sortMaxLanes(2, 1);
+    private static final VectorMask<Integer> SORT_4_2 = sortMaxLanes(4, 2);
+    private static final VectorMask<Integer> SORT_4_1 = sortMaxLanes(4, 1);
+    private static final VectorMask<Integer> SORT_8_4 = sortMaxLanes(8, 4);
+    private static final VectorMask<Integer> SORT_8_2 = sortMaxLanes(8, 2);
+    private static final VectorMask<Integer> SORT_8_1 = sortMaxLanes(8, 1);
+    /**
+     * Lanes keeping the max of their pair at each stage of the half-cleaners, named after the distance of the
+     * partners.
+     */
+    private static final VectorMask<Integer> CLEAN_4 = cleanMaxLanes(4);
+    private static final VectorMask<Integer> CLEAN_2 = cleanMaxLanes(2);
+    private static final VectorMask<Integer> CLEAN_1 = cleanMaxLanes(1);
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // introspective sort
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Sort the provided array, of at least 2 elements, with an introspective sort, like the introSort of the QuickSort
+     * of the algorithms project: median of 3 or ninther pivot, recursion on the smaller side only and heap sort past
+     * 2 * log2(N) partitioning levels. Partitions are vectorized, see
+     * {@link VectorKernels#partition(int[], int, int, int, boolean, int[])}. Small ranges are finished with the scalar
+     * sorting networks of {@link SmallSort}, measured faster here than the bitonic sort in registers.
+     * <p>
+     * A Lomuto like partition puts the elements equal to the pivot on the same side, which is quadratic on many
+     * duplicates. So when no element is lower than the pivot, the pivot being the minimum of the range, the elements
+     * equal to it are gathered by a second partition and left in place, as with a 3 way partition.
+     *
+     * @param array array to sort
+     */
+    static void introSort(int[] array) {
+        introSort(array, 0, array.length - 1, 2 * log2(array.length), new int[3 * LANES]);
+    }
+
+    private static void introSort(int[] array, int start, int end, int depthLimit, int[] tail) {
+        while (end - start + 1 > SmallSort.MAX_NETWORK_SIZE) {
+            if (depthLimit == 0) {
+                heapSort(array, start, end);
+                return;
+            }
+            depthLimit--;
+            int pivotIndex = choosePivot(array, start, end);
+            int pivot = array[pivotIndex];
+            // The pivot is put at the end of the range, out of the partitioned elements.
+            Utils.swap(array, pivotIndex, end);
+            pivotIndex = partition(array, start, end - 1, pivot, false, tail);
+            Utils.swap(array, pivotIndex, end);
+            if (pivotIndex == start) {
+                // The pivot is the minimum: gather its duplicates right after it, they are in place.
+                start = partition(array, start + 1, end, pivot, true, tail);
+            } else if (pivotIndex - start < end - pivotIndex) {
+                introSort(array, start, pivotIndex - 1, depthLimit, tail);
+                start = pivotIndex + 1;
+            } else {
+                introSort(array, pivotIndex + 1, end, depthLimit, tail);
+                end = pivotIndex - 1;
+            }
+        }
+        SmallSort.sort(array, start, end);
+    }
+
+    /**
+     * Partition the range from to to (both included) around the pivot value: elements lower than the pivot, or also
+     * equal if orEqual, are moved at the beginning of the range.
+     * <p>
+     * One vector is loaded from each end of the range beforehand, which leaves room for a full vector store on each
+     * side. Then each vector loaded is permuted so that its lower elements come first, see {@link VectorKernels}, and
+     * stored at the left write position and at the right one: the lower elements land on the left, the others on the
+     * right, the rest of each store being overwritten later. The next vector is loaded from the side with the least
+     * room, so each side always has room for a full vector. The last unread elements and the 2 vectors loaded
+     * beforehand, less than 3 vectors, are partitioned one by one.
+     *
+     * @param array   array to partition
+     * @param from    beginning of the range, included
+     * @param to      end of the range, included
+     * @param pivot   value to partition around
+     * @param orEqual whether elements equal to the pivot go to the beginning
+     * @param tail    buffer of at least 3 * LANES ints
+     * @return index of the first element of the range not moved to the beginning
+     */
+    static int partition(int[] array, int from, int to, int pivot, boolean orEqual, int[] tail) {
+        // Lower or equal is lower than the next value, so a single constant comparison is used, which the JIT needs
+        // to compile it to a vector instruction.
+        if (orEqual && pivot == Integer.MAX_VALUE) {
+            return to + 1;
+        }
+        int bound = orEqual ? pivot + 1 : pivot;
+        int writeLeft = from;
+        int writeRight = to + 1;
+        int readLeft = from;
+        int readRight = to + 1;
+        if (to - from + 1 >= 2 * LANES) {
+            IntVector first = IntVector.fromArray(SPECIES, array, from);
+            IntVector last = IntVector.fromArray(SPECIES, array, to + 1 - LANES);
+            readLeft += LANES;
+            readRight -= LANES;
+            while (readRight - readLeft >= LANES) {
+                IntVector vector;
+                if (readLeft - writeLeft <= writeRight - readRight) {
+                    vector = IntVector.fromArray(SPECIES, array, readLeft);
+                    readLeft += LANES;
+                } else {
+                    readRight -= LANES;
+                    vector = IntVector.fromArray(SPECIES, array, readRight);
+                }
+                int mask = ZERO.blend(LANE_BITS, vector.compare(VectorOperators.LT, bound)).reduceLanes(VectorOperators.OR);
+                IntVector packed = vector.rearrange(COMPRESS[mask]);
+                packed.intoArray(array, writeLeft);
+                packed.intoArray(array, writeRight - LANES);
+                int lowerCount = Integer.bitCount(mask);
+                writeLeft += lowerCount;
+                writeRight -= LANES - lowerCount;
+            }
+            first.intoArray(tail, readRight - readLeft);
+            last.intoArray(tail, readRight - readLeft + LANES);
+        }
+        // Everything between the write positions is now free: partition the rest one element at a time.
+        int rest = readRight - readLeft;
+        System.arraycopy(array, readLeft, tail, 0, rest);
+        int count = writeRight - writeLeft;
+        for (int i = 0; i < count; i++) {
+            int value = tail[i];
+            if (value < bound) {
+                array[writeLeft++] = value;
+            } else {
+                array[--writeRight] = value;
+            }
+        }
+        return writeLeft;
+    }
+
+    private static int choosePivot(int[] array, int start, int end) {
+        int length = end - start + 1;
+        int middle = start + length / 2;
+        if (length < NINTHER_THRESHOLD) {
+            return medianOfThree(array, start, middle, end);
+        }
+        int step = length / 8;
+        int first = medianOfThree(array, start, start + step, start + 2 * step);
+        int second = medianOfThree(array, middle - step, middle, middle + step);
+        int third = medianOfThree(array, end - 2 * step, end - step, end);
+        return medianOfThree(array, first, second, third);
+    }
+
+    private static int medianOfThree(int[] array, int i, int j, int k) {
+        if (array[i] < array[j]) {
+            if (array[j] < array[k]) {
+                return j;
+            }
+            return array[i] < array[k] ? k : i;
+        }
+        if (array[i] < array[k]) {
+            return i;
+        }
+        return array[j] < array[k] ? k : j;
+    }
+
+    private static void heapSort(int[] array, int start, int end) {
+        int length = end - start + 1;
+        IntHeap.heapify(array, start, length, HEAP_ARITY);
+        for (int i = length; i > 1; i--) {
+            array[start + i - 1] = IntHeap.pop(array, start, i, HEAP_ARITY);
+        }
+        while (start < end) {
+            Utils.swap(array, start++, end--);
+        }
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // merge sort
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Sort the provided array, of at least 2 elements, with a bottom-up merge sort: blocks of BLOCK_SIZE elements are
+     * sorted in registers, then sorted runs are merged pairwise with
+     * {@link VectorKernels#merge(int[], int, int, int[], int, int, int[], int)}, back and forth between the array and a
+     * buffer of the same size, until a single run remains.
+     *
+     * @param array array to sort
+     */
+    static void mergeSort(int[] array) {
+        int length = array.length;
+        for (int start = 0; start < length; start += BLOCK_SIZE) {
+            sortBlock(array, start, Math.min(BLOCK_SIZE, length - start));
+        }
+        int[] source = array;
+        int[] destination = new int[length];
+        for (int width = BLOCK_SIZE; width < length; width <<= 1) {
+            for (int start = 0; start < length; start += 2 * width) {
+                int middle = Math.min(start + width, length);
+                int end = Math.min(start + 2 * width, length);
+                merge(source, start, middle - start, source, middle, end - middle, destination, start);
+            }
+            int[] swap = source;
+            source = destination;
+            destination = swap;
+        }
+        if (source != array) {
+            System.arraycopy(source, 0, array, 0, length);
+        }
+    }
+
+    /**
+     * Merge 2 sorted ranges into the destination.
+     * <p>
+     * The first vector of each range are merged, see {@link VectorKernels#clean(IntVector)}: the lower
+     * half is written, the upper half is kept. Then the next vector is loaded from the range whose next int is the
+     * smallest and merged with the kept half, and so on: every int written is lower or equal to the kept ones and to
+     * all the ints not loaded yet. The last vector of a range is padded with {@link Integer#MAX_VALUE}, which sorts
+     * after every int of the ranges, and the writes stop at the end of the merged range, so the padding is never
+     * written.
+     *
+     * @param first            array of the first range
+     * @param firstStart       start of the first range
+     * @param firstLength      length of the first range
+     * @param second           array of the second range
+     * @param secondStart      start of the second range
+     * @param secondLength     length of the second range
+     * @param destination      array receiving the merged ints, not overlapping the ranges
+     * @param destinationStart index of the destination where to write the first int
+     */
+    static void merge(int[] first, int firstStart, int firstLength, int[] second, int secondStart, int secondLength,
+                      int[] destination, int destinationStart) {
+        if (firstLength == 0 || secondLength == 0) {
+            System.arraycopy(first, firstStart, destination, destinationStart, firstLength);
+            System.arraycopy(second, secondStart, destination, destinationStart + firstLength, secondLength);
+            return;
+        }
+        int i = firstStart;
+        int firstEnd = firstStart + firstLength;
+        int j = secondStart;
+        int secondEnd = secondStart + secondLength;
+        int next = destinationStart;
+        int end = destinationStart + firstLength + secondLength;
+        IntVector upper = load(first, i, firstEnd);
+        IntVector lower = load(second, j, secondEnd);
+        i += LANES;
+        j += LANES;
+        while (true) {
+            IntVector reversed = lower.rearrange(REVERSE);
+            store(clean(upper.min(reversed)), destination, next, end);
+            next += LANES;
+            upper = clean(upper.max(reversed));
+            if (i < firstEnd && (j >= secondEnd || first[i] <= second[j])) {
+                lower = load(first, i, firstEnd);
+                i += LANES;
+            } else if (j < secondEnd) {
+                lower = load(second, j, secondEnd);
+                j += LANES;
+            } else {
+                break;
+            }
+        }
+        store(upper, destination, next, end);
+    }
+
+    /**
+     * Load the vector of the array at index start, lanes at or after the end being {@link Integer#MAX_VALUE}.
+     */
+    private static IntVector load(int[] array, int start, int end) {
+        if (end - start >= LANES) {
+            return IntVector.fromArray(SPECIES, array, start);
+        }
+        VectorMask<Integer> lanes = SPECIES.indexInRange(start, end);
+        return MAX.blend(IntVector.fromArray(SPECIES, array, start, lanes), lanes);
+    }
+
+    /**
+     * Store the vector in the array at index start, only the lanes before the end.
+     */
+    private static void store(IntVector vector, int[] array, int start, int end) {
+        if (end - start >= LANES) {
+            vector.intoArray(array, start);
+        } else if (start < end) {
+            vector.intoArray(array, start, SPECIES.indexInRange(start, end));
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // in register kernels
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Sort a block of at most BLOCK_SIZE ints in registers: the block is loaded in 2 vectors, padded with
+     * {@link Integer#MAX_VALUE} that sort last, each vector is sorted then both are merged.
+     *
+     * @param array  array to sort
+     * @param start  start of the block
+     * @param length length of the block, at most BLOCK_SIZE
+     */
+    static void sortBlock(int[] array, int start, int length) {
+        if (length < 2) {
+            return;
+        }
+        int end = start + length;
+        IntVector first = sort(load(array, start, end));
+        if (length <= LANES) {
+            store(first, array, start, end);
+            return;
+        }
+        IntVector second = sort(load(array, start + LANES, end)).rearrange(REVERSE);
+        clean(first.min(second)).intoArray(array, start);
+        store(clean(first.max(second)), array, start + LANES, end);
+    }
+
+    /**
+     * Sort the lanes of the vector with a bitonic sorting network: blocks of 2 lanes are sorted alternately ascending
+     * and descending, so each pair of blocks is a bitonic sequence, sorted into a block of 4 lanes by half-cleaners,
+     * and so on up to all the lanes. The stages are unrolled, a loop over them would keep the vector in memory.
+     */
+    static IntVector sort(IntVector vector) {
+        vector = exchange(vector, EXCHANGE_1, SORT_2_1);
+        vector = exchange(vector, EXCHANGE_2, SORT_4_2);
+        vector = exchange(vector, EXCHANGE_1, SORT_4_1);
+        if (LANES == 8) {
+            vector = exchange(vector, EXCHANGE_4, SORT_8_4);
+            vector = exchange(vector, EXCHANGE_2, SORT_8_2);
+            vector = exchange(vector, EXCHANGE_1, SORT_8_1);
+        }
+        return vector;
+    }
+
+    /**
+     * Sort a bitonic vector with half-cleaners, partners at distance LANES / 2 then down to 1.
+     * <p>
+     * Merging 2 sorted vectors is a clean of their min and of their max once the lanes of the second one are reversed:
+     * both are then bitonic sequences, the min ones all lower or equal to the max ones.
+     */
+    static IntVector clean(IntVector vector) {
+        if (LANES == 8) {
+            vector = exchange(vector, EXCHANGE_4, CLEAN_4);
+        }
+        vector = exchange(vector, EXCHANGE_2, CLEAN_2);
+        return exchange(vector, EXCHANGE_1, CLEAN_1);
+    }
+
+    /**
+     * Compare-exchange every lane with its partner, the max lanes keeping the max of the pair.
+     */
+    private static IntVector exchange(IntVector vector, VectorShuffle<Integer> partners, VectorMask<Integer> maxLanes) {
+        IntVector partner = vector.rearrange(partners);
+        return vector.min(partner).blend(vector.max(partner), maxLanes);
+    }
+
+    private static VectorShuffle<Integer> exchange(int distance) {
+        // Distances out of the vector give the identity, unused.
+        return VectorShuffle.fromOp(SPECIES, i -> (i ^ distance) & (LANES - 1));
+    }
+
+    private static VectorMask<Integer> sortMaxLanes(int block, int distance) {
+        // Lane i keeps the min when it is the lower lane of its pair in an ascending block, or the upper one in a
+        // descending block.
+        boolean[] maxLanes = new boolean[LANES];
+        for (int i = 0; i < LANES; i++) {
+            maxLanes[i] = ((i & distance) == 0) != ((i & block) == 0);
+        }
+        return VectorMask.fromArray(SPECIES, maxLanes, 0);
+    }
+
+    private static VectorMask<Integer> cleanMaxLanes(int distance) {
+        boolean[] maxLanes = new boolean[LANES];
+        for (int i = 0; i < LANES; i++) {
+            maxLanes[i] = (i & distance) != 0;
+        }
+        return VectorMask.fromArray(SPECIES, maxLanes, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorShuffle<Integer>[] compressShuffles() {
+        VectorShuffle<Integer>[] shuffles = newShuffles(1 << LANES);
+        int[] indexes = new int[LANES];
+        for (int mask = 0; mask < shuffles.length; mask++) {
+            int next = 0;
+            for (int lane = 0; lane < LANES; lane++) {
+                if ((mask & (1 << lane)) != 0) {
+                    indexes[next++] = lane;
+                }
+            }
+            for (int lane = 0; lane < LANES; lane++) {
+                if ((mask & (1 << lane)) == 0) {
+                    indexes[next++] = lane;
+                }
+            }
+            shuffles[mask] = VectorShuffle.fromArray(SPECIES, indexes, 0);
+        }
+        return shuffles;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorShuffle<Integer>[] newShuffles(int length) {
+        return (VectorShuffle<Integer>[]) new VectorShuffle[length];
+    }
+}
@@ -0,0 +1,96 @@
+package org.nbousquet.algorithms.vector;
+
+import org.nbousquet.algorithms.sort.FusionSort;
+import org.nbousquet.algorithms.sort.KWayMerge;
+import org.nbousquet.algorithms.sort.QuickSort;
+
+/**
+ * Sorts of int arrays vectorized with SIMD instructions through the incubating Java Vector API, see
+ * {@link VectorKernels} for the algorithms.
+ * <p>
+ * The Vector API is only available when the JVM runs with {@code --add-modules jdk.incubator.vector}, and only fast
+ * when the CPU has vectors of at least 4 ints. Otherwise every method falls back to its scalar counterpart of the
+ * algorithms project, the choice being made once when this class is loaded: see {@link VectorSort#isVectorized()}.
+ * <p>
+ * This class does not reference any class of the Vector API itself, so it loads whether the API is there or not.
+ */
+public class VectorSort {
+
+    private static final boolean VECTORIZED = detectVectorApi();
+
+    /**
+     * Return whether the sorts run the vectorized kernels or the scalar fallbacks.
+     *
+     * @return true if the Vector API is available with vectors of at least 4 ints
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Sort the provided array in ascending order using an introspective sort with vectorized partitioning, see
+     * {@link VectorKernels#introSort(int[])}. Falls back to {@link QuickSort#introSort(int[], QuickSort.PartitionStrategy)}
+     * with block partitioning.
+     *
+     * @param array array to sort
+     */
+    public static void sort(int[] array) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        if (VECTORIZED) {
+            VectorKernels.introSort(array);
+        } else {
+            QuickSort.introSort(array, QuickSort.PartitionStrategy.BLOCK);
+        }
+    }
+
+    /**
+     * Sort the provided array in ascending order using a bottom-up merge sort with vectorized merging, see
+     * {@link VectorKernels#mergeSort(int[])}. Falls back to {@link FusionSort#sort(int[])}.
+     *
+     * @param array array to sort
+     */
+    public static void mergeSort(int[] array) {
+        if (array == null || array.length < 2) {
+            return;
+        }
+        if (VECTORIZED) {
+            VectorKernels.mergeSort(array);
+        } else {
+            FusionSort.sort(array);
+        }
+    }
+
+    /**
+     * Merge the 2 provided sorted arrays into a new sorted array, see
+     * {@link VectorKernels#merge(int[], int, int, int[], int, int, int[], int)}. Falls back to
+     * {@link KWayMerge#merge(int[]...)}.
+     *
+     * @param first  array sorted in ascending order
+     * @param second array sorted in ascending order
+     * @return new array holding the ints of both arrays, in ascending order
+     * @throws IllegalArgumentException the arrays hold more ints than an array can
+     */
+    public static int[] merge(int[] first, int[] second) {
+        if (!VECTORIZED) {
+            return KWayMerge.merge(first, second);
+        }
+        long length = (long) first.length + second.length;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Arrays hold too many ints for an array: " + length);
+        }
+        int[] merged = new int[(int) length];
+        VectorKernels.merge(first, 0, first.length, second, 0, second.length, merged, 0);
+        return merged;
+    }
+
+    private static boolean detectVectorApi() {
+        try {
+            return VectorKernels.LANES >= VectorKernels.MIN_LANES;
+        } catch (LinkageError e) {
+            // jdk.incubator.vector is not in the boot layer.
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.nbousquet.algorithms.vector;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Kernels are only tested when the vector module is there, see the pom.
+ */
+public class TestVectorKernels {
+
+    @BeforeEach
+    public void requireVectorApi() {
+        assumeTrue(VectorSort.isVectorized(), "Vector API not available");
+    }
+
+    @Test
+    public void testPartition() {
+        Random random = new Random(7);
+        int[] tail = new int[3 * VectorKernels.LANES];
+        for (int length = 1; length < 200; length++) {
+            for (boolean orEqual : new boolean[]{false, true}) {
+                int[] array = random.ints(length + 4, 0, 20).toArray();
+                int[] before = array.clone();
+                int pivot = random.nextInt(20);
+                int split = VectorKernels.partition(array, 2, length + 1, pivot, orEqual, tail);
+                for (int i = 2; i <= length + 1; i++) {
+                    boolean lower = orEqual ? array[i] <= pivot : array[i] < pivot;
+                    assertEquals(i < split, lower, "Element " + i + " on the wrong side of " + split);
+                }
+                assertEquals(before[0] + before[1] + before[length + 2] + before[length + 3],
+                        array[0] + array[1] + array[length + 2] + array[length + 3],
+                        "Elements out of the range shall be left untouched");
+                assertArrayEquals(Arrays.stream(before).sorted().toArray(), Arrays.stream(array).sorted().toArray(),
+                        "Partition shall be a permutation");
+            }
+        }
+    }
+
+    @Test
+    public void testSortBlock() {
+        Random random = new Random(13);
+        for (int length = 0; length <= VectorKernels.BLOCK_SIZE; length++) {
+            for (int round = 0; round < 100; round++) {
+                int[] array = random.ints(length + 2, -5, 5).toArray();
+                array[0] = Integer.MAX_VALUE;
+                array[array.length - 1] = Integer.MIN_VALUE;
+                int[] expected = array.clone();
+                Arrays.sort(expected, 1, length + 1);
+                VectorKernels.sortBlock(array, 1, length);
+                assertArrayEquals(expected, array, "Block of " + length + " ints shall be sorted in place");
+            }
+        }
+    }
+}
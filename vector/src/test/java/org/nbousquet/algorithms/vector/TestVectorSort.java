@@ -0,0 +1,73 @@
+package org.nbousquet.algorithms.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Run with and without the vector module, see the pom: the facade shall sort whatever the backend.
+ */
+public class TestVectorSort {
+
+    @Test
+    public void testBackendMatchesVectorModule() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (!vectorModule) {
+            assertFalse(VectorSort.isVectorized(), "Scalar sorts shall be used without the vector module");
+        }
+    }
+
+    @Test
+    public void testSort() {
+        assertSorts(VectorSort::sort);
+    }
+
+    @Test
+    public void testMergeSort() {
+        assertSorts(VectorSort::mergeSort);
+    }
+
+    @Test
+    public void testMerge() {
+        Random random = new Random(19);
+        for (int firstLength : new int[]{0, 1, 7, 8, 9, 100, 1000}) {
+            for (int secondLength : new int[]{0, 1, 7, 8, 9, 100, 1000}) {
+                int[] first = random.ints(firstLength, -100, 100).sorted().toArray();
+                int[] second = random.ints(secondLength).sorted().toArray();
+                int[] expected = IntStream.concat(Arrays.stream(first), Arrays.stream(second)).sorted().toArray();
+                assertArrayEquals(expected, VectorSort.merge(first, second),
+                        "Merge of " + firstLength + " and " + secondLength + " ints shall be sorted");
+            }
+        }
+    }
+
+    private static void assertSorts(Consumer<int[]> sort) {
+        sort.accept(null);
+        Random random = new Random(42);
+        for (int size = 0; size < 100; size++) {
+            assertSorted(sort, random.ints(size).toArray());
+            assertSorted(sort, random.ints(size, 0, 3).toArray());
+        }
+        for (int size : new int[]{1000, 100_000, 1_000_000}) {
+            assertSorted(sort, random.ints(size).toArray());
+            assertSorted(sort, random.ints(size, 0, 10).toArray());
+            assertSorted(sort, random.ints(size, Integer.MAX_VALUE - 5, Integer.MAX_VALUE).toArray());
+            assertSorted(sort, IntStream.range(0, size).toArray());
+            assertSorted(sort, IntStream.range(0, size).map(i -> size - i).toArray());
+            assertSorted(sort, IntStream.range(0, size).map(i -> i % 1000).toArray());
+            assertSorted(sort, new int[size]);
+        }
+    }
+
+    private static void assertSorted(Consumer<int[]> sort, int[] actual) {
+        int[] expected = actual.clone();
+        Arrays.sort(expected);
+        sort.accept(actual);
+        assertArrayEquals(expected, actual, "Array of " + actual.length + " ints shall be sorted");
+    }
+}